@@ -15,22 +15,50 @@ android {
         versionName = "1.0"
 
         testInstrumentationRunner = "androidx.test.runner.AndroidJUnitRunner"
+        buildConfigField("boolean", "USE_LOCAL_BACKEND", "false")
+    }
+
+    buildFeatures {
+        buildConfig = true
     }
 
     buildTypes {
         release {
-            isMinifyEnabled = false
+            // R8 with the rules in proguard-rules.pro; src/main/baseline-prof.txt is compiled in
+            // and installed by profileinstaller.
+            isMinifyEnabled = true
+            isShrinkResources = true
             proguardFiles(
                 getDefaultProguardFile("proguard-android-optimize.txt"),
                 "proguard-rules.pro"
             )
         }
+        // What the :benchmark macrobenchmarks measure: release code, signed with the debug key so it
+        // installs anywhere, and served from SampleData instead of Firebase.
+        create("benchmark") {
+            initWith(getByName("release"))
+            signingConfig = signingConfigs.getByName("debug")
+            matchingFallbacks += listOf("release")
+            isDebuggable = false
+            buildConfigField("boolean", "USE_LOCAL_BACKEND", "true")
+        }
     }
 
     compileOptions {
         sourceCompatibility = JavaVersion.VERSION_1_8
         targetCompatibility = JavaVersion.VERSION_1_8
     }
+
+    // The unit tests' benchmarks run small and quietly by default. Their large runs and printed
+    // figures need the switch forwarded into the forked test JVM:
+    //   ./gradlew :app:testDebugUnitTest -Dmoviebuzz.benchmark.large=true
+    testOptions {
+        unitTests.all {
+            val large = System.getProperty("moviebuzz.benchmark.large") ?: "false"
+            it.systemProperty("moviebuzz.benchmark.large", large)
+            it.testLogging.showStandardStreams = large.toBoolean()
+        }
+    }
 }
 
 dependencies {
@@ -42,15 +70,25 @@ dependencies {
     // Firebase
     implementation(platform(libs.firebase.bom))
     implementation(libs.firebase.database)
+    implementation(libs.firebase.storage)
     implementation(libs.firebase.analytics)
 
     // Glide
     implementation(libs.glide)
     annotationProcessor(libs.glide.compiler)
+    // Used directly by OmdbClient's response cache
+    implementation(libs.glide.disklrucache)
+    // RecyclerViewPreloader for the customer grid
+    implementation(libs.glide.recyclerview) {
+        isTransitive = false
+    }
 
     // Jackson
     implementation(libs.jackson)
 
+    // Installs the baseline profile on devices that don't get it from the Play Store
+    implementation(libs.profileinstaller)
+
     testImplementation(libs.junit)
     androidTestImplementation(libs.ext.junit)
     androidTestImplementation(libs.espresso.core)
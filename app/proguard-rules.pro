@@ -18,4 +18,28 @@
 
 # If you keep the line number information, uncomment this to
 # hide the original source file name.
-#-renamesourcefileattribute SourceFile
\ No newline at end of file
+#-renamesourcefileattribute SourceFile
+
+# --- MovieBuzz ---
+
+# Keep stack traces from release builds readable.
+-keepattributes SourceFile,LineNumberTable
+-renamesourcefileattribute SourceFile
+
+# Firebase's CustomClassMapper (ModelCodec's reflection fallback) and Jackson (LocalStore's disk
+# cache, OMDb responses) map the models by reflection: both need the no-arg constructors, the bean
+# accessors under their source names, and the @PropertyName / @JsonProperty annotations.
+-keepattributes Signature,*Annotation*,InnerClasses,EnclosingMethod
+-keep class com.example.moviebuzz.Movie { *; }
+-keep class com.example.moviebuzz.Show { *; }
+-keep class com.example.moviebuzz.Booking { *; }
+-keep class com.example.moviebuzz.User { *; }
+-keep class com.example.moviebuzz.BookingSummary { *; }
+-keep class com.example.moviebuzz.OmdbClient$Suggestion { *; }
+-keep class com.example.moviebuzz.OmdbClient$SearchPage { *; }
+
+# jackson-databind ships no consumer rules. It looks up its optional JDK integrations (java.beans,
+# DOM, java.sql) reflectively and copes with their absence.
+-keepnames class com.fasterxml.jackson.** { *; }
+-dontwarn com.fasterxml.jackson.databind.ext.**
+-dontwarn java.beans.**
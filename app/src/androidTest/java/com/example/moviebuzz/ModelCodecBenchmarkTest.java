@@ -0,0 +1,91 @@
+package com.example.moviebuzz;
+
+import android.os.Bundle;
+
+import androidx.test.ext.junit.runners.AndroidJUnit4;
+import androidx.test.platform.app.InstrumentationRegistry;
+
+import com.google.firebase.database.DataSnapshot;
+
+import org.junit.Test;
+import org.junit.runner.RunWith;
+
+import java.util.ArrayList;
+import java.util.HashMap;
+import java.util.List;
+import java.util.Locale;
+import java.util.Map;
+
+import static org.junit.Assert.*;
+
+// Decodes booking snapshots the two ways FirebaseBackend can, DataSnapshot.getValue(Class) and
+// ModelCodec.decode(snap.getValue()), and reports records/s for each as instrumentation status,
+// printed as INSTRUMENTATION_STATUS lines by a raw run. Snapshots cycle through a fixed set of
+// distinct bookings so memory stays flat at large sizes. The 1M run is skipped unless the
+// moviebuzz.benchmark.large argument is true:
+//   adb shell am instrument -w -r -e class com.example.moviebuzz.ModelCodecBenchmarkTest \
+//       -e moviebuzz.benchmark.large true com.example.moviebuzz.test/androidx.test.runner.AndroidJUnitRunner
+@RunWith(AndroidJUnit4.class)
+public class ModelCodecBenchmarkTest {
+    private static final int DISTINCT = 10_000;
+
+    @Test
+    public void decodeThroughput() throws Exception {
+        Map<String, Object> bookings = new HashMap<>();
+        for (int i = 0; i < DISTINCT; i++) bookings.put(String.format(Locale.US, "-b%08d", i), booking(i));
+        List<DataSnapshot> snapshots = new ArrayList<>(DISTINCT);
+        for (DataSnapshot child : OfflineDatabase.write(bookings).getChildren()) snapshots.add(child);
+        assertEquals(DISTINCT, snapshots.size());
+
+        List<Integer> sizes = new ArrayList<>();
+        sizes.add(10_000);
+        sizes.add(100_000);
+        if (Boolean.parseBoolean(InstrumentationRegistry.getArguments().getString("moviebuzz.benchmark.large"))) {
+            sizes.add(1_000_000);
+        }
+
+        // Warm both paths up so the first measured size isn't dominated by JIT compilation.
+        decode(snapshots, DISTINCT, true);
+        decode(snapshots, DISTINCT, false);
+
+        for (int records : sizes) {
+            double reflective = decode(snapshots, records, true);
+            double codec = decode(snapshots, records, false);
+            Bundle status = new Bundle();
+            status.putString("decode", String.format(Locale.US, "bookings=%d reflective=%.0f/s codec=%.0f/s speedup=%.1fx",
+                    records, reflective, codec, codec / reflective));
+            InstrumentationRegistry.getInstrumentation().sendStatus(0, status);
+        }
+    }
+
+    // Returns records decoded per second.
+    private static double decode(List<DataSnapshot> snapshots, int records, boolean reflective) {
+        long checksum = 0;
+        long start = System.nanoTime();
+        for (int i = 0; i < records; i++) {
+            DataSnapshot snap = snapshots.get(i % snapshots.size());
+            Booking b = reflective
+                    ? snap.getValue(Booking.class)
+                    : ModelCodec.decode(snap.getValue(), Booking.class);
+            checksum += b.getTicketCount();
+        }
+        double seconds = (System.nanoTime() - start) / 1e9;
+        assertTrue(checksum > 0);
+        return records / seconds;
+    }
+
+    private static Map<String, Object> booking(int i) {
+        Map<String, Object> raw = new HashMap<>();
+        raw.put("bookingId", String.format(Locale.US, "-b%08d", i));
+        raw.put("username", "user" + (i % 500));
+        raw.put("showId", "show" + (i % 40));
+        raw.put("movieId", "movie" + (i % 10));
+        raw.put("movieTitle", "Movie " + (i % 10));
+        raw.put("showDate", "2026-01-01");
+        raw.put("showTime", "7:00 PM");
+        raw.put("amountPaid", 300.5 * (1 + i % 4));
+        raw.put("ticketCount", (long) (1 + i % 4));
+        raw.put("status", "Confirmed");
+        return raw;
+    }
+}
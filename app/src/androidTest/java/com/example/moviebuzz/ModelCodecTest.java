@@ -0,0 +1,132 @@
+package com.example.moviebuzz;
+
+import androidx.test.ext.junit.runners.AndroidJUnit4;
+
+import com.google.firebase.database.DataSnapshot;
+
+import org.junit.Test;
+import org.junit.runner.RunWith;
+
+import java.util.Arrays;
+import java.util.HashMap;
+import java.util.Map;
+
+import static org.junit.Assert.*;
+
+// Checks ModelCodec against the SDK's reflective mapper for every model it handles: encode must
+// store the same tree as setValue(bean), and decode must build the same bean as
+// DataSnapshot.getValue(Class). Payloads are shaped like server data, with whole numbers as Long.
+@RunWith(AndroidJUnit4.class)
+public class ModelCodecTest {
+
+    @Test
+    public void movie_matchesReflectiveMapper() throws Exception {
+        Movie full = new Movie("Dune: Part Two", "Sci-Fi, Adventure", "166 min", "https://example.com/dune.jpg");
+        full.setId("m1");
+        full.setPosterThumbKey("3f2a9c");
+        full.setPosterHeroKey("9c1e47");
+        // Added before posters were processed.
+        Movie bare = new Movie("Heat", null, null, null);
+        bare.setId("m2");
+        for (Movie m : Arrays.asList(full, bare)) {
+            Map<String, Object> stored = assertEncodesLikeSetValue(m);
+            // titleKey is derived from the title and only ever stored as an index key.
+            assertFalse(stored.containsKey("titleKey"));
+            assertDecodesLikeGetValue(stored, Movie.class);
+        }
+    }
+
+    @Test
+    public void show_matchesReflectiveMapper() throws Exception {
+        Show show = new Show("Dune", "2026-03-01", "7:00 PM", 300, "Active");
+        show.setShowId("s1");
+        show.setTicketsSold(12);
+        Map<String, Object> stored = assertEncodesLikeSetValue(show);
+        assertEquals("Dune_Active", stored.get("movieTitle_status"));
+        assertEquals(12L, stored.get("ticketsSold"));
+        assertDecodesLikeGetValue(stored, Show.class);
+
+        // Stored before ticketsSold and movieTitle_status were kept.
+        Map<String, Object> old = new HashMap<>();
+        old.put("showId", "s2");
+        old.put("movieTitle", "Heat");
+        old.put("showDate", "2026-03-02");
+        old.put("showTime", "9:30 PM");
+        old.put("price", 250.5);
+        old.put("status", "Cancelled");
+        assertDecodesLikeGetValue(old, Show.class);
+    }
+
+    @Test
+    public void booking_matchesReflectiveMapper() throws Exception {
+        Booking booking = new Booking();
+        booking.setBookingId("b1");
+        booking.setUsername("alice");
+        booking.setShowId("s1");
+        booking.setMovieId("m1");
+        booking.setMovieTitle("Dune");
+        booking.setShowDate("2026-03-01");
+        booking.setShowTime("7:00 PM");
+        booking.setAmountPaid(901.5);
+        booking.setTicketCount(3);
+        booking.setStatus("Confirmed");
+        assertDecodesLikeGetValue(assertEncodesLikeSetValue(booking), Booking.class);
+
+        // Made before movieId was recorded, paid in whole rupees.
+        Map<String, Object> old = new HashMap<>();
+        old.put("bookingId", "b2");
+        old.put("username", "bob");
+        old.put("showId", "s1");
+        old.put("movieTitle", "Dune");
+        old.put("amountPaid", 600L);
+        old.put("ticketCount", 2L);
+        old.put("status", "Refunded");
+        assertDecodesLikeGetValue(old, Booking.class);
+    }
+
+    @Test
+    public void user_matchesReflectiveMapper() throws Exception {
+        assertDecodesLikeGetValue(assertEncodesLikeSetValue(new User("alice", "secret", "customer", 1250.75)), User.class);
+        assertDecodesLikeGetValue(assertEncodesLikeSetValue(new User("admin", "secret", "admin", 0)), User.class);
+
+        Map<String, Object> raw = new HashMap<>();
+        raw.put("username", "bob");
+        raw.put("password", "secret");
+        raw.put("role", "customer");
+        raw.put("balance", 500L);
+        assertDecodesLikeGetValue(raw, User.class);
+    }
+
+    @Test
+    public void bookingSummary_matchesReflectiveMapper() throws Exception {
+        // Summaries are only written with increments, so there is no encode to compare.
+        Map<String, Object> whole = new HashMap<>();
+        whole.put("showId", "s1");
+        whole.put("tickets", 3L);
+        whole.put("spent", 900L);
+        assertDecodesLikeGetValue(whole, BookingSummary.class);
+
+        // An increment on a summary that didn't exist yet leaves showId unset.
+        Map<String, Object> incremented = new HashMap<>();
+        incremented.put("tickets", 1L);
+        incremented.put("spent", 325.5);
+        assertDecodesLikeGetValue(incremented, BookingSummary.class);
+    }
+
+    // Writes the model both ways and returns the tree setValue(bean) stored.
+    @SuppressWarnings("unchecked")
+    private static Map<String, Object> assertEncodesLikeSetValue(Object model) throws Exception {
+        Object expected = OfflineDatabase.write(model).getValue();
+        assertEquals(model.getClass().getSimpleName(), expected, OfflineDatabase.write(ModelCodec.encode(model)).getValue());
+        return (Map<String, Object>) expected;
+    }
+
+    // The two beans are compared by what setValue stores for each, which covers every getter.
+    private static <T> void assertDecodesLikeGetValue(Map<String, Object> raw, Class<T> type) throws Exception {
+        DataSnapshot snap = OfflineDatabase.write(raw);
+        T expected = snap.getValue(type);
+        T actual = ModelCodec.decode(snap.getValue(), type);
+        assertEquals(type.getSimpleName() + " " + raw,
+                OfflineDatabase.write(expected).getValue(), OfflineDatabase.write(actual).getValue());
+    }
+}
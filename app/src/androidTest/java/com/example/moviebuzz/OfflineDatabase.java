@@ -0,0 +1,68 @@
+package com.example.moviebuzz;
+
+import android.content.Context;
+
+import androidx.test.platform.app.InstrumentationRegistry;
+
+import com.google.firebase.FirebaseApp;
+import com.google.firebase.FirebaseOptions;
+import com.google.firebase.database.DataSnapshot;
+import com.google.firebase.database.DatabaseError;
+import com.google.firebase.database.DatabaseReference;
+import com.google.firebase.database.FirebaseDatabase;
+import com.google.firebase.database.ValueEventListener;
+
+import java.util.concurrent.CountDownLatch;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicReference;
+
+import static org.junit.Assert.assertTrue;
+
+// A database on its own FirebaseApp that never connects. Values set on it are raised back from
+// the local cache, so tests get real DataSnapshots through the public API with no server, and
+// nothing they write can reach the app's database.
+final class OfflineDatabase {
+    private static FirebaseDatabase database;
+
+    private OfflineDatabase() {}
+
+    private static synchronized FirebaseDatabase get() {
+        if (database == null) {
+            Context context = InstrumentationRegistry.getInstrumentation().getTargetContext();
+            FirebaseOptions options = new FirebaseOptions.Builder()
+                    .setApplicationId("1:0:android:0")
+                    .setApiKey("offline")
+                    .setProjectId("moviebuzz-offline")
+                    .setDatabaseUrl("https://moviebuzz-offline.firebaseio.com")
+                    .build();
+            database = FirebaseDatabase.getInstance(FirebaseApp.initializeApp(context, options, "offline"));
+            database.goOffline();
+        }
+        return database;
+    }
+
+    // Sets value (a bean or a Map tree) at a fresh key and returns the snapshot the SDK raises for it.
+    static DataSnapshot write(Object value) throws Exception {
+        DatabaseReference ref = get().getReference("roundTrip").push();
+        ref.setValue(value);
+        CountDownLatch latch = new CountDownLatch(1);
+        AtomicReference<DataSnapshot> snapshot = new AtomicReference<>();
+        AtomicReference<DatabaseError> error = new AtomicReference<>();
+        ref.addListenerForSingleValueEvent(new ValueEventListener() {
+            @Override
+            public void onDataChange(DataSnapshot snap) {
+                snapshot.set(snap);
+                latch.countDown();
+            }
+
+            @Override
+            public void onCancelled(DatabaseError e) {
+                error.set(e);
+                latch.countDown();
+            }
+        });
+        assertTrue("no event for " + ref.getKey(), latch.await(5, TimeUnit.SECONDS));
+        if (error.get() != null) throw error.get().toException();
+        return snapshot.get();
+    }
+}
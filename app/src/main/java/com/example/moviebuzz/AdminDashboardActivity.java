@@ -1,35 +1,46 @@
 package com.example.moviebuzz;
 
 import android.content.Intent;
+import android.net.Uri;
 import android.os.Bundle;
+import android.text.Editable;
+import android.text.InputType;
+import android.text.TextWatcher;
 import android.view.*;
 import android.widget.*;
+import androidx.activity.result.ActivityResultLauncher;
+import androidx.activity.result.contract.ActivityResultContracts;
 import androidx.appcompat.app.AlertDialog;
 import androidx.appcompat.app.AppCompatActivity;
 import androidx.recyclerview.widget.*;
 
 import com.google.android.material.button.MaterialButton;
-import com.google.android.material.textfield.TextInputEditText;
-import com.fasterxml.jackson.databind.ObjectMapper;
 
-import java.net.HttpURLConnection;
-import java.net.URL;
+import java.io.BufferedReader;
+import java.io.InputStream;
+import java.io.InputStreamReader;
+import java.nio.charset.StandardCharsets;
 import java.util.*;
 
 public class AdminDashboardActivity extends AppCompatActivity {
 
-    private TextInputEditText apiSearchField;
+    private AutoCompleteTextView apiSearchField;
     private TextView statusLabel;
     private RecyclerView movieRecyclerView;
-    private MaterialButton searchButton, scheduleButton, viewShowsButton, deleteButton, logoutButton;
+    private MaterialButton searchButton, scheduleButton, viewShowsButton, deleteButton, logoutButton, diagnosticsButton,
+            importButton;
 
     private DatabaseHelper databaseHelper;
     private UserSession userSession;
 
     private final List<Movie> movieList = new ArrayList<>();
     private MovieAdapter movieAdapter;
+    private CatalogImporter importer;
+    private TitleSuggester suggester;
+    private SuggestionAdapter suggestionAdapter;
 
-    private static final String API_KEY = "48e4feec";
+    private final ActivityResultLauncher<String[]> pickImportFile =
+            registerForActivityResult(new ActivityResultContracts.OpenDocument(), this::importFromFile);
 
     @Override
     protected void onCreate(Bundle savedInstanceState) {
@@ -50,6 +61,7 @@ public class AdminDashboardActivity extends AppCompatActivity {
         setupRecycler();
         setupListeners();
         loadMovies();
+        databaseHelper.runBackfills();
     }
 
     private void initViews() {
@@ -61,6 +73,8 @@ public class AdminDashboardActivity extends AppCompatActivity {
         viewShowsButton = findViewById(R.id.viewShowsButton);
         deleteButton = findViewById(R.id.deleteButton);
         logoutButton = findViewById(R.id.logoutButton);
+        diagnosticsButton = findViewById(R.id.diagnosticsButton);
+        importButton = findViewById(R.id.importButton);
     }
 
     private void setupRecycler() {
@@ -71,6 +85,7 @@ public class AdminDashboardActivity extends AppCompatActivity {
 
     private void setupListeners() {
         searchButton.setOnClickListener(v -> searchMovieFromApi());
+        setupSuggestions();
 
         scheduleButton.setOnClickListener(v -> {
             Movie selected = movieAdapter.getSelectedMovie();
@@ -86,6 +101,11 @@ public class AdminDashboardActivity extends AppCompatActivity {
         viewShowsButton.setOnClickListener(v ->
                 startActivity(new Intent(this, ManageShowsActivity.class)));
 
+        diagnosticsButton.setOnClickListener(v ->
+                startActivity(new Intent(this, DiagnosticsActivity.class)));
+
+        importButton.setOnClickListener(v -> showImportDialog());
+
 
         deleteButton.setOnClickListener(v -> {
             Movie selected = movieAdapter.getSelectedMovie();
@@ -115,79 +135,192 @@ public class AdminDashboardActivity extends AppCompatActivity {
             return;
         }
 
+        suggester.cancel();
+        apiSearchField.dismissDropDown();
+        lookUpAndSave(query);
+    }
+
+    // query is a title or an IMDb id.
+    private void lookUpAndSave(String query) {
         statusLabel.setText("Searching OMDb...");
-        String urlStr = "https://www.omdbapi.com/?t=" + query.replace(" ", "+") + "&apikey=" + API_KEY;
-
-        new Thread(() -> {
-            try {
-                URL url = new URL(urlStr);
-                HttpURLConnection conn = (HttpURLConnection) url.openConnection();
-                Scanner scanner = new Scanner(conn.getInputStream());
-                StringBuilder json = new StringBuilder();
-                while (scanner.hasNext()) json.append(scanner.nextLine());
-                scanner.close();
-                runOnUiThread(() -> parseAndSaveMovie(json.toString()));
-            } catch (Exception e) {
-                runOnUiThread(() -> statusLabel.setText("Network Error"));
+        OmdbClient.getInstance(this).findByTitle(query, DatabaseHelper.whileAlive(this,
+                new DatabaseHelper.DatabaseCallback<Movie>() {
+                    @Override
+                    public void onSuccess(Movie movie) {
+                        saveMovie(movie);
+                    }
+                    @Override
+                    public void onFailure(Exception e) {
+                        statusLabel.setText("Network Error");
+                    }
+                }));
+    }
+
+    private void saveMovie(Movie movie) {
+        if (movie == null) {
+            statusLabel.setText("Movie not found");
+            return;
+        }
+
+        // Poster derivatives first, so the movie is written with their keys. The callback always
+        // succeeds: without derivatives the movie keeps its OMDb poster URL.
+        statusLabel.setText("Processing poster...");
+        PosterStore.getInstance(this).attachDerivatives(movie, DatabaseHelper.whileAlive(this,
+                new DatabaseHelper.DatabaseCallback<Movie>() {
+                    @Override
+                    public void onSuccess(Movie result) {
+                        addMovie(result);
+                    }
+                    @Override
+                    public void onFailure(Exception e) {
+                        addMovie(movie);
+                    }
+                }));
+    }
+
+    private void addMovie(Movie movie) {
+        // Claims the title atomically; a duplicate, even one imported by another admin at the
+        // same moment, comes back as DuplicateMovieException.
+        databaseHelper.addMovie(movie, new DatabaseHelper.DatabaseCallback<String>() {
+            @Override
+            public void onSuccess(String id) {
+                statusLabel.setText("Added: " + movie.getTitle());
+                apiSearchField.setText("");
             }
-        }).start();
+            @Override
+            public void onFailure(Exception e) {
+                if (e instanceof DatabaseHelper.DuplicateMovieException) {
+                    statusLabel.setText("Already exists!");
+                } else {
+                    statusLabel.setText("Save failed");
+                }
+            }
+        });
+    }
+
+    @Override
+    protected void onDestroy() {
+        super.onDestroy();
+        if (importer != null) importer.cancel();
+        if (suggester != null) suggester.cancel();
+    }
+
+    private void setupSuggestions() {
+        suggestionAdapter = new SuggestionAdapter();
+        apiSearchField.setAdapter(suggestionAdapter);
+        suggester = TitleSuggester.create(this, (query, suggestions) -> {
+            suggestionAdapter.setSuggestions(suggestions);
+            if (suggestions.isEmpty()) apiSearchField.dismissDropDown();
+            else if (apiSearchField.hasFocus()) apiSearchField.showDropDown();
+        });
+        apiSearchField.addTextChangedListener(new TextWatcher() {
+            @Override
+            public void beforeTextChanged(CharSequence s, int start, int count, int after) {}
+            @Override
+            public void onTextChanged(CharSequence s, int start, int before, int count) {}
+            @Override
+            public void afterTextChanged(Editable s) {
+                suggester.setQuery(s.toString());
+            }
+        });
+        // Picking a suggestion fills in its title, which counts as typing; cancel that query.
+        apiSearchField.setOnItemClickListener((parent, view, position, id) -> {
+            suggester.cancel();
+            OmdbClient.Suggestion picked = suggestionAdapter.getItem(position);
+            if (picked != null) lookUpAndSave(picked.getImdbId());
+        });
     }
 
-    private void parseAndSaveMovie(String json) {
-        try {
-            ObjectMapper mapper = new ObjectMapper();
-            Movie movie = mapper.readValue(json, Movie.class);
+    private void showImportDialog() {
+        if (importer != null) {
+            new AlertDialog.Builder(this)
+                    .setTitle("Bulk Import")
+                    .setMessage("Stop the running import?")
+                    .setPositiveButton("Stop", (dialog, which) -> importer.cancel())
+                    .setNegativeButton("Keep going", null)
+                    .show();
+            return;
+        }
 
-            if (movie.getTitle() == null) {
-                statusLabel.setText("Movie not found");
+        EditText input = new EditText(this);
+        input.setInputType(InputType.TYPE_CLASS_TEXT | InputType.TYPE_TEXT_FLAG_MULTI_LINE);
+        input.setMinLines(6);
+        input.setHint("One title or IMDb id (tt0111161) per line");
+
+        new AlertDialog.Builder(this)
+                .setTitle("Bulk Import")
+                .setView(input)
+                .setPositiveButton("Import", (dialog, which) ->
+                        startImport(CatalogImporter.parseEntries(input.getText().toString())))
+                .setNeutralButton("From file", (dialog, which) ->
+                        pickImportFile.launch(new String[]{"text/*"}))
+                .setNegativeButton("Cancel", null)
+                .show();
+    }
+
+    private void importFromFile(Uri uri) {
+        if (uri == null) return;
+        statusLabel.setText("Reading file...");
+        AppExecutors.background().execute(() -> {
+            StringBuilder text = new StringBuilder();
+            try (InputStream in = getContentResolver().openInputStream(uri);
+                 BufferedReader reader = new BufferedReader(new InputStreamReader(in, StandardCharsets.UTF_8))) {
+                String line;
+                while ((line = reader.readLine()) != null) text.append(line).append('\n');
+            } catch (Exception e) {
+                runOnUiThread(() -> statusLabel.setText("Could not read file"));
                 return;
             }
+            List<String> entries = CatalogImporter.parseEntries(text.toString());
+            runOnUiThread(() -> startImport(entries));
+        });
+    }
 
-            databaseHelper.getAllMovies(new DatabaseHelper.DatabaseCallback<List<Movie>>() {
-                @Override
-                public void onSuccess(List<Movie> existingMovies) {
-                    for (Movie m : existingMovies) {
-                        if (m.getTitle().equalsIgnoreCase(movie.getTitle())) {
-                            runOnUiThread(() -> statusLabel.setText("Already exists!"));
-                            return;
-                        }
-                    }
+    private void startImport(List<String> entries) {
+        if (entries.isEmpty()) {
+            statusLabel.setText("Nothing to import");
+            return;
+        }
+        statusLabel.setText("Importing " + entries.size() + " titles...");
+        importer = CatalogImporter.create(this);
+        importer.start(entries, new CatalogImporter.Listener() {
+            @Override
+            public void onProgress(CatalogImporter.Progress progress) {
+                if (!isFinishing()) statusLabel.setText("Importing: " + progress.summary());
+            }
 
-                    databaseHelper.addMovie(movie, new DatabaseHelper.DatabaseCallback<String>() {
-                        @Override
-                        public void onSuccess(String id) {
-                            runOnUiThread(() -> {
-                                statusLabel.setText("Added: " + movie.getTitle());
-                                apiSearchField.setText("");
-                                loadMovies();
-                            });
-                        }
-                        @Override
-                        public void onFailure(Exception e) {
-                            runOnUiThread(() -> statusLabel.setText("Save failed"));
-                        }
-                    });
-                }
-                @Override
-                public void onFailure(Exception e) { runOnUiThread(() -> statusLabel.setText("Sync error")); }
-            });
-        } catch (Exception e) { statusLabel.setText("Parsing error"); }
+            @Override
+            public void onFinished(CatalogImporter.Progress progress) {
+                importer = null;
+                if (isFinishing()) return;
+                statusLabel.setText((progress.isCancelled() ? "Import stopped: " : "Import done: ") + progress.summary());
+                if (!progress.getFailures().isEmpty()) showImportFailures(progress.getFailures());
+            }
+        });
+    }
+
+    private void showImportFailures(List<CatalogImporter.Failure> failures) {
+        StringBuilder message = new StringBuilder();
+        for (CatalogImporter.Failure failure : failures) {
+            message.append(failure.getEntry()).append(": ").append(failure.getReason()).append('\n');
+        }
+        new AlertDialog.Builder(this)
+                .setTitle(failures.size() + " not imported")
+                .setMessage(message.toString().trim())
+                .setPositiveButton("OK", null)
+                .show();
     }
 
     private void loadMovies() {
-        databaseHelper.getAllMovies(new DatabaseHelper.DatabaseCallback<List<Movie>>() {
+        ListUpdateCallback updates = new AdapterListUpdateCallback(movieAdapter);
+        databaseHelper.observeMovies(this, new DatabaseHelper.SyncCallback<Movie>() {
             @Override
-            public void onSuccess(List<Movie> movies) {
-                movieList.clear();
-                movieList.addAll(movies);
-                runOnUiThread(() -> {
-                    movieAdapter.resetSelection(); // Reset selection on refresh
-                    movieAdapter.notifyDataSetChanged();
-                });
+            public void onChanged(ChangeSet<Movie> changes) {
+                changes.applyTo(movieList, updates);
             }
             @Override
             public void onFailure(Exception e) {
-                runOnUiThread(() -> statusLabel.setText("Error loading movies"));
+                statusLabel.setText("Error loading movies");
             }
         });
     }
@@ -197,21 +330,53 @@ public class AdminDashboardActivity extends AppCompatActivity {
         databaseHelper.deleteMovie(movie.getId(), new DatabaseHelper.DatabaseCallback<Void>() {
             @Override
             public void onSuccess(Void result) {
-                runOnUiThread(() -> {
-                    statusLabel.setText("Movie Deleted");
-                    loadMovies(); // Refresh list after successful delete
-                });
+                statusLabel.setText("Movie Deleted");
             }
             @Override
             public void onFailure(Exception e) {
-                runOnUiThread(() -> statusLabel.setText("Delete failed: " + e.getMessage()));
+                statusLabel.setText("Delete failed: " + e.getMessage());
             }
         });
     }
 
 
+    // Shows suggestions as delivered: they already are OMDb's matches for the query, which the
+    // default ArrayAdapter filter would narrow again by prefix.
+    private class SuggestionAdapter extends ArrayAdapter<OmdbClient.Suggestion> {
+        private final Filter passThrough = new Filter() {
+            @Override
+            protected FilterResults performFiltering(CharSequence constraint) {
+                FilterResults results = new FilterResults();
+                results.count = getCount();
+                return results;
+            }
+
+            @Override
+            protected void publishResults(CharSequence constraint, FilterResults results) {
+                notifyDataSetChanged();
+            }
+        };
+
+        SuggestionAdapter() {
+            super(AdminDashboardActivity.this, android.R.layout.simple_dropdown_item_1line);
+        }
+
+        void setSuggestions(List<OmdbClient.Suggestion> suggestions) {
+            setNotifyOnChange(false);
+            clear();
+            addAll(suggestions);
+            notifyDataSetChanged();
+        }
+
+        @Override
+        public Filter getFilter() {
+            return passThrough;
+        }
+    }
+
     private class MovieAdapter extends RecyclerView.Adapter<MovieAdapter.Holder> {
-        private int selectedPos = -1;
+        // Tracked by id so the selection survives inserts and removals above it.
+        private String selectedId;
 
         @Override
         public Holder onCreateViewHolder(ViewGroup parent, int viewType) {
@@ -226,25 +391,32 @@ public class AdminDashboardActivity extends AppCompatActivity {
             h.genre.setText(m.getGenre());
             h.duration.setText(m.getDuration());
 
-
-            h.card.setStrokeColor(selectedPos == pos ? 0xFF1A73E8 : 0x00000000);
-            h.card.setStrokeWidth(selectedPos == pos ? 6 : 0);
+            boolean selected = m.getId() != null && m.getId().equals(selectedId);
+            h.card.setStrokeColor(selected ? 0xFF1A73E8 : 0x00000000);
+            h.card.setStrokeWidth(selected ? 6 : 0);
 
             h.itemView.setOnClickListener(v -> {
-                int previousSelected = selectedPos;
-                selectedPos = h.getAdapterPosition();
-                notifyItemChanged(previousSelected);
-                notifyItemChanged(selectedPos);
+                int previousSelected = indexOf(selectedId);
+                selectedId = m.getId();
+                if (previousSelected != -1) notifyItemChanged(previousSelected);
+                notifyItemChanged(h.getAdapterPosition());
             });
         }
 
         @Override
         public int getItemCount() { return movieList.size(); }
 
-        void resetSelection() { selectedPos = -1; }
-
         Movie getSelectedMovie() {
-            return (selectedPos >= 0 && selectedPos < movieList.size()) ? movieList.get(selectedPos) : null;
+            int pos = indexOf(selectedId);
+            return pos != -1 ? movieList.get(pos) : null;
+        }
+
+        private int indexOf(String id) {
+            if (id == null) return -1;
+            for (int i = 0; i < movieList.size(); i++) {
+                if (id.equals(movieList.get(i).getId())) return i;
+            }
+            return -1;
         }
 
         class Holder extends RecyclerView.ViewHolder {
@@ -259,4 +431,4 @@ public class AdminDashboardActivity extends AppCompatActivity {
             }
         }
     }
-}
\ No newline at end of file
+}
@@ -0,0 +1,93 @@
+package com.example.moviebuzz;
+
+import android.os.Handler;
+import android.os.Looper;
+import java.util.ArrayDeque;
+import java.util.concurrent.Executor;
+import java.util.concurrent.LinkedBlockingQueue;
+import java.util.concurrent.ThreadFactory;
+import java.util.concurrent.ThreadPoolExecutor;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicInteger;
+
+// The app's places for work to run: a small fixed pool for decoding and aggregating query
+// results, a pool for blocking network calls outside Firebase, and the main thread, where
+// finished results are handed to the UI.
+public final class AppExecutors {
+    private static final int THREADS = Math.max(2, Math.min(4, Runtime.getRuntime().availableProcessors()));
+    // Mostly waiting on sockets, so not tied to the core count; also caps concurrent requests.
+    private static final int NETWORK_THREADS = 4;
+    private static final ThreadPoolExecutor BACKGROUND = newPool(THREADS, "db-worker-");
+    private static final ThreadPoolExecutor NETWORK = newPool(NETWORK_THREADS, "net-");
+    private static Executor mainThread;
+
+    private static ThreadPoolExecutor newPool(int threads, String prefix) {
+        ThreadPoolExecutor pool = new ThreadPoolExecutor(threads, threads,
+                30, TimeUnit.SECONDS, new LinkedBlockingQueue<Runnable>(), new ThreadFactory() {
+                    private final AtomicInteger count = new AtomicInteger();
+
+                    @Override
+                    public Thread newThread(Runnable r) {
+                        Thread t = new Thread(r, prefix + count.getAndIncrement());
+                        t.setDaemon(true);
+                        // Below the UI thread so background work never competes with drawing.
+                        t.setPriority(Thread.NORM_PRIORITY - 1);
+                        return t;
+                    }
+                });
+        pool.allowCoreThreadTimeOut(true);
+        return pool;
+    }
+
+    private AppExecutors() {}
+
+    public static Executor background() {
+        return BACKGROUND;
+    }
+
+    // For blocking I/O such as HTTP requests, so a slow server never delays database results.
+    public static Executor network() {
+        return NETWORK;
+    }
+
+    public static synchronized Executor mainThread() {
+        if (mainThread == null) {
+            Handler handler = new Handler(Looper.getMainLooper());
+            mainThread = handler::post;
+        }
+        return mainThread;
+    }
+
+    // Runs tasks one at a time, in submission order, on the background pool. For event streams
+    // whose order matters, like child events.
+    public static Executor newSerialExecutor() {
+        return new SerialExecutor(BACKGROUND);
+    }
+
+    private static class SerialExecutor implements Executor {
+        private final ArrayDeque<Runnable> tasks = new ArrayDeque<>();
+        private final Executor executor;
+        private Runnable active;
+
+        SerialExecutor(Executor executor) {
+            this.executor = executor;
+        }
+
+        @Override
+        public synchronized void execute(Runnable task) {
+            tasks.add(() -> {
+                try {
+                    task.run();
+                } finally {
+                    scheduleNext();
+                }
+            });
+            if (active == null) scheduleNext();
+        }
+
+        private synchronized void scheduleNext() {
+            active = tasks.poll();
+            if (active != null) executor.execute(active);
+        }
+    }
+}
@@ -0,0 +1,61 @@
+package com.example.moviebuzz;
+
+import android.app.Activity;
+import android.app.Application;
+import android.content.Context;
+import android.os.Bundle;
+import com.bumptech.glide.Glide;
+import com.google.firebase.analytics.FirebaseAnalytics;
+
+// Startup in two stages. Application.onCreate only starts the work the first screen needs, on
+// background threads alongside the main thread's own activity launch: a returning user lands on
+// a screen that reads the database straight away, so it is opened now; a logged-out user sees the
+// login form, which needs nothing. Everything else (analytics, Glide, the database for the login
+// form) waits for the first frame. Also feeds StartupTracer the activity lifecycle.
+final class AppStartup implements Application.ActivityLifecycleCallbacks {
+    private final Application app;
+
+    private AppStartup(Application app) {
+        this.app = app;
+    }
+
+    static void start(Application app) {
+        StartupTracer.init();
+        AppStartup startup = new AppStartup(app);
+        app.registerActivityLifecycleCallbacks(startup);
+        AppExecutors.background().execute(() -> {
+            if (UserSession.hasSavedLogin(app)) openDatabase(app);
+        });
+    }
+
+    private void onFirstFrame() {
+        // Collection is off in the manifest so the SDK stays idle through launch.
+        FirebaseAnalytics.getInstance(app).setAnalyticsCollectionEnabled(true);
+        AppExecutors.background().execute(() -> {
+            openDatabase(app);
+            // Builds Glide's caches and registry before the first poster is requested.
+            Glide.get(app);
+        });
+    }
+
+    // Safe to repeat: the helper is a singleton and warming an open store is cheap.
+    private static void openDatabase(Context context) {
+        DatabaseHelper.getInstance(context).warmUp();
+    }
+
+    @Override
+    public void onActivityCreated(Activity activity, Bundle savedInstanceState) {
+        StartupTracer.onActivityCreated(activity);
+    }
+
+    @Override
+    public void onActivityStarted(Activity activity) {
+        StartupTracer.onActivityStarted(activity, this::onFirstFrame);
+    }
+
+    @Override public void onActivityResumed(Activity activity) { }
+    @Override public void onActivityPaused(Activity activity) { }
+    @Override public void onActivityStopped(Activity activity) { }
+    @Override public void onActivitySaveInstanceState(Activity activity, Bundle outState) { }
+    @Override public void onActivityDestroyed(Activity activity) { }
+}
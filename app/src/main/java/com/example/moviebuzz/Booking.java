@@ -4,6 +4,7 @@ public class Booking {
     private String bookingId;
     private String username;
     private String showId;
+    private String movieId;
     private String movieTitle;
     private String showDate;
     private String showTime;
@@ -37,6 +38,9 @@ public class Booking {
     public String getShowId() { return showId; }
     public void setShowId(String showId) { this.showId = showId; }
 
+    public String getMovieId() { return movieId; }
+    public void setMovieId(String movieId) { this.movieId = movieId; }
+
     public String getMovieTitle() { return movieTitle; }
     public void setMovieTitle(String movieTitle) { this.movieTitle = movieTitle; }
 
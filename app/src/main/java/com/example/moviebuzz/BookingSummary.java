@@ -0,0 +1,27 @@
+package com.example.moviebuzz;
+
+// Tickets and spend for one user on one show, kept at /userBookings/{username}/{movieId}/{showId}.
+public class BookingSummary {
+    private String showId;
+    private int tickets;
+    private double spent;
+
+    public BookingSummary() {
+
+    }
+
+    public BookingSummary(String showId, int tickets, double spent) {
+        this.showId = showId;
+        this.tickets = tickets;
+        this.spent = spent;
+    }
+
+    public String getShowId() { return showId; }
+    public void setShowId(String showId) { this.showId = showId; }
+
+    public int getTickets() { return tickets; }
+    public void setTickets(int tickets) { this.tickets = tickets; }
+
+    public double getSpent() { return spent; }
+    public void setSpent(double spent) { this.spent = spent; }
+}
@@ -0,0 +1,317 @@
+package com.example.moviebuzz;
+
+import android.content.Context;
+
+import java.io.IOException;
+import java.util.ArrayList;
+import java.util.Collections;
+import java.util.HashSet;
+import java.util.LinkedHashMap;
+import java.util.List;
+import java.util.Locale;
+import java.util.Map;
+import java.util.Set;
+import java.util.concurrent.ConcurrentLinkedQueue;
+import java.util.concurrent.CountDownLatch;
+import java.util.concurrent.Executor;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicInteger;
+
+// Imports a list of titles or IMDb ids from OMDb into the catalog. A few workers look entries up
+// in parallel, with request starts spaced out to respect OMDb's rate limit. Titles already in
+// /movieTitleIndex are skipped before any request is made, and fetched movies are written
+// BATCH_SIZE at a time with DatabaseHelper.addMovies instead of one round trip each. Each worker
+// makes its movie's poster derivatives (PosterStore) before queueing it for the write.
+public class CatalogImporter {
+    private static final int PARALLELISM = 4;
+    private static final double REQUESTS_PER_SECOND = 8;
+    private static final int BATCH_SIZE = 25;
+
+    public interface Listener {
+        void onProgress(Progress progress);
+        void onFinished(Progress progress);
+    }
+
+    private final OmdbClient omdb;
+    private final DatabaseHelper databaseHelper;
+    private final PosterStore posterStore;
+    private final int parallelism;
+    private final long requestIntervalNanos;
+    private final int batchSize;
+    private final Executor callbackExecutor;
+
+    private final ConcurrentLinkedQueue<String> queue = new ConcurrentLinkedQueue<>();
+    // Title keys fetched during this run, so an id and a title naming the same film import once.
+    private final Set<String> claimed = Collections.synchronizedSet(new HashSet<String>());
+    private final List<Movie> batch = new ArrayList<>();
+    private final List<String> batchEntries = new ArrayList<>();
+    private final List<Failure> failures = Collections.synchronizedList(new ArrayList<Failure>());
+    private final AtomicInteger processed = new AtomicInteger();
+    private final AtomicInteger added = new AtomicInteger();
+    private final AtomicInteger skipped = new AtomicInteger();
+    private int total;
+    private long startNanos;
+    private long nextRequestNanos;
+    private volatile boolean cancelled;
+    private ExecutorService workers;
+    private Listener listener;
+
+    CatalogImporter(OmdbClient omdb, DatabaseHelper databaseHelper, PosterStore posterStore, int parallelism,
+                    double requestsPerSecond, int batchSize, Executor callbackExecutor) {
+        this.omdb = omdb;
+        this.databaseHelper = databaseHelper;
+        this.posterStore = posterStore;
+        this.parallelism = parallelism;
+        this.requestIntervalNanos = (long) (TimeUnit.SECONDS.toNanos(1) / requestsPerSecond);
+        this.batchSize = batchSize;
+        this.callbackExecutor = callbackExecutor;
+    }
+
+    public static CatalogImporter create(Context context) {
+        return new CatalogImporter(OmdbClient.getInstance(context), DatabaseHelper.getInstance(context),
+                PosterStore.getInstance(context), PARALLELISM, REQUESTS_PER_SECOND, BATCH_SIZE, AppExecutors.mainThread());
+    }
+
+    // One entry per line; blank lines and lines starting with '#' are ignored, and entries that
+    // normalize alike (case, spacing) are kept once, in first-seen order.
+    public static List<String> parseEntries(String text) {
+        Map<String, String> unique = new LinkedHashMap<>();
+        for (String line : text.split("\\r?\\n")) {
+            String entry = line.trim();
+            if (entry.isEmpty() || entry.startsWith("#")) continue;
+            if (OmdbClient.isImdbId(entry)) entry = entry.toLowerCase(Locale.ROOT);
+            String key = OmdbClient.isImdbId(entry) ? entry : Movie.titleKey(entry);
+            if (!unique.containsKey(key)) unique.put(key, entry);
+        }
+        return new ArrayList<>(unique.values());
+    }
+
+    // Runs once per importer. Listener calls arrive on the callback executor.
+    public synchronized void start(List<String> entries, Listener listener) {
+        if (workers != null) throw new IllegalStateException("Import already started");
+        this.listener = listener;
+        total = entries.size();
+        queue.addAll(entries);
+        startNanos = System.nanoTime();
+        nextRequestNanos = startNanos;
+        int threads = Math.max(1, Math.min(parallelism, total));
+        AtomicInteger running = new AtomicInteger(threads);
+        AtomicInteger names = new AtomicInteger();
+        workers = Executors.newFixedThreadPool(threads, r -> {
+            Thread t = new Thread(r, "catalog-import-" + names.getAndIncrement());
+            t.setDaemon(true);
+            t.setPriority(Thread.NORM_PRIORITY - 1);
+            return t;
+        });
+        for (int i = 0; i < threads; i++) {
+            workers.execute(() -> {
+                String entry;
+                while (!cancelled && (entry = queue.poll()) != null) importEntry(entry);
+                // The last worker out writes what's left and reports the result.
+                if (running.decrementAndGet() == 0) finish();
+            });
+        }
+        workers.shutdown();
+    }
+
+    // Stops after the lookups in flight; movies already fetched are still written.
+    public void cancel() {
+        cancelled = true;
+    }
+
+    private void importEntry(String entry) {
+        try {
+            if (!OmdbClient.isImdbId(entry)) {
+                String existing = await(cb -> databaseHelper.getMovieIdByTitle(entry, cb));
+                if (existing != null) {
+                    skip();
+                    return;
+                }
+            }
+            throttle();
+            Movie movie = omdb.fetch(entry);
+            if (movie == null) {
+                fail(entry, "Not found");
+            } else if (!claimed.add(Movie.titleKey(movie.getTitle()))) {
+                skip();
+            } else {
+                posterStore.attachDerivatives(movie);
+                enqueue(entry, movie);
+            }
+        } catch (InterruptedException e) {
+            Thread.currentThread().interrupt();
+            fail(entry, "Interrupted");
+        } catch (IOException e) {
+            fail(entry, "Network error");
+        } catch (Exception e) {
+            fail(entry, "Lookup failed: " + e.getMessage());
+        }
+    }
+
+    // Spaces request starts requestIntervalNanos apart across all workers.
+    private void throttle() throws InterruptedException {
+        long wait;
+        synchronized (this) {
+            long now = System.nanoTime();
+            long slot = Math.max(now, nextRequestNanos);
+            nextRequestNanos = slot + requestIntervalNanos;
+            wait = slot - now;
+        }
+        if (wait > 0) TimeUnit.NANOSECONDS.sleep(wait);
+    }
+
+    private void enqueue(String entry, Movie movie) {
+        List<Movie> movies = null;
+        List<String> entries = null;
+        synchronized (batch) {
+            batch.add(movie);
+            batchEntries.add(entry);
+            if (batch.size() >= batchSize) {
+                movies = new ArrayList<>(batch);
+                entries = new ArrayList<>(batchEntries);
+                batch.clear();
+                batchEntries.clear();
+            }
+        }
+        if (movies != null) write(movies, entries);
+    }
+
+    private void write(List<Movie> movies, List<String> entries) {
+        long start = System.nanoTime();
+        try {
+            List<String> ids = await(cb -> databaseHelper.addMovies(movies, cb));
+            Diagnostics.record("import.batch", start, movies.size(), -1, false);
+            for (int i = 0; i < ids.size(); i++) {
+                // Null: another admin added the title since the index check.
+                if (ids.get(i) != null) added.incrementAndGet();
+                else skipped.incrementAndGet();
+                processed.incrementAndGet();
+            }
+        } catch (Exception e) {
+            Diagnostics.record("import.batch", start, movies.size(), -1, true);
+            for (String entry : entries) failures.add(new Failure(entry, "Save failed: " + e.getMessage()));
+            processed.addAndGet(entries.size());
+        }
+        report(false);
+    }
+
+    private void finish() {
+        List<Movie> movies;
+        List<String> entries;
+        synchronized (batch) {
+            movies = new ArrayList<>(batch);
+            entries = new ArrayList<>(batchEntries);
+            batch.clear();
+            batchEntries.clear();
+        }
+        if (!movies.isEmpty()) write(movies, entries);
+        report(true);
+    }
+
+    private void skip() {
+        skipped.incrementAndGet();
+        processed.incrementAndGet();
+        report(false);
+    }
+
+    private void fail(String entry, String reason) {
+        failures.add(new Failure(entry, reason));
+        processed.incrementAndGet();
+        report(false);
+    }
+
+    private void report(boolean finished) {
+        Progress progress;
+        synchronized (failures) {
+            progress = new Progress(total, processed.get(), added.get(), skipped.get(),
+                    new ArrayList<>(failures), System.nanoTime() - startNanos, cancelled);
+        }
+        callbackExecutor.execute(() -> {
+            if (finished) listener.onFinished(progress);
+            else listener.onProgress(progress);
+        });
+    }
+
+    // Blocks the worker until a DatabaseHelper call answers; its callbacks come on another thread.
+    private static <T> T await(Call<T> call) throws Exception {
+        CountDownLatch done = new CountDownLatch(1);
+        Object[] result = new Object[1];
+        Exception[] error = new Exception[1];
+        call.run(new DatabaseHelper.DatabaseCallback<T>() {
+            @Override
+            public void onSuccess(T value) {
+                result[0] = value;
+                done.countDown();
+            }
+
+            @Override
+            public void onFailure(Exception e) {
+                error[0] = e;
+                done.countDown();
+            }
+        });
+        done.await();
+        if (error[0] != null) throw error[0];
+        @SuppressWarnings("unchecked")
+        T value = (T) result[0];
+        return value;
+    }
+
+    private interface Call<T> {
+        void run(DatabaseHelper.DatabaseCallback<T> callback);
+    }
+
+    public static class Failure {
+        private final String entry;
+        private final String reason;
+
+        Failure(String entry, String reason) {
+            this.entry = entry;
+            this.reason = reason;
+        }
+
+        public String getEntry() { return entry; }
+        public String getReason() { return reason; }
+    }
+
+    public static class Progress {
+        private final int total;
+        private final int processed;
+        private final int added;
+        private final int skipped;
+        private final List<Failure> failures;
+        private final long elapsedNanos;
+        private final boolean cancelled;
+
+        Progress(int total, int processed, int added, int skipped, List<Failure> failures, long elapsedNanos,
+                 boolean cancelled) {
+            this.total = total;
+            this.processed = processed;
+            this.added = added;
+            this.skipped = skipped;
+            this.failures = failures;
+            this.elapsedNanos = elapsedNanos;
+            this.cancelled = cancelled;
+        }
+
+        public int getTotal() { return total; }
+        public int getProcessed() { return processed; }
+        public int getAdded() { return added; }
+        // Already in the catalog, or the same film as an earlier entry.
+        public int getSkipped() { return skipped; }
+        public List<Failure> getFailures() { return failures; }
+        public long getElapsedMillis() { return TimeUnit.NANOSECONDS.toMillis(elapsedNanos); }
+        public boolean isCancelled() { return cancelled; }
+
+        public double getEntriesPerSecond() {
+            return elapsedNanos == 0 ? 0 : processed * 1e9 / elapsedNanos;
+        }
+
+        public String summary() {
+            return String.format(Locale.US, "%d/%d done · %d added · %d skipped · %d failed · %.1f/s",
+                    processed, total, added, skipped, failures.size(), getEntriesPerSecond());
+        }
+    }
+}
@@ -0,0 +1,121 @@
+package com.example.moviebuzz;
+
+import androidx.recyclerview.widget.DiffUtil;
+import androidx.recyclerview.widget.ListUpdateCallback;
+import java.util.ArrayList;
+import java.util.Collections;
+import java.util.List;
+
+// Immutable batch of item-level edits produced by SyncedList. A reset carries the full contents
+// and replaces whatever the receiver had; otherwise the ops are applied in order.
+public class ChangeSet<T> {
+    public static final int INSERT = 0;
+    public static final int REMOVE = 1;
+    public static final int CHANGE = 2;
+    public static final int MOVE = 3;
+
+    public static class Op<T> {
+        public final int type;
+        public final int position;
+        public final int toPosition;
+        public final T item;
+
+        Op(int type, int position, int toPosition, T item) {
+            this.type = type;
+            this.position = position;
+            this.toPosition = toPosition;
+            this.item = item;
+        }
+    }
+
+    private final List<T> resetItems;
+    private final List<Op<T>> ops;
+    private final boolean fromCache;
+    // How the receiver's list turns into resetItems, worked out off the main thread; null if unknown.
+    private final DiffUtil.DiffResult diff;
+
+    private ChangeSet(List<T> resetItems, List<Op<T>> ops, boolean fromCache, DiffUtil.DiffResult diff) {
+        this.resetItems = resetItems;
+        this.ops = ops;
+        this.fromCache = fromCache;
+        this.diff = diff;
+    }
+
+    static <T> ChangeSet<T> reset(List<T> items) {
+        return new ChangeSet<>(Collections.unmodifiableList(new ArrayList<>(items)), Collections.<Op<T>>emptyList(), false, null);
+    }
+
+    // Contents read from the local store; a reset from the network follows once it answers.
+    static <T> ChangeSet<T> cachedReset(List<T> items) {
+        return new ChangeSet<>(Collections.unmodifiableList(new ArrayList<>(items)), Collections.<Op<T>>emptyList(), true, null);
+    }
+
+    // A reset that carries its diff against what the receiver holds, from DiffingSyncCallback.
+    static <T> ChangeSet<T> diffedReset(List<T> items, DiffUtil.DiffResult diff, boolean fromCache) {
+        return new ChangeSet<>(Collections.unmodifiableList(new ArrayList<>(items)), Collections.<Op<T>>emptyList(), fromCache, diff);
+    }
+
+    static <T> ChangeSet<T> of(Op<T> op) {
+        return new ChangeSet<>(null, Collections.singletonList(op), false, null);
+    }
+
+    public boolean isReset() {
+        return resetItems != null;
+    }
+
+    public boolean isFromCache() {
+        return fromCache;
+    }
+
+    public List<T> getResetItems() {
+        return resetItems;
+    }
+
+    public List<Op<T>> getOps() {
+        return ops;
+    }
+
+    // Identifies an item across resets, e.g. Movie::getId.
+    public interface KeyOf<T> {
+        String keyOf(T item);
+    }
+
+    // Brings target up to date and reports each edit to callback, e.g. an AdapterListUpdateCallback.
+    // A diffed reset only touches the rows that differ, so the cached reset and then the network
+    // reset of a cold start don't replace the whole list twice; nothing is diffed here.
+    public void applyTo(List<T> target, ListUpdateCallback callback) {
+        if (resetItems != null) {
+            int removed = target.size();
+            target.clear();
+            target.addAll(resetItems);
+            if (diff != null) {
+                diff.dispatchUpdatesTo(callback);
+            } else {
+                if (removed > 0) callback.onRemoved(0, removed);
+                if (!resetItems.isEmpty()) callback.onInserted(0, resetItems.size());
+            }
+            return;
+        }
+        for (Op<T> op : ops) {
+            switch (op.type) {
+                case INSERT:
+                    target.add(op.position, op.item);
+                    callback.onInserted(op.position, 1);
+                    break;
+                case REMOVE:
+                    target.remove(op.position);
+                    callback.onRemoved(op.position, 1);
+                    break;
+                case CHANGE:
+                    target.set(op.position, op.item);
+                    callback.onChanged(op.position, 1, null);
+                    break;
+                case MOVE:
+                    target.remove(op.position);
+                    target.add(op.toPosition, op.item);
+                    if (op.position != op.toPosition) callback.onMoved(op.position, op.toPosition);
+                    break;
+            }
+        }
+    }
+}
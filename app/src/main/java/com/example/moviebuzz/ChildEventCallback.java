@@ -0,0 +1,13 @@
+package com.example.moviebuzz;
+
+// Child-level events for an ordered query. previousKey is the key of the child directly before
+// this one in query order, or null when it is first. onSynced fires once after the initial
+// children have all been delivered.
+public interface ChildEventCallback<T> {
+    void onChildAdded(String key, T item, String previousKey);
+    void onChildChanged(String key, T item, String previousKey);
+    void onChildRemoved(String key);
+    void onChildMoved(String key, T item, String previousKey);
+    void onSynced();
+    void onFailure(Exception e);
+}
@@ -0,0 +1,133 @@
+package com.example.moviebuzz;
+
+import com.bumptech.glide.Priority;
+import com.bumptech.glide.load.DataSource;
+import com.bumptech.glide.load.Options;
+import com.bumptech.glide.load.data.DataFetcher;
+import com.bumptech.glide.load.model.GlideUrl;
+import com.bumptech.glide.load.model.ModelLoader;
+import com.bumptech.glide.load.model.ModelLoaderFactory;
+import com.bumptech.glide.load.model.MultiModelLoaderFactory;
+import com.bumptech.glide.load.model.stream.HttpGlideUrlLoader;
+
+import java.io.FilterInputStream;
+import java.io.IOException;
+import java.io.InputStream;
+
+// Glide's own HTTP loader, with the bytes of every poster download counted against the image
+// mode the download started in. Replaces the default GlideUrl loader, which String and Uri
+// models end up at too.
+final class CountingUrlLoader implements ModelLoader<GlideUrl, InputStream> {
+    private final ModelLoader<GlideUrl, InputStream> http = new HttpGlideUrlLoader();
+    private final ImageConfig imageConfig;
+
+    private CountingUrlLoader(ImageConfig imageConfig) {
+        this.imageConfig = imageConfig;
+    }
+
+    @Override
+    public LoadData<InputStream> buildLoadData(GlideUrl url, int width, int height, Options options) {
+        LoadData<InputStream> data = http.buildLoadData(url, width, height, options);
+        return data == null ? null : new LoadData<>(data.sourceKey, new Fetcher(data.fetcher, imageConfig));
+    }
+
+    @Override
+    public boolean handles(GlideUrl url) {
+        return true;
+    }
+
+    static class Factory implements ModelLoaderFactory<GlideUrl, InputStream> {
+        private final ImageConfig imageConfig;
+
+        Factory(ImageConfig imageConfig) {
+            this.imageConfig = imageConfig;
+        }
+
+        @Override
+        public ModelLoader<GlideUrl, InputStream> build(MultiModelLoaderFactory multiFactory) {
+            return new CountingUrlLoader(imageConfig);
+        }
+
+        @Override
+        public void teardown() {
+        }
+    }
+
+    private static class Fetcher implements DataFetcher<InputStream> {
+        private final DataFetcher<InputStream> delegate;
+        private final ImageConfig imageConfig;
+
+        Fetcher(DataFetcher<InputStream> delegate, ImageConfig imageConfig) {
+            this.delegate = delegate;
+            this.imageConfig = imageConfig;
+        }
+
+        @Override
+        public void loadData(Priority priority, DataCallback<? super InputStream> callback) {
+            ImageConfig.Mode mode = imageConfig.getMode();
+            delegate.loadData(priority, new DataCallback<InputStream>() {
+                @Override
+                public void onDataReady(InputStream data) {
+                    callback.onDataReady(data == null ? null : new CountingStream(data, imageConfig, mode));
+                }
+
+                @Override
+                public void onLoadFailed(Exception e) {
+                    callback.onLoadFailed(e);
+                }
+            });
+        }
+
+        @Override
+        public void cleanup() {
+            delegate.cleanup();
+        }
+
+        @Override
+        public void cancel() {
+            delegate.cancel();
+        }
+
+        @Override
+        public Class<InputStream> getDataClass() {
+            return InputStream.class;
+        }
+
+        @Override
+        public DataSource getDataSource() {
+            return DataSource.REMOTE;
+        }
+    }
+
+    private static class CountingStream extends FilterInputStream {
+        private final ImageConfig imageConfig;
+        private final ImageConfig.Mode mode;
+
+        CountingStream(InputStream in, ImageConfig imageConfig, ImageConfig.Mode mode) {
+            super(in);
+            this.imageConfig = imageConfig;
+            this.mode = mode;
+        }
+
+        @Override
+        public int read() throws IOException {
+            int b = super.read();
+            if (b >= 0) imageConfig.recordDownload(mode, 1);
+            return b;
+        }
+
+        @Override
+        public int read(byte[] buffer, int offset, int length) throws IOException {
+            int n = super.read(buffer, offset, length);
+            if (n > 0) imageConfig.recordDownload(mode, n);
+            return n;
+        }
+
+        @Override
+        public long skip(long n) throws IOException {
+            long skipped = super.skip(n);
+            if (skipped > 0) imageConfig.recordDownload(mode, skipped);
+            return skipped;
+        }
+    }
+}
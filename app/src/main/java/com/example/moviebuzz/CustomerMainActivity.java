@@ -1,8 +1,11 @@
 package com.example.moviebuzz;
 
 import android.content.Intent;
+import android.graphics.drawable.Drawable;
 import android.os.Bundle;
+import android.text.Editable;
 import android.text.InputType;
+import android.text.TextWatcher;
 import android.util.TypedValue;
 import android.view.*;
 import android.widget.*;
@@ -11,21 +14,55 @@ import androidx.appcompat.app.AppCompatActivity;
 import androidx.recyclerview.widget.*;
 
 import com.bumptech.glide.Glide;
+import com.bumptech.glide.ListPreloader;
+import com.bumptech.glide.RequestBuilder;
+import com.bumptech.glide.RequestManager;
+import com.bumptech.glide.integration.recyclerview.RecyclerViewPreloader;
+import com.bumptech.glide.load.DataSource;
+import com.bumptech.glide.load.DecodeFormat;
+import com.bumptech.glide.load.engine.DiskCacheStrategy;
+import com.bumptech.glide.load.engine.GlideException;
+import com.bumptech.glide.request.RequestListener;
+import com.bumptech.glide.request.target.Target;
+import com.bumptech.glide.util.ViewPreloadSizeProvider;
 import com.google.android.material.button.MaterialButton;
+import com.google.android.material.chip.Chip;
 import java.util.*;
+import java.util.concurrent.Executor;
 
 public class CustomerMainActivity extends AppCompatActivity {
 
     private RecyclerView movieRecyclerView;
     private TextView balanceText;
+    private EditText searchField;
+    private ViewGroup genreChips;
     private MaterialButton rechargeButton, logoutButton;
 
     private DatabaseHelper databaseHelper;
     private UserSession userSession;
 
     private final List<Movie> movieList = new ArrayList<>();
+    // What the grid shows: movieList, or the latest search results while filtering.
+    private List<Movie> shown = movieList;
     private MovieAdapter adapter;
 
+    // Owned by indexExecutor, so resets (the whole catalog) are indexed off the main thread and
+    // searches always see every change queued before them.
+    private final MovieIndex movieIndex = new MovieIndex();
+    private final Executor indexExecutor = AppExecutors.newSerialExecutor();
+    private String query = "";
+    private final Set<String> selectedGenres = new LinkedHashSet<>();
+    private final List<String> chipGenres = new ArrayList<>();
+    private int searchGeneration;
+
+    // Rows of posters fetched ahead of the scroll position.
+    private static final int PRELOAD_ROWS = 3;
+    private RequestManager glide;
+    private ImageConfig imageConfig;
+    private PosterStore posterStore;
+    private final ViewPreloadSizeProvider<Movie> posterSize = new ViewPreloadSizeProvider<>();
+    private boolean firstContentReported;
+
     @Override
     protected void onCreate(Bundle savedInstanceState) {
         super.onCreate(savedInstanceState);
@@ -42,14 +79,10 @@ public class CustomerMainActivity extends AppCompatActivity {
 
         bindViews();
         setupRecycler();
+        setupSearch();
         setupButtons();
         loadMovies();
-    }
-
-    @Override
-    protected void onStart() {
-        super.onStart();
-        loadBalance();
+        bindBalance();
     }
 
     private void bindViews() {
@@ -57,13 +90,22 @@ public class CustomerMainActivity extends AppCompatActivity {
         balanceText = findViewById(R.id.balanceText);
         rechargeButton = findViewById(R.id.rechargeButton);
         logoutButton = findViewById(R.id.logoutButton);
+        searchField = findViewById(R.id.searchField);
+        genreChips = findViewById(R.id.genreChips);
     }
 
     private void setupRecycler() {
         int span = getResources().getConfiguration().screenWidthDp > 600 ? 4 : 2;
         movieRecyclerView.setLayoutManager(new GridLayoutManager(this, span));
+        glide = Glide.with(this);
+        imageConfig = ImageConfig.getInstance(this);
+        posterStore = PosterStore.getInstance(this);
         adapter = new MovieAdapter();
         movieRecyclerView.setAdapter(adapter);
+        // Loads the next rows' posters at the cell size measured from the first bound poster, so
+        // the requests the cells make on binding find them in the memory cache.
+        movieRecyclerView.addOnScrollListener(
+                new RecyclerViewPreloader<>(glide, adapter, posterSize, PRELOAD_ROWS * span));
     }
 
     private void setupButtons() {
@@ -122,81 +164,196 @@ public class CustomerMainActivity extends AppCompatActivity {
     }
 
     private void performRecharge(double amountToAdd) {
-        float currentBal = userSession.getBalance();
-        double newTotalBalance = (double) currentBal + amountToAdd;
-
-        databaseHelper.updateUserBalance(userSession.getUsername(), newTotalBalance, new DatabaseHelper.DatabaseCallback<Void>() {
+        // Applied as an increment on the server; the balance label updates from the live value.
+        databaseHelper.creditBalance(userSession.getUsername(), amountToAdd, new DatabaseHelper.DatabaseCallback<Void>() {
             @Override
             public void onSuccess(Void result) {
-                runOnUiThread(() -> {
-                    Toast.makeText(CustomerMainActivity.this,
-                            "Successfully recharged BDT " + String.format("%.2f", amountToAdd),
-                            Toast.LENGTH_SHORT).show();
-                    loadBalance();
-                });
+                Toast.makeText(CustomerMainActivity.this,
+                        "Successfully recharged BDT " + String.format("%.2f", amountToAdd),
+                        Toast.LENGTH_SHORT).show();
             }
 
             @Override
             public void onFailure(Exception e) {
-                runOnUiThread(() -> Toast.makeText(CustomerMainActivity.this, "Recharge failed", Toast.LENGTH_SHORT).show());
+                Toast.makeText(CustomerMainActivity.this, "Recharge failed", Toast.LENGTH_SHORT).show();
             }
         });
     }
 
+    // Fully drawn once the grid has movies, or once the network confirms there are none.
+    private void reportFirstContent(boolean fromCache) {
+        if (firstContentReported || (movieList.isEmpty() && fromCache)) return;
+        firstContentReported = true;
+        StartupTracer.reportFullyDrawn(this);
+    }
+
     private void loadMovies() {
-        databaseHelper.getAllMovies(new DatabaseHelper.DatabaseCallback<List<Movie>>() {
+        ListUpdateCallback updates = new AdapterListUpdateCallback(adapter);
+        databaseHelper.observeMovies(this, new DatabaseHelper.SyncCallback<Movie>() {
             @Override
-            public void onSuccess(List<Movie> movies) {
-                movieList.clear();
-                movieList.addAll(movies);
-                runOnUiThread(() -> adapter.notifyDataSetChanged());
+            public void onChanged(ChangeSet<Movie> changes) {
+                boolean filtering = isFiltering();
+                changes.applyTo(movieList, filtering ? IGNORE_UPDATES : updates);
+                reportFirstContent(changes.isFromCache());
+                indexExecutor.execute(() -> {
+                    movieIndex.apply(changes);
+                    List<MovieIndex.Genre> genres = movieIndex.getGenres();
+                    AppExecutors.mainThread().execute(() -> showGenres(genres));
+                });
+                if (filtering) search();
             }
 
             @Override
             public void onFailure(Exception e) {
-                runOnUiThread(() ->
-                        Toast.makeText(CustomerMainActivity.this, "Failed to load movies", Toast.LENGTH_SHORT).show()
-                );
+                Toast.makeText(CustomerMainActivity.this, "Failed to load movies", Toast.LENGTH_SHORT).show();
             }
         });
     }
 
-    private void loadBalance() {
-        databaseHelper.getUser(userSession.getUsername(), new DatabaseHelper.DatabaseCallback<User>() {
+    private void bindBalance() {
+        userSession.getBalance().observe(this, balance ->
+                balanceText.setText(String.format("BDT %.2f", balance != null ? balance : 0.0)));
+    }
+
+
+    private void setupSearch() {
+        searchField.addTextChangedListener(new TextWatcher() {
             @Override
-            public void onSuccess(User user) {
-                if (user != null) {
-                    userSession.setBalance((float) user.getBalance());
-                    runOnUiThread(() -> balanceText.setText(String.format("BDT %.2f", user.getBalance())));
-                }
-            }
-            @Override public void onFailure(Exception e) {
-                runOnUiThread(() -> balanceText.setText("BDT 0.00"));
+            public void beforeTextChanged(CharSequence s, int start, int count, int after) {}
+
+            @Override
+            public void onTextChanged(CharSequence s, int start, int before, int count) {}
+
+            @Override
+            public void afterTextChanged(Editable s) {
+                query = s.toString();
+                search();
             }
         });
     }
 
+    private boolean isFiltering() {
+        return !MovieIndex.tokenize(query).isEmpty() || !selectedGenres.isEmpty();
+    }
+
+    // Searches are cheap enough to run on every keystroke and chip toggle; only the latest one's
+    // results are shown.
+    private void search() {
+        int generation = ++searchGeneration;
+        if (!isFiltering()) {
+            showResults(movieList);
+            return;
+        }
+        String q = query;
+        List<String> genres = new ArrayList<>(selectedGenres);
+        indexExecutor.execute(() -> {
+            long start = System.nanoTime();
+            List<Movie> results = movieIndex.search(q, genres);
+            Diagnostics.record("search", start, results.size(), -1, false);
+            AppExecutors.mainThread().execute(() -> {
+                if (generation == searchGeneration && !isDestroyed()) showResults(results);
+            });
+        });
+    }
+
+    private void showResults(List<Movie> results) {
+        if (results == shown) return;
+        shown = results;
+        adapter.notifyDataSetChanged();
+    }
+
+    // One checkable chip per genre in the catalog, most common first; rebuilt only when the set
+    // of genres changes, so selections survive sync.
+    private void showGenres(List<MovieIndex.Genre> genres) {
+        if (isDestroyed()) return;
+        List<String> keys = new ArrayList<>();
+        for (MovieIndex.Genre g : genres) keys.add(g.getKey());
+        if (keys.equals(chipGenres)) return;
+        chipGenres.clear();
+        chipGenres.addAll(keys);
+        genreChips.removeAllViews();
+        for (MovieIndex.Genre g : genres) {
+            Chip chip = new Chip(this);
+            chip.setText(g.getName());
+            chip.setCheckable(true);
+            chip.setChecked(selectedGenres.contains(g.getKey()));
+            chip.setOnCheckedChangeListener((button, checked) -> {
+                if (checked) selectedGenres.add(g.getKey());
+                else selectedGenres.remove(g.getKey());
+                search();
+            });
+            genreChips.addView(chip);
+        }
+        // A selected genre whose last movie was removed no longer filters.
+        if (selectedGenres.retainAll(keys)) search();
+    }
+
+    private static final ListUpdateCallback IGNORE_UPDATES = new ListUpdateCallback() {
+        @Override
+        public void onInserted(int position, int count) {}
+
+        @Override
+        public void onRemoved(int position, int count) {}
 
-    private class MovieAdapter extends RecyclerView.Adapter<MovieAdapter.Holder> {
+        @Override
+        public void onMoved(int fromPosition, int toPosition) {}
+
+        @Override
+        public void onChanged(int position, int count, Object payload) {}
+    };
+
+    // Grid cells and the preloader must build the same request, or the preloaded poster is
+    // cached under a different key. ALL keeps the downsampled cell-sized thumbnail on disk next
+    // to the original, which the details screen reuses for its own size. Thumbnails are opaque
+    // and small, so RGB_565 halves their memory at no visible cost.
+    private RequestBuilder<Drawable> posterRequest(Movie m, ImageConfig.Mode mode) {
+        return glide.load(posterStore.gridUrl(m, imageConfig, mode))
+                .diskCacheStrategy(DiskCacheStrategy.ALL)
+                .format(DecodeFormat.PREFER_RGB_565)
+                .centerCrop();
+    }
+
+    private class MovieAdapter extends RecyclerView.Adapter<MovieAdapter.Holder>
+            implements ListPreloader.PreloadModelProvider<Movie> {
         @Override
         public Holder onCreateViewHolder(ViewGroup parent, int viewType) {
             View v = LayoutInflater.from(parent.getContext()).inflate(R.layout.item_movie_customer, parent, false);
-            return new Holder(v);
+            Holder holder = new Holder(v);
+            posterSize.setView(holder.poster);
+            return holder;
+        }
+
+        @Override
+        public List<Movie> getPreloadItems(int position) {
+            if (position >= shown.size()) return Collections.emptyList();
+            Movie m = shown.get(position);
+            return PosterStore.hasPoster(m) ? Collections.singletonList(m) : Collections.<Movie>emptyList();
+        }
+
+        @Override
+        public RequestBuilder<?> getPreloadRequestBuilder(Movie m) {
+            return posterRequest(m, imageConfig.getMode());
         }
 
         @Override
         public void onBindViewHolder(Holder h, int position) {
-            Movie m = movieList.get(position);
+            Movie m = shown.get(position);
             h.title.setText(m.getTitle());
             if (m.getGenre() != null) h.genre.setText(m.getGenre());
 
-            Glide.with(CustomerMainActivity.this)
-                    .load(m.getPosterPath())
-                    .centerCrop()
-                    .placeholder(R.drawable.placeholder_movie)
-                    .into(h.poster);
-
-
+            h.boundAtNanos = System.nanoTime();
+            h.boundWhileScrolling = movieRecyclerView.getScrollState() != RecyclerView.SCROLL_STATE_IDLE;
+            h.mode = imageConfig.getMode();
+            if (PosterStore.hasPoster(m)) {
+                posterRequest(m, h.mode)
+                        .placeholder(R.drawable.placeholder_movie)
+                        .error(R.drawable.placeholder_movie)
+                        .listener(h)
+                        .into(h.poster);
+            } else {
+                glide.clear(h.poster);
+                h.poster.setImageResource(R.drawable.placeholder_movie);
+            }
 
             h.itemView.setOnClickListener(v -> {
                 Intent intent = new Intent(CustomerMainActivity.this, MovieDetailsActivity.class);
@@ -205,23 +362,53 @@ public class CustomerMainActivity extends AppCompatActivity {
                 intent.putExtra("movie_title", m.getTitle());
                 intent.putExtra("movie_genre", m.getGenre());      // Fixed: Send Genre
                 intent.putExtra("movie_poster", m.getPosterPath()); // Fixed: Send Poster URL
+                intent.putExtra("movie_poster_thumb", m.getPosterThumbKey());
+                intent.putExtra("movie_poster_hero", m.getPosterHeroKey());
 
                 startActivity(intent);
             });
         }
 
         @Override
-        public int getItemCount() { return movieList.size(); }
+        public int getItemCount() { return shown.size(); }
 
-        class Holder extends RecyclerView.ViewHolder {
+        // Times each poster from bind to image. Memory hits land during the bind; anything else
+        // leaves the placeholder up, which counts as checkerboarding when it happens mid-scroll.
+        // The source shows what the wait was spent on: decoding the cached thumbnail, decoding
+        // and downsampling the cached original, or downloading.
+        class Holder extends RecyclerView.ViewHolder implements RequestListener<Drawable> {
             ImageView poster;
             TextView title, genre;
+            long boundAtNanos;
+            boolean boundWhileScrolling;
+            ImageConfig.Mode mode;
+
             Holder(View v) {
                 super(v);
                 poster = v.findViewById(R.id.moviePoster);
                 title = v.findViewById(R.id.movieTitle);
                 genre = v.findViewById(R.id.movieGenre);
             }
+
+            @Override
+            public boolean onResourceReady(Drawable resource, Object model, Target<Drawable> target,
+                                           DataSource dataSource, boolean isFirstResource) {
+                Diagnostics.record("poster.bind", boundAtNanos, 1, -1, false);
+                imageConfig.recordLoad(mode, dataSource != DataSource.REMOTE);
+                if (dataSource == DataSource.MEMORY_CACHE) return false;
+                if (boundWhileScrolling) Diagnostics.record("poster.checkerboard", boundAtNanos, 1, -1, false);
+                String source = dataSource == DataSource.RESOURCE_DISK_CACHE ? "poster.thumbnail"
+                        : dataSource == DataSource.DATA_DISK_CACHE ? "poster.original" : "poster.remote";
+                Diagnostics.record(source, boundAtNanos, 1, -1, false);
+                return false;
+            }
+
+            @Override
+            public boolean onLoadFailed(GlideException e, Object model, Target<Drawable> target,
+                                        boolean isFirstResource) {
+                Diagnostics.record("poster.bind", boundAtNanos, -1, -1, true);
+                return false;
+            }
         }
     }
 }
\ No newline at end of file
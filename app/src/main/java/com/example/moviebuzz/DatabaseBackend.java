@@ -0,0 +1,92 @@
+package com.example.moviebuzz;
+
+import java.util.List;
+
+public interface DatabaseBackend {
+    void getUser(String username, DatabaseHelper.DatabaseCallback<User> callback);
+
+    void addUser(User user, DatabaseHelper.DatabaseCallback<Void> callback);
+
+    void updateUserBalance(String username, double newBalance, DatabaseHelper.DatabaseCallback<Void> callback);
+
+    // Adds amount to the user's balance as one atomic increment, so it applies to the current value.
+    void creditBalance(String username, double amount, DatabaseHelper.DatabaseCallback<Void> callback);
+
+    // Streams the user's balance (null if the user doesn't exist) until the registration is removed.
+    ListenerRegistration observeBalance(String username, ValueObserver<Double> observer);
+
+    // Claims the movie's /movieTitleIndex key together with writing the movie; fails with
+    // DatabaseHelper.DuplicateMovieException if another movie already holds it. A movie without a
+    // title is written without an index entry.
+    void addMovie(Movie movie, DatabaseHelper.DatabaseCallback<String> callback);
+
+    // addMovie for many movies in one write, after checking the index for titles already claimed.
+    // Yields the new id of each movie, in order, or null for a movie whose title is already
+    // claimed or appears earlier in the same list.
+    void addMovies(List<Movie> movies, DatabaseHelper.DatabaseCallback<List<String>> callback);
+
+    void getMovieIdByTitle(String title, DatabaseHelper.DatabaseCallback<String> callback);
+
+    // One-shot read of the whole catalog.
+    void getAllMovies(DatabaseHelper.DatabaseCallback<List<Movie>> callback);
+
+    // Streams child events for /movies in key order until the registration is removed.
+    ListenerRegistration observeMovieChanges(ChildEventCallback<Movie> callback);
+
+    // Also releases the movie's title in /movieTitleIndex.
+    void deleteMovie(String movieId, DatabaseHelper.DatabaseCallback<Void> callback);
+
+    void addShow(Show show, DatabaseHelper.DatabaseCallback<String> callback);
+
+    void getAllShows(DatabaseHelper.DatabaseCallback<List<Show>> callback);
+
+    void getShow(String showId, DatabaseHelper.DatabaseCallback<Show> callback);
+
+    // Streams child events for /shows ordered by movie title.
+    ListenerRegistration observeShowChanges(ChildEventCallback<Show> callback);
+
+    void getShowsByMovie(String movieTitle, DatabaseHelper.DatabaseCallback<List<Show>> callback);
+
+    void updateShowStatus(String showId, String status, DatabaseHelper.DatabaseCallback<Void> callback);
+
+    void getBookingsByUser(String username, DatabaseHelper.DatabaseCallback<List<Booking>> callback);
+
+    // The user's ticket and spend totals per show of one movie, read from the /userBookings index.
+    void getBookingSummaries(String username, String movieId, DatabaseHelper.DatabaseCallback<List<BookingSummary>> callback);
+
+    void addBooking(Booking booking, DatabaseHelper.DatabaseCallback<String> callback);
+
+    // Debits booking.amountPaid from the user's balance, stores the booking and adds it to the user's
+    // booking summary and the show's ticketsSold in one atomic step. Fails with DatabaseHelper.InsufficientBalanceException instead of overdrawing,
+    // and with DatabaseHelper.ShowUnavailableException unless the show exists and is Active.
+    void bookTickets(Booking booking, DatabaseHelper.DatabaseCallback<String> callback);
+
+    void getBookingsByShow(String showId, DatabaseHelper.DatabaseCallback<List<Booking>> callback);
+
+    // The only paged query. The show list stays a live query so cancellations show up in place and
+    // titles sort ignoring case, which pages ordered by the server can't do; no screen lists a
+    // user's bookings, which are summed in /userBookings instead.
+    void getBookingsByShowPage(String showId, PageCursor after, int limit, DatabaseHelper.DatabaseCallback<Page<Booking>> callback);
+
+    // Marks the show cancelled, then refunds every confirmed booking for it. Once the show is
+    // cancelled no new booking can land, so the refund can't miss one. Credits are summed per user
+    // and applied together with all booking status and summary changes as one atomic write.
+    void cancelShowWithRefunds(String showId, DatabaseHelper.DatabaseCallback<RefundResult> callback);
+
+    // Moving a booking into or out of Confirmed also adjusts the user's booking summary and the
+    // show's ticketsSold in the same write.
+    void updateBookingStatus(String bookingId, String status, DatabaseHelper.DatabaseCallback<Void> callback);
+
+    // One-time backfills for data written by older app versions. Each runs once per database and
+    // yields how many values it wrote (0 if it had already run).
+
+    // Writes movieTitle_status on shows stored before getShowsByMovie started querying it.
+    void backfillShowStatusKeys(DatabaseHelper.DatabaseCallback<Integer> callback);
+
+    // Links bookings made before movieId was recorded to their movie by title and adds the
+    // confirmed ones to /userBookings.
+    void backfillBookingSummaries(DatabaseHelper.DatabaseCallback<Integer> callback);
+
+    // Sets ticketsSold from the confirmed bookings on shows stored before it was kept.
+    void backfillTicketsSold(DatabaseHelper.DatabaseCallback<Integer> callback);
+}
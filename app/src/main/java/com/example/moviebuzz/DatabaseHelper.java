@@ -1,17 +1,70 @@
 package com.example.moviebuzz;
 
 import android.content.Context;
-import com.google.firebase.database.*;
-import java.util.ArrayList;
+import androidx.lifecycle.Lifecycle;
+import androidx.lifecycle.LifecycleEventObserver;
+import androidx.lifecycle.LifecycleOwner;
+import java.util.Collections;
+import java.util.Comparator;
+import java.util.Iterator;
 import java.util.List;
+import java.util.Map;
+import java.util.concurrent.Executor;
+import java.util.concurrent.Executors;
+import java.util.concurrent.ScheduledExecutorService;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicBoolean;
 
 public class DatabaseHelper {
     private static DatabaseHelper instance;
-    private final DatabaseReference databaseRef;
+    private final DatabaseBackend backend;
+    private final LiveQueryHub queryHub = new LiveQueryHub();
+    private final UserProfileCache userCache = new UserProfileCache(USER_CACHE_TTL_MS);
+    // Null when running without a Context (tests, benchmarks): every read then goes to the backend.
+    private final LocalStore localStore;
+    private final ScheduledExecutorService diskExecutor;
+    // Where callbacks are delivered: the main thread in the app, the calling thread in tests.
+    private final Executor callbackExecutor;
+    private final AtomicBoolean backfillsStarted = new AtomicBoolean();
+
+    private static final String CACHE_MOVIES = "movies";
+    private static final String CACHE_SHOWS = "shows";
+    private static final String CACHE_SHOWS_BY_MOVIE = "showsByMovie/";
+    private static final String CACHE_BOOKING_SUMMARIES = "userBookings/";
+    // Long enough to absorb the reads of a few screen transitions, short enough that balance
+    // changes made elsewhere show up quickly.
+    private static final long USER_CACHE_TTL_MS = 10_000;
+    // Live lists are flushed to disk at most this often while they keep changing.
+    private static final long PERSIST_DELAY_MS = 1000;
+    // Cached lists older than this are more likely wrong than helpful, so screens wait for the network.
+    private static final long MAX_CACHED_AGE_MS = 24 * 60 * 60 * 1000L;
+    // The query orders titles case-sensitively, capitals first; screens list them ignoring case.
+    private static final Comparator<Show> SHOWS_BY_TITLE = new Comparator<Show>() {
+        @Override
+        public int compare(Show a, Show b) {
+            String ta = a.getMovieTitle() != null ? a.getMovieTitle() : "";
+            String tb = b.getMovieTitle() != null ? b.getMovieTitle() : "";
+            return ta.compareToIgnoreCase(tb);
+        }
+    };
 
     private DatabaseHelper(Context context) {
+        this(new FirebaseBackend(), new LocalStore(context), AppExecutors.mainThread());
+    }
+
+    DatabaseHelper(DatabaseBackend backend) {
+        this(backend, null, Runnable::run);
+    }
 
-        databaseRef = FirebaseDatabase.getInstance().getReference();
+    DatabaseHelper(DatabaseBackend backend, LocalStore localStore, Executor callbackExecutor) {
+        this.backend = backend;
+        this.localStore = localStore;
+        this.callbackExecutor = callbackExecutor;
+        this.diskExecutor = localStore == null ? null : Executors.newSingleThreadScheduledExecutor(r -> {
+            Thread t = new Thread(r, "local-store");
+            t.setDaemon(true);
+            return t;
+        });
     }
 
     public static synchronized DatabaseHelper getInstance(Context context) {
@@ -21,178 +74,624 @@ public class DatabaseHelper {
         return instance;
     }
 
+    // Swaps the storage engine, e.g. an InMemoryBackend for tests and benchmarks.
+    public static synchronized void useBackend(DatabaseBackend backend) {
+        instance = new DatabaseHelper(backend, null, AppExecutors.mainThread());
+    }
+
+    // Gets the local store ready off the main thread, so the first screen's cached read doesn't
+    // pay for opening it.
+    public void warmUp() {
+        if (localStore != null) diskExecutor.execute(localStore::warmUp);
+    }
+
+    public DatabaseBackend getBackend() {
+        return backend;
+    }
+
     public void getUser(String username, DatabaseCallback<User> callback) {
-        databaseRef.child("users").child(username).addListenerForSingleValueEvent(new ValueEventListener() {
-            @Override
-            public void onDataChange(DataSnapshot snapshot) {
-                callback.onSuccess(snapshot.getValue(User.class));
-            }
-            @Override
-            public void onCancelled(DatabaseError error) { callback.onFailure(error.toException()); }
-        });
+        userCache.get(username, backend::getUser, deliver("getUser", callback));
     }
 
     public void addUser(User user, DatabaseCallback<Void> callback) {
-        databaseRef.child("users").child(user.getUsername()).setValue(user)
-                .addOnSuccessListener(aVoid -> callback.onSuccess(null))
-                .addOnFailureListener(callback::onFailure);
+        userCache.invalidate(user.getUsername());
+        backend.addUser(user, deliver("addUser", invalidatingUser(user.getUsername(), callback)));
     }
 
     public void updateUserBalance(String username, double newBalance, DatabaseCallback<Void> callback) {
-        databaseRef.child("users").child(username).child("balance").setValue(newBalance)
-                .addOnSuccessListener(aVoid -> callback.onSuccess(null))
-                .addOnFailureListener(callback::onFailure);
+        userCache.invalidate(username);
+        backend.updateUserBalance(username, newBalance, deliver("updateUserBalance", invalidatingUser(username, callback)));
     }
 
-    public void addMovie(Movie movie, DatabaseCallback<String> callback) {
-        String movieId = databaseRef.child("movies").push().getKey();
-        if (movieId != null) {
-            movie.setId(movieId);
-            databaseRef.child("movies").child(movieId).setValue(movie)
-                    .addOnSuccessListener(aVoid -> callback.onSuccess(movieId))
-                    .addOnFailureListener(callback::onFailure);
-        }
+    public void creditBalance(String username, double amount, DatabaseCallback<Void> callback) {
+        userCache.invalidate(username);
+        backend.creditBalance(username, amount, deliver("creditBalance", invalidatingUser(username, callback)));
     }
 
-    public void getAllMovies(DatabaseCallback<List<Movie>> callback) {
-        databaseRef.child("movies").addValueEventListener(new ValueEventListener() {
-            @Override
-            public void onDataChange(DataSnapshot snapshot) {
-                List<Movie> movies = new ArrayList<>();
-                for (DataSnapshot snap : snapshot.getChildren()) {
-                    Movie movie = snap.getValue(Movie.class);
-                    if (movie != null) {
-                        movie.setId(snap.getKey());
-                        movies.add(movie);
-                    }
-                }
-                callback.onSuccess(movies);
+    // Live balance of username; see UserSession.getBalance(), which keeps one of these per session.
+    public ListenerRegistration observeBalance(String username, ValueObserver<Double> observer) {
+        return backend.observeBalance(username, new ValueObserver<Double>() {
+            @Override
+            public void onValue(Double value) {
+                callbackExecutor.execute(() -> observer.onValue(value));
             }
+
             @Override
-            public void onCancelled(DatabaseError error) { callback.onFailure(error.toException()); }
+            public void onFailure(Exception e) {
+                callbackExecutor.execute(() -> observer.onFailure(e));
+            }
         });
     }
 
-    public void deleteMovie(String movieId, DatabaseCallback<Void> callback) {
-        databaseRef.child("movies").child(movieId).removeValue()
-                .addOnSuccessListener(aVoid -> callback.onSuccess(null))
-                .addOnFailureListener(callback::onFailure);
+    public void addMovie(Movie movie, DatabaseCallback<String> callback) {
+        backend.addMovie(movie, deliver("addMovie", new DatabaseCallback<String>() {
+            @Override
+            public void onSuccess(String movieId) {
+                editCached(CACHE_MOVIES, Movie.class, movies -> movies.add(movie));
+                callback.onSuccess(movieId);
+            }
+
+            @Override
+            public void onFailure(Exception e) {
+                callback.onFailure(e);
+            }
+        }));
     }
 
-    public void addShow(Show show, DatabaseCallback<String> callback) {
-        String showId = databaseRef.child("shows").push().getKey();
-        if (showId != null) {
-            show.setShowId(showId);
-            databaseRef.child("shows").child(showId).setValue(show)
-                    .addOnSuccessListener(aVoid -> callback.onSuccess(showId))
-                    .addOnFailureListener(callback::onFailure);
-        }
+    public void addMovies(List<Movie> movies, DatabaseCallback<List<String>> callback) {
+        backend.addMovies(movies, deliver("addMovies", new DatabaseCallback<List<String>>() {
+            @Override
+            public void onSuccess(List<String> ids) {
+                editCached(CACHE_MOVIES, Movie.class, cached -> {
+                    for (int i = 0; i < ids.size(); i++) if (ids.get(i) != null) cached.add(movies.get(i));
+                });
+                callback.onSuccess(ids);
+            }
+
+            @Override
+            public void onFailure(Exception e) {
+                callback.onFailure(e);
+            }
+        }));
     }
 
-    public void getAllShows(DatabaseCallback<List<Show>> callback) {
-        databaseRef.child("shows").addValueEventListener(new ValueEventListener() {
-            @Override
-            public void onDataChange(DataSnapshot snapshot) {
-                List<Show> shows = new ArrayList<>();
-                for (DataSnapshot snap : snapshot.getChildren()) {
-                    Show show = snap.getValue(Show.class);
-                    if (show != null) {
-                        show.setShowId(snap.getKey());
-                        shows.add(show);
+    // Id of the catalog movie whose title normalizes like title (Movie.titleKey), or null.
+    public void getMovieIdByTitle(String title, DatabaseCallback<String> callback) {
+        backend.getMovieIdByTitle(title, deliver("getMovieIdByTitle", callback));
+    }
+
+    public void getAllMovies(DatabaseCallback<List<Movie>> callback) {
+        backend.getAllMovies(deliver("getAllMovies", callback));
+    }
+
+    // Live catalog for as long as owner is alive; all observers share one backend listener.
+    // The last synced catalog is delivered from disk first, flagged ChangeSet.isFromCache().
+    public ListenerRegistration observeMovies(LifecycleOwner owner, SyncCallback<Movie> callback) {
+        return bindToLifecycle(owner, queryHub.subscribe(CACHE_MOVIES,
+                persisting(CACHE_MOVIES, backend::observeMovieChanges),
+                cacheFirst(CACHE_MOVIES, Movie.class, diffing(Movie::getId, null, callback))));
+    }
+
+    public void deleteMovie(String movieId, DatabaseCallback<Void> callback) {
+        backend.deleteMovie(movieId, deliver("deleteMovie", new DatabaseCallback<Void>() {
+            @Override
+            public void onSuccess(Void result) {
+                editCached(CACHE_MOVIES, Movie.class, movies -> {
+                    Iterator<Movie> it = movies.iterator();
+                    while (it.hasNext()) {
+                        if (movieId.equals(it.next().getId())) it.remove();
                     }
+                });
+                callback.onSuccess(result);
+            }
+
+            @Override
+            public void onFailure(Exception e) {
+                callback.onFailure(e);
+            }
+        }));
+    }
+
+    public void addShow(Show show, DatabaseCallback<String> callback) {
+        backend.addShow(show, deliver("addShow", new DatabaseCallback<String>() {
+            @Override
+            public void onSuccess(String showId) {
+                if ("Active".equals(show.getStatus())) {
+                    editCached(CACHE_SHOWS_BY_MOVIE + show.getMovieTitle(), Show.class, shows -> shows.add(show));
                 }
-                callback.onSuccess(shows);
+                callback.onSuccess(showId);
             }
+
             @Override
-            public void onCancelled(DatabaseError error) { callback.onFailure(error.toException()); }
-        });
+            public void onFailure(Exception e) {
+                callback.onFailure(e);
+            }
+        }));
+    }
+
+    public void getAllShows(DatabaseCallback<List<Show>> callback) {
+        backend.getAllShows(deliver("getAllShows", callback));
+    }
+
+    public void getShow(String showId, DatabaseCallback<Show> callback) {
+        backend.getShow(showId, deliver("getShow", callback));
+    }
+
+    // Live show list sorted by movie title, ignoring case.
+    public ListenerRegistration observeShows(LifecycleOwner owner, SyncCallback<Show> callback) {
+        return bindToLifecycle(owner, queryHub.subscribe(CACHE_SHOWS,
+                persisting(CACHE_SHOWS, backend::observeShowChanges),
+                cacheFirst(CACHE_SHOWS, Show.class, diffing(Show::getShowId, SHOWS_BY_TITLE, callback))));
     }
 
     public void getShowsByMovie(String movieTitle, DatabaseCallback<List<Show>> callback) {
-        databaseRef.child("shows").orderByChild("movieTitle").equalTo(movieTitle)
-                .addListenerForSingleValueEvent(new ValueEventListener() {
-                    @Override
-                    public void onDataChange(DataSnapshot snapshot) {
-                        List<Show> list = new ArrayList<>();
-                        for (DataSnapshot snap : snapshot.getChildren()) {
-                            Show s = snap.getValue(Show.class);
-                            if (s != null && "Active".equals(s.getStatus())) {
-                                s.setShowId(snap.getKey());
-                                list.add(s);
-                            }
-                        }
-                        callback.onSuccess(list);
-                    }
-                    @Override
-                    public void onCancelled(DatabaseError error) { callback.onFailure(error.toException()); }
-                });
+        backend.getShowsByMovie(movieTitle, deliver("getShowsByMovie", callback));
+    }
+
+    // Active shows for movieTitle: the cached list via onCached (if any), then the network answer.
+    public void getShowsByMovie(String movieTitle, CachedCallback<List<Show>> callback) {
+        String key = CACHE_SHOWS_BY_MOVIE + movieTitle;
+        readThrough("getShowsByMovie", key, Show.class, callback, cb -> backend.getShowsByMovie(movieTitle, cb));
     }
 
     public void updateShowStatus(String showId, String status, DatabaseCallback<Void> callback) {
-        databaseRef.child("shows").child(showId).child("status").setValue(status)
-                .addOnSuccessListener(aVoid -> callback.onSuccess(null))
-                .addOnFailureListener(callback::onFailure);
+        backend.updateShowStatus(showId, status, deliver("updateShowStatus", new DatabaseCallback<Void>() {
+            @Override
+            public void onSuccess(Void result) {
+                invalidateCached(CACHE_SHOWS_BY_MOVIE);
+                callback.onSuccess(result);
+            }
+
+            @Override
+            public void onFailure(Exception e) {
+                callback.onFailure(e);
+            }
+        }));
     }
 
 
     public void getBookingsByUser(String username, DatabaseCallback<List<Booking>> callback) {
-        databaseRef.child("bookings").orderByChild("username").equalTo(username)
-                .addListenerForSingleValueEvent(new ValueEventListener() {
-                    @Override
-                    public void onDataChange(DataSnapshot snapshot) {
-                        List<Booking> bookings = new ArrayList<>();
-                        for (DataSnapshot snap : snapshot.getChildren()) {
-                            Booking b = snap.getValue(Booking.class);
-                            if (b != null) {
-                                b.setBookingId(snap.getKey());
-                                bookings.add(b);
-                            }
-                        }
-                        callback.onSuccess(bookings);
-                    }
-                    @Override
-                    public void onCancelled(DatabaseError error) { callback.onFailure(error.toException()); }
-                });
+        backend.getBookingsByUser(username, deliver("getBookingsByUser", callback));
+    }
+
+    public void getBookingSummaries(String username, String movieId, DatabaseCallback<List<BookingSummary>> callback) {
+        backend.getBookingSummaries(username, movieId, deliver("getBookingSummaries", callback));
+    }
+
+    public void getBookingSummaries(String username, String movieId, CachedCallback<List<BookingSummary>> callback) {
+        String key = CACHE_BOOKING_SUMMARIES + username + "/" + movieId;
+        readThrough("getBookingSummaries", key, BookingSummary.class, callback, cb -> backend.getBookingSummaries(username, movieId, cb));
     }
 
     public void addBooking(Booking booking, DatabaseCallback<String> callback) {
-        String bookingId = databaseRef.child("bookings").push().getKey();
-        if (bookingId != null) {
-            booking.setBookingId(bookingId);
-            databaseRef.child("bookings").child(bookingId).setValue(booking)
-                    .addOnSuccessListener(aVoid -> callback.onSuccess(bookingId))
-                    .addOnFailureListener(callback::onFailure);
-        }
+        backend.addBooking(booking, deliver("addBooking", callback));
+    }
+
+    public void bookTickets(Booking booking, DatabaseCallback<String> callback) {
+        backend.bookTickets(booking, deliver("bookTickets", new DatabaseCallback<String>() {
+            @Override
+            public void onSuccess(String bookingId) {
+                userCache.invalidate(booking.getUsername());
+                if (booking.getMovieId() != null) {
+                    String key = CACHE_BOOKING_SUMMARIES + booking.getUsername() + "/" + booking.getMovieId();
+                    editCached(key, BookingSummary.class, summaries -> addToSummary(summaries, booking));
+                }
+                callback.onSuccess(bookingId);
+            }
+
+            @Override
+            public void onFailure(Exception e) {
+                if (e instanceof ShowUnavailableException) invalidateCached(CACHE_SHOWS_BY_MOVIE + booking.getMovieTitle());
+                callback.onFailure(e);
+            }
+        }));
     }
 
     public void getBookingsByShow(String showId, DatabaseCallback<List<Booking>> callback) {
-        databaseRef.child("bookings").orderByChild("showId").equalTo(showId)
-                .addListenerForSingleValueEvent(new ValueEventListener() {
-                    @Override
-                    public void onDataChange(DataSnapshot snapshot) {
-                        List<Booking> bookings = new ArrayList<>();
-                        for (DataSnapshot snap : snapshot.getChildren()) {
-                            Booking b = snap.getValue(Booking.class);
-                            if (b != null) {
-                                b.setBookingId(snap.getKey());
-                                bookings.add(b);
-                            }
-                        }
-                        callback.onSuccess(bookings);
-                    }
-                    @Override
-                    public void onCancelled(DatabaseError error) { callback.onFailure(error.toException()); }
-                });
+        backend.getBookingsByShow(showId, deliver("getBookingsByShow", callback));
+    }
+
+    public void getBookingsByShowPage(String showId, PageCursor after, int limit, DatabaseCallback<Page<Booking>> callback) {
+        backend.getBookingsByShowPage(showId, after, limit, deliver("getBookingsByShowPage", callback));
+    }
+
+    public void cancelShowWithRefunds(String showId, DatabaseCallback<RefundResult> callback) {
+        backend.cancelShowWithRefunds(showId, deliver("cancelShowWithRefunds", new DatabaseCallback<RefundResult>() {
+            @Override
+            public void onSuccess(RefundResult result) {
+                // Touches one movie's shows and any number of users' bookings.
+                invalidateCached(CACHE_SHOWS_BY_MOVIE);
+                invalidateCached(CACHE_BOOKING_SUMMARIES);
+                userCache.invalidateAll();
+                callback.onSuccess(result);
+            }
+
+            @Override
+            public void onFailure(Exception e) {
+                callback.onFailure(e);
+            }
+        }));
     }
 
     public void updateBookingStatus(String bookingId, String status, DatabaseCallback<Void> callback) {
-        databaseRef.child("bookings").child(bookingId).child("status").setValue(status)
-                .addOnSuccessListener(aVoid -> callback.onSuccess(null))
-                .addOnFailureListener(callback::onFailure);
+        backend.updateBookingStatus(bookingId, status, deliver("updateBookingStatus", new DatabaseCallback<Void>() {
+            @Override
+            public void onSuccess(Void result) {
+                // The booking's user and movie aren't known here.
+                invalidateCached(CACHE_BOOKING_SUMMARIES);
+                callback.onSuccess(result);
+            }
+
+            @Override
+            public void onFailure(Exception e) {
+                callback.onFailure(e);
+            }
+        }));
+    }
+
+    // Brings data written by older app versions up to date. Each backfill runs once per database;
+    // only the first call per process asks the backend at all.
+    public void runBackfills() {
+        if (!backfillsStarted.compareAndSet(false, true)) return;
+        backend.backfillShowStatusKeys(deliver("backfillShowStatusKeys", ignoring()));
+        backend.backfillBookingSummaries(deliver("backfillBookingSummaries", ignoring()));
+        backend.backfillTicketsSold(deliver("backfillTicketsSold", ignoring()));
+    }
+
+    private static <T> DatabaseCallback<T> ignoring() {
+        return new DatabaseCallback<T>() {
+            @Override public void onSuccess(T result) { }
+            // Recorded by deliver(); the next app start tries again.
+            @Override public void onFailure(Exception e) { }
+        };
+    }
+
+    // Subscriber count per live query path, for diagnostics.
+    public Map<String, Integer> getListenerCounts() {
+        return queryHub.getListenerCounts();
+    }
+
+    // Hit, miss and coalesced-request counts of the user profile cache.
+    public Map<String, Long> getUserCacheStats() {
+        return userCache.getStats();
+    }
+
+    // Invalidates again once the write lands, in case a read raced in while it was in flight.
+    private <T> DatabaseCallback<T> invalidatingUser(String username, DatabaseCallback<T> callback) {
+        return new DatabaseCallback<T>() {
+            @Override
+            public void onSuccess(T result) {
+                userCache.invalidate(username);
+                callback.onSuccess(result);
+            }
+
+            @Override
+            public void onFailure(Exception e) {
+                userCache.invalidate(username);
+                callback.onFailure(e);
+            }
+        };
+    }
+
+    private <T> void readThrough(String op, String key, Class<T> type, CachedCallback<List<T>> callback, Fetch<List<T>> fetch) {
+        AtomicBoolean answered = new AtomicBoolean();
+        if (localStore != null) {
+            diskExecutor.execute(() -> {
+                if (localStore.isStale(key, MAX_CACHED_AGE_MS)) return;
+                List<T> cached = localStore.readList(key, type);
+                if (cached == null) return;
+                // Checked on the callback thread, where answered is set, so a late disk read
+                // can never overwrite the network result.
+                callbackExecutor.execute(() -> {
+                    if (!answered.get()) callback.onCached(Collections.unmodifiableList(cached));
+                });
+            });
+        }
+        fetch.run(deliver(op, new DatabaseCallback<List<T>>() {
+            @Override
+            public void onSuccess(List<T> result) {
+                answered.set(true);
+                // Read-only, since the disk write may still be serializing it while the screen binds it.
+                List<T> shared = Collections.unmodifiableList(result);
+                if (localStore != null) diskExecutor.execute(() -> localStore.writeList(key, shared));
+                callback.onSuccess(shared);
+            }
+
+            @Override
+            public void onFailure(Exception e) {
+                callback.onFailure(e);
+            }
+        }));
+    }
+
+    // Hands results to callbackExecutor as they are; each backend call builds a fresh list, so no
+    // other holder can see a screen mutate it. The time until the backend answers is recorded
+    // under op and the time the callback then spends on the callback thread under op + ".bind".
+    private <T> DatabaseCallback<T> deliver(String op, DatabaseCallback<T> callback) {
+        long start = System.nanoTime();
+        return new DatabaseCallback<T>() {
+            @Override
+            public void onSuccess(T result) {
+                Diagnostics.record(op, start, Diagnostics.itemCount(result), -1, false);
+                callbackExecutor.execute(() -> {
+                    long bindStart = System.nanoTime();
+                    callback.onSuccess(result);
+                    Diagnostics.recordBind(op, bindStart);
+                });
+            }
+
+            @Override
+            public void onFailure(Exception e) {
+                Diagnostics.record(op, start, -1, -1, true);
+                callbackExecutor.execute(() -> callback.onFailure(e));
+            }
+        };
+    }
+
+    // Diffs (and with an order, sorts) each subscriber's changes off the main thread before they
+    // are delivered, so ChangeSet.applyTo only dispatches the result.
+    private <T> SyncCallback<T> diffing(ChangeSet.KeyOf<T> keyOf, Comparator<T> order, SyncCallback<T> callback) {
+        return new DiffingSyncCallback<>(keyOf, order, AppExecutors.newSerialExecutor(), deliver(callback));
+    }
+
+    private <T> SyncCallback<T> deliver(SyncCallback<T> callback) {
+        return new SyncCallback<T>() {
+            @Override
+            public void onChanged(ChangeSet<T> changes) {
+                callbackExecutor.execute(() -> callback.onChanged(changes));
+            }
+
+            @Override
+            public void onFailure(Exception e) {
+                callbackExecutor.execute(() -> callback.onFailure(e));
+            }
+        };
+    }
+
+    // Drops results that arrive after owner is destroyed, so callbacks never touch dead views.
+    public static <T> DatabaseCallback<T> whileAlive(LifecycleOwner owner, DatabaseCallback<T> callback) {
+        return new DatabaseCallback<T>() {
+            @Override
+            public void onSuccess(T result) {
+                if (isAlive(owner)) callback.onSuccess(result);
+            }
+
+            @Override
+            public void onFailure(Exception e) {
+                if (isAlive(owner)) callback.onFailure(e);
+            }
+        };
+    }
+
+    public static <T> CachedCallback<T> whileAlive(LifecycleOwner owner, CachedCallback<T> callback) {
+        return new CachedCallback<T>() {
+            @Override
+            public void onCached(T result) {
+                if (isAlive(owner)) callback.onCached(result);
+            }
+
+            @Override
+            public void onSuccess(T result) {
+                if (isAlive(owner)) callback.onSuccess(result);
+            }
+
+            @Override
+            public void onFailure(Exception e) {
+                if (isAlive(owner)) callback.onFailure(e);
+            }
+        };
+    }
+
+    private static boolean isAlive(LifecycleOwner owner) {
+        return owner.getLifecycle().getCurrentState() != Lifecycle.State.DESTROYED;
+    }
+
+    // Patches a cached list after a successful write, so the next read from disk already shows it.
+    private <T> void editCached(String key, Class<T> type, ListEdit<T> edit) {
+        if (localStore == null) return;
+        diskExecutor.execute(() -> {
+            List<T> cached = localStore.readList(key, type);
+            if (cached == null) return;
+            edit.apply(cached);
+            localStore.writeList(key, cached);
+        });
+    }
+
+    private static void addToSummary(List<BookingSummary> summaries, Booking booking) {
+        for (BookingSummary summary : summaries) {
+            if (booking.getShowId().equals(summary.getShowId())) {
+                summary.setTickets(summary.getTickets() + booking.getTicketCount());
+                summary.setSpent(summary.getSpent() + booking.getAmountPaid());
+                return;
+            }
+        }
+        summaries.add(new BookingSummary(booking.getShowId(), booking.getTicketCount(), booking.getAmountPaid()));
+    }
+
+    private void invalidateCached(String prefix) {
+        if (localStore == null) return;
+        diskExecutor.execute(() -> localStore.invalidatePrefix(prefix));
+    }
+
+    private <T> SyncCallback<T> cacheFirst(String key, Class<T> type, SyncCallback<T> target) {
+        if (localStore == null) return target;
+        CacheFirstCallback<T> callback = new CacheFirstCallback<>(target);
+        diskExecutor.execute(() -> {
+            if (localStore.isStale(key, MAX_CACHED_AGE_MS)) return;
+            List<T> cached = localStore.readList(key, type);
+            if (cached != null) callback.deliverCached(cached);
+        });
+        return callback;
+    }
+
+    private <T> LiveQueryHub.Source<T> persisting(String key, LiveQueryHub.Source<T> source) {
+        if (localStore == null) return source;
+        return callback -> source.attach(new PersistingCallback<>(key, callback));
+    }
+
+    private static ListenerRegistration bindToLifecycle(LifecycleOwner owner, ListenerRegistration registration) {
+        Lifecycle lifecycle = owner.getLifecycle();
+        if (lifecycle.getCurrentState() == Lifecycle.State.DESTROYED) {
+            registration.remove();
+            return registration;
+        }
+        lifecycle.addObserver(new LifecycleEventObserver() {
+            @Override
+            public void onStateChanged(LifecycleOwner source, Lifecycle.Event event) {
+                if (event == Lifecycle.Event.ON_DESTROY) {
+                    source.getLifecycle().removeObserver(this);
+                    registration.remove();
+                }
+            }
+        });
+        return registration;
     }
 
     public interface DatabaseCallback<T> {
         void onSuccess(T result);
         void onFailure(Exception e);
     }
-}
\ No newline at end of file
+
+    // onCached gets the last network answer from disk, if there is one younger than a day.
+    public interface CachedCallback<T> extends DatabaseCallback<T> {
+        void onCached(T result);
+    }
+
+    public interface SyncCallback<T> {
+        void onChanged(ChangeSet<T> changes);
+        void onFailure(Exception e);
+    }
+
+    public static class InsufficientBalanceException extends Exception {
+        public InsufficientBalanceException() {
+            super("Insufficient balance");
+        }
+    }
+
+    // bookTickets found the show cancelled, or gone.
+    public static class ShowUnavailableException extends Exception {
+        public ShowUnavailableException() {
+            super("Show is no longer available");
+        }
+    }
+
+    // addMovie found the title already claimed in /movieTitleIndex.
+    public static class DuplicateMovieException extends Exception {
+        public DuplicateMovieException(String title) {
+            super("Movie already exists: " + title);
+        }
+    }
+
+    private interface Fetch<T> {
+        void run(DatabaseCallback<T> callback);
+    }
+
+    private interface ListEdit<T> {
+        void apply(List<T> items);
+    }
+
+    // Hands the cached list to the screen unless the live query has already answered.
+    private static class CacheFirstCallback<T> implements SyncCallback<T> {
+        private final SyncCallback<T> target;
+        private boolean live;
+
+        CacheFirstCallback(SyncCallback<T> target) {
+            this.target = target;
+        }
+
+        synchronized void deliverCached(List<T> items) {
+            if (!live) target.onChanged(ChangeSet.cachedReset(items));
+        }
+
+        @Override
+        public synchronized void onChanged(ChangeSet<T> changes) {
+            live = true;
+            target.onChanged(changes);
+        }
+
+        @Override
+        public void onFailure(Exception e) {
+            target.onFailure(e);
+        }
+    }
+
+    // Mirrors a live query into the local store, batching bursts of child events into one write.
+    private class PersistingCallback<T> implements ChildEventCallback<T> {
+        private final String key;
+        private final ChildEventCallback<T> target;
+        private final SyncedList<T> mirror = new SyncedList<>();
+        private boolean synced;
+        private boolean flushPending;
+
+        PersistingCallback(String key, ChildEventCallback<T> target) {
+            this.key = key;
+            this.target = target;
+        }
+
+        @Override
+        public void onChildAdded(String childKey, T item, String previousKey) {
+            synchronized (this) {
+                mirror.add(childKey, item, previousKey);
+                scheduleFlush();
+            }
+            target.onChildAdded(childKey, item, previousKey);
+        }
+
+        @Override
+        public void onChildChanged(String childKey, T item, String previousKey) {
+            synchronized (this) {
+                mirror.change(childKey, item, previousKey);
+                scheduleFlush();
+            }
+            target.onChildChanged(childKey, item, previousKey);
+        }
+
+        @Override
+        public void onChildRemoved(String childKey) {
+            synchronized (this) {
+                mirror.remove(childKey);
+                scheduleFlush();
+            }
+            target.onChildRemoved(childKey);
+        }
+
+        @Override
+        public void onChildMoved(String childKey, T item, String previousKey) {
+            synchronized (this) {
+                mirror.move(childKey, item, previousKey);
+                scheduleFlush();
+            }
+            target.onChildMoved(childKey, item, previousKey);
+        }
+
+        @Override
+        public void onSynced() {
+            synchronized (this) {
+                synced = true;
+                scheduleFlush();
+            }
+            target.onSynced();
+        }
+
+        @Override
+        public void onFailure(Exception e) {
+            target.onFailure(e);
+        }
+
+        private void scheduleFlush() {
+            // Nothing is written until the initial load is complete, so a partial list never replaces a full one.
+            if (!synced || flushPending) return;
+            flushPending = true;
+            diskExecutor.schedule(this::flush, PERSIST_DELAY_MS, TimeUnit.MILLISECONDS);
+        }
+
+        private void flush() {
+            List<T> items;
+            synchronized (this) {
+                flushPending = false;
+                items = mirror.snapshot();
+            }
+            localStore.writeList(key, items);
+        }
+    }
+}
@@ -0,0 +1,83 @@
+package com.example.moviebuzz;
+
+import com.fasterxml.jackson.databind.ObjectMapper;
+import com.fasterxml.jackson.databind.ObjectWriter;
+import com.fasterxml.jackson.databind.SerializationFeature;
+
+import java.util.ArrayList;
+import java.util.Collections;
+import java.util.LinkedHashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.concurrent.ConcurrentHashMap;
+
+// Process-wide registry of per-operation latency histograms. DatabaseHelper records every call
+// under its method name, plus "<name>.bind" for the time the UI callback itself takes; the
+// Firebase backend records snapshot decoding under "decode", and OmdbClient its lookups under
+// "omdb" and "omdb.search", with disk cache hits under "<name>.cached". The customer grid
+// records poster loads under "poster.*" and index searches under "search".
+public final class Diagnostics {
+    private static final ObjectWriter JSON = new ObjectMapper().writer().with(SerializationFeature.INDENT_OUTPUT);
+    private static final ConcurrentHashMap<String, LatencyHistogram> histograms = new ConcurrentHashMap<>();
+    // Kept apart, keyed by the bare operation name, so the hot path never builds a "<name>.bind" string.
+    private static final ConcurrentHashMap<String, LatencyHistogram> bindHistograms = new ConcurrentHashMap<>();
+
+    private Diagnostics() {}
+
+    public static LatencyHistogram histogram(String name) {
+        return lookup(histograms, name);
+    }
+
+    public static void record(String name, long startNanos, int itemCount, long payloadBytes, boolean failed) {
+        histogram(name).record(System.nanoTime() - startNanos, itemCount, payloadBytes, failed);
+    }
+
+    public static void recordBind(String name, long startNanos) {
+        lookup(bindHistograms, name).record(System.nanoTime() - startNanos, -1, -1, false);
+    }
+
+    private static LatencyHistogram lookup(ConcurrentHashMap<String, LatencyHistogram> map, String name) {
+        LatencyHistogram h = map.get(name);
+        if (h != null) return h;
+        LatencyHistogram created = new LatencyHistogram();
+        LatencyHistogram raced = map.putIfAbsent(name, created);
+        return raced != null ? raced : created;
+    }
+
+    // Item count to record for a result: list and page sizes, 1 for anything else, -1 for nothing.
+    static int itemCount(Object result) {
+        if (result instanceof List) return ((List<?>) result).size();
+        if (result instanceof Page) return ((Page<?>) result).getItems().size();
+        return result != null ? 1 : -1;
+    }
+
+    public static Map<String, Map<String, Object>> snapshot() {
+        List<String> names = new ArrayList<>(histograms.keySet());
+        for (String name : bindHistograms.keySet()) {
+            if (!histograms.containsKey(name)) names.add(name);
+        }
+        Collections.sort(names);
+        Map<String, Map<String, Object>> out = new LinkedHashMap<>();
+        for (String name : names) {
+            put(out, name, histograms.get(name));
+            put(out, name + ".bind", bindHistograms.get(name));
+        }
+        return out;
+    }
+
+    private static void put(Map<String, Map<String, Object>> out, String name, LatencyHistogram h) {
+        if (h != null && h.getCount() > 0) out.put(name, h.toMap());
+    }
+
+    public static void reset() {
+        for (LatencyHistogram h : histograms.values()) h.reset();
+        for (LatencyHistogram h : bindHistograms.values()) h.reset();
+    }
+
+    // extra holds report-level fields (build, device, cache stats) written before the operations.
+    public static String toJson(Map<String, Object> extra) throws Exception {
+        Map<String, Object> report = new LinkedHashMap<>(extra);
+        report.put("operations", snapshot());
+        return JSON.writeValueAsString(report);
+    }
+}
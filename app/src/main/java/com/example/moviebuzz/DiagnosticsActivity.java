@@ -0,0 +1,103 @@
+package com.example.moviebuzz;
+
+import android.content.Intent;
+import android.os.Build;
+import android.os.Bundle;
+import android.widget.Button;
+import android.widget.TextView;
+import android.widget.Toast;
+import androidx.appcompat.app.AppCompatActivity;
+
+import java.util.LinkedHashMap;
+import java.util.Locale;
+import java.util.Map;
+
+// Admin-only view of the latency histograms in Diagnostics, with a JSON export for comparing releases.
+public class DiagnosticsActivity extends AppCompatActivity {
+
+    private TextView diagnosticsText;
+    private DatabaseHelper databaseHelper;
+    private ImageConfig imageConfig;
+
+    @Override
+    protected void onCreate(Bundle savedInstanceState) {
+        super.onCreate(savedInstanceState);
+
+        UserSession userSession = UserSession.getInstance(this);
+        if (!userSession.isLoggedIn() || !userSession.isAdmin()) {
+            finish();
+            return;
+        }
+
+        setContentView(R.layout.activity_diagnostics);
+        databaseHelper = DatabaseHelper.getInstance(this);
+        imageConfig = ImageConfig.getInstance(this);
+        diagnosticsText = findViewById(R.id.diagnosticsText);
+
+        Button refreshButton = findViewById(R.id.refreshButton);
+        Button resetButton = findViewById(R.id.resetButton);
+        Button exportButton = findViewById(R.id.exportButton);
+        refreshButton.setOnClickListener(v -> render());
+        resetButton.setOnClickListener(v -> {
+            Diagnostics.reset();
+            render();
+        });
+        exportButton.setOnClickListener(v -> export());
+
+        render();
+    }
+
+    private void render() {
+        Map<String, Map<String, Object>> ops = Diagnostics.snapshot();
+        if (ops.isEmpty()) {
+            diagnosticsText.setText("No operations recorded yet.");
+            return;
+        }
+        StringBuilder sb = new StringBuilder();
+        sb.append(String.format(Locale.US, "%-28s %6s %5s %8s %8s %8s%n", "operation", "n", "err%", "p50ms", "p95ms", "p99ms"));
+        for (Map.Entry<String, Map<String, Object>> e : ops.entrySet()) {
+            Map<String, Object> h = e.getValue();
+            sb.append(String.format(Locale.US, "%-28s %6d %5.1f %8.1f %8.1f %8.1f%n", e.getKey(),
+                    (Long) h.get("count"), (Double) h.get("errorRate") * 100,
+                    (Double) h.get("p50Ms"), (Double) h.get("p95Ms"), (Double) h.get("p99Ms")));
+            long items = (Long) h.get("items");
+            long bytes = (Long) h.get("bytes");
+            if (items > 0 || bytes > 0) {
+                sb.append(String.format(Locale.US, "%-28s items=%d bytes=%d%n", "", items, bytes));
+            }
+        }
+        sb.append("\nListeners: ").append(databaseHelper.getListenerCounts());
+        sb.append("\nUser cache: ").append(databaseHelper.getUserCacheStats());
+        sb.append("\nPosters (").append(imageConfig.getMode()).append("):");
+        for (Map.Entry<String, Map<String, Long>> e : imageConfig.getStats().entrySet()) {
+            long loads = e.getValue().get("loads");
+            sb.append(String.format(Locale.US, "%n  %-10s loads=%d hitRate=%.0f%% downloaded=%dKB", e.getKey(), loads,
+                    loads == 0 ? 0.0 : e.getValue().get("cacheHits") * 100.0 / loads,
+                    e.getValue().get("bytesDownloaded") / 1024));
+        }
+        diagnosticsText.setText(sb.toString());
+    }
+
+    private void export() {
+        Map<String, Object> extra = new LinkedHashMap<>();
+        extra.put("versionName", BuildConfig.VERSION_NAME);
+        extra.put("versionCode", BuildConfig.VERSION_CODE);
+        extra.put("buildType", BuildConfig.BUILD_TYPE);
+        extra.put("device", Build.MANUFACTURER + " " + Build.MODEL);
+        extra.put("sdkInt", Build.VERSION.SDK_INT);
+        extra.put("capturedAt", System.currentTimeMillis());
+        extra.put("listeners", databaseHelper.getListenerCounts());
+        extra.put("userCache", databaseHelper.getUserCacheStats());
+        extra.put("imageMode", imageConfig.getMode().name());
+        extra.put("images", imageConfig.getStats());
+        try {
+            Intent send = new Intent(Intent.ACTION_SEND);
+            send.setType("application/json");
+            send.putExtra(Intent.EXTRA_SUBJECT, "MovieBuzz diagnostics " + BuildConfig.VERSION_NAME);
+            send.putExtra(Intent.EXTRA_TEXT, Diagnostics.toJson(extra));
+            startActivity(Intent.createChooser(send, "Export diagnostics"));
+        } catch (Exception e) {
+            Toast.makeText(this, "Export failed", Toast.LENGTH_SHORT).show();
+        }
+    }
+}
@@ -0,0 +1,103 @@
+package com.example.moviebuzz;
+
+import androidx.recyclerview.widget.DiffUtil;
+import androidx.recyclerview.widget.ListUpdateCallback;
+import java.util.ArrayList;
+import java.util.Collections;
+import java.util.Comparator;
+import java.util.List;
+import java.util.concurrent.Executor;
+
+// Sits between a live query and one screen, on a serial background executor, and keeps a mirror
+// of what the screen's list holds. Resets are diffed against the mirror here, so the screen only
+// dispatches the result. With an order, every change is re-sorted here as well and handed on as
+// a diffed reset in that order instead of the query's.
+class DiffingSyncCallback<T> implements DatabaseHelper.SyncCallback<T> {
+    private static final ListUpdateCallback IGNORE = new ListUpdateCallback() {
+        @Override public void onInserted(int position, int count) {}
+        @Override public void onRemoved(int position, int count) {}
+        @Override public void onMoved(int fromPosition, int toPosition) {}
+        @Override public void onChanged(int position, int count, Object payload) {}
+    };
+
+    private final ChangeSet.KeyOf<T> keyOf;
+    private final Comparator<T> order;
+    private final Executor worker;
+    private final DatabaseHelper.SyncCallback<T> target;
+    // What the screen's list holds, and with an order, the query's order it was sorted from.
+    private List<T> shown = new ArrayList<>();
+    private final List<T> queryOrder = new ArrayList<>();
+
+    DiffingSyncCallback(ChangeSet.KeyOf<T> keyOf, Comparator<T> order, Executor worker, DatabaseHelper.SyncCallback<T> target) {
+        this.keyOf = keyOf;
+        this.order = order;
+        this.worker = worker;
+        this.target = target;
+    }
+
+    @Override
+    public void onChanged(ChangeSet<T> changes) {
+        worker.execute(() -> {
+            if (order == null && !changes.isReset()) {
+                changes.applyTo(shown, IGNORE);
+                target.onChanged(changes);
+                return;
+            }
+            List<T> next;
+            if (order == null) {
+                next = new ArrayList<>(changes.getResetItems());
+            } else {
+                if (changes.isReset()) {
+                    queryOrder.clear();
+                    queryOrder.addAll(changes.getResetItems());
+                } else {
+                    changes.applyTo(queryOrder, IGNORE);
+                }
+                next = new ArrayList<>(queryOrder);
+                // Stable, so items the order ties keep the query's order.
+                Collections.sort(next, order);
+            }
+            DiffUtil.DiffResult diff = DiffUtil.calculateDiff(new ResetDiff<>(shown, next, keyOf));
+            shown = next;
+            target.onChanged(ChangeSet.diffedReset(next, diff, changes.isFromCache()));
+        });
+    }
+
+    @Override
+    public void onFailure(Exception e) {
+        worker.execute(() -> target.onFailure(e));
+    }
+
+    private static class ResetDiff<T> extends DiffUtil.Callback {
+        private final List<T> oldItems;
+        private final List<T> newItems;
+        private final ChangeSet.KeyOf<T> keyOf;
+
+        ResetDiff(List<T> oldItems, List<T> newItems, ChangeSet.KeyOf<T> keyOf) {
+            this.oldItems = oldItems;
+            this.newItems = newItems;
+            this.keyOf = keyOf;
+        }
+
+        @Override
+        public int getOldListSize() {
+            return oldItems.size();
+        }
+
+        @Override
+        public int getNewListSize() {
+            return newItems.size();
+        }
+
+        @Override
+        public boolean areItemsTheSame(int oldPosition, int newPosition) {
+            String key = keyOf.keyOf(oldItems.get(oldPosition));
+            return key != null && key.equals(keyOf.keyOf(newItems.get(newPosition)));
+        }
+
+        @Override
+        public boolean areContentsTheSame(int oldPosition, int newPosition) {
+            return oldItems.get(oldPosition).equals(newItems.get(newPosition));
+        }
+    }
+}
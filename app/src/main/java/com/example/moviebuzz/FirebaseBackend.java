@@ -0,0 +1,812 @@
+package com.example.moviebuzz;
+
+import com.google.firebase.database.*;
+import java.util.ArrayList;
+import java.util.Collections;
+import java.util.HashMap;
+import java.util.HashSet;
+import java.util.List;
+import java.util.Map;
+import java.util.Set;
+import java.util.concurrent.Executor;
+import java.util.concurrent.atomic.AtomicBoolean;
+import java.util.concurrent.atomic.AtomicInteger;
+
+// The SDK calls listeners on the main thread; every snapshot is handed to a background executor
+// before it is decoded, so callbacks from this class run off the main thread.
+public class FirebaseBackend implements DatabaseBackend {
+    private final DatabaseReference databaseRef;
+    private final Executor decodeExecutor;
+    // Set once /migrations/showStatusKeys is seen, after which every show is found by movieTitle_status.
+    private volatile boolean showStatusKeysBackfilled;
+
+    public FirebaseBackend() {
+        this(AppExecutors.background());
+    }
+
+    public FirebaseBackend(Executor decodeExecutor) {
+        databaseRef = FirebaseDatabase.getInstance().getReference();
+        this.decodeExecutor = decodeExecutor;
+    }
+
+    @Override
+    public void getUser(String username, DatabaseHelper.DatabaseCallback<User> callback) {
+        readOnce(databaseRef.child("users").child(username), snapshot -> read(snapshot, User.class), callback);
+    }
+
+    @Override
+    public void addUser(User user, DatabaseHelper.DatabaseCallback<Void> callback) {
+        databaseRef.child("users").child(user.getUsername()).setValue(write(user))
+                .addOnSuccessListener(aVoid -> callback.onSuccess(null))
+                .addOnFailureListener(callback::onFailure);
+    }
+
+    @Override
+    public void updateUserBalance(String username, double newBalance, DatabaseHelper.DatabaseCallback<Void> callback) {
+        databaseRef.child("users").child(username).child("balance").setValue(newBalance)
+                .addOnSuccessListener(aVoid -> callback.onSuccess(null))
+                .addOnFailureListener(callback::onFailure);
+    }
+
+    @Override
+    public void creditBalance(String username, double amount, DatabaseHelper.DatabaseCallback<Void> callback) {
+        Map<String, Object> updates = new HashMap<>();
+        updates.put("users/" + username + "/balance", ServerValue.increment(amount));
+        databaseRef.updateChildren(updates, (error, ref) -> {
+            if (error == null) callback.onSuccess(null);
+            else callback.onFailure(error.toException());
+        });
+    }
+
+    @Override
+    public ListenerRegistration observeBalance(String username, ValueObserver<Double> observer) {
+        DatabaseReference ref = databaseRef.child("users").child(username).child("balance");
+        Executor events = AppExecutors.newSerialExecutor();
+        ValueEventListener listener = ref.addValueEventListener(new ValueEventListener() {
+            @Override
+            public void onDataChange(DataSnapshot snapshot) {
+                events.execute(() -> observer.onValue(snapshot.getValue(Double.class)));
+            }
+            @Override
+            public void onCancelled(DatabaseError error) { observer.onFailure(error.toException()); }
+        });
+        return () -> ref.removeEventListener(listener);
+    }
+
+    @Override
+    public void addMovie(Movie movie, DatabaseHelper.DatabaseCallback<String> callback) {
+        String movieId = databaseRef.child("movies").push().getKey();
+        if (movieId == null) {
+            callback.onFailure(new DatabaseException("Could not allocate movie id"));
+            return;
+        }
+        movie.setId(movieId);
+
+        // The index entry and the movie go in one multi-path write. The validation rule on
+        // /movieTitleIndex (database.rules.json) rejects overwriting a claimed key, which fails the
+        // whole update, so two admins importing the same title can't both succeed.
+        Map<String, Object> updates = new HashMap<>();
+        String titleKey = Movie.titleKey(movie.getTitle());
+        if (titleKey != null) updates.put("movieTitleIndex/" + titleKey, movieId);
+        updates.put("movies/" + movieId, write(movie));
+        databaseRef.updateChildren(updates, (error, ref) -> {
+            if (error == null) {
+                callback.onSuccess(movieId);
+            } else if (error.getCode() == DatabaseError.PERMISSION_DENIED) {
+                callback.onFailure(new DatabaseHelper.DuplicateMovieException(movie.getTitle()));
+            } else {
+                callback.onFailure(error.toException());
+            }
+        });
+    }
+
+    @Override
+    public void addMovies(List<Movie> movies, DatabaseHelper.DatabaseCallback<List<String>> callback) {
+        addUnclaimed(movies, true, callback);
+    }
+
+    // Reads which of the movies' index keys are already claimed and writes the rest in one update.
+    // The rules still reject the update if a key was claimed in between; that race gets one more
+    // check, and a denial the index doesn't explain is reported as is.
+    private void addUnclaimed(List<Movie> movies, boolean retryOnRace, DatabaseHelper.DatabaseCallback<List<String>> callback) {
+        claimedTitleKeys(movies, new DatabaseHelper.DatabaseCallback<Set<String>>() {
+            @Override
+            public void onSuccess(Set<String> claimed) {
+                Map<String, Object> updates = new HashMap<>();
+                List<String> ids = new ArrayList<>();
+                for (Movie movie : movies) {
+                    String titleKey = Movie.titleKey(movie.getTitle());
+                    String indexPath = "movieTitleIndex/" + titleKey;
+                    // A key claimed earlier in the list would be written twice, so only the first claim stands.
+                    if (titleKey != null && (claimed.contains(titleKey) || updates.containsKey(indexPath))) {
+                        ids.add(null);
+                        continue;
+                    }
+                    String movieId = databaseRef.child("movies").push().getKey();
+                    if (movieId == null) {
+                        callback.onFailure(new DatabaseException("Could not allocate movie id"));
+                        return;
+                    }
+                    movie.setId(movieId);
+                    if (titleKey != null) updates.put(indexPath, movieId);
+                    updates.put("movies/" + movieId, write(movie));
+                    ids.add(movieId);
+                }
+                if (updates.isEmpty()) {
+                    callback.onSuccess(ids);
+                    return;
+                }
+                databaseRef.updateChildren(updates, (error, ref) -> {
+                    if (error == null) {
+                        callback.onSuccess(ids);
+                    } else if (error.getCode() == DatabaseError.PERMISSION_DENIED && retryOnRace) {
+                        addUnclaimed(movies, false, callback);
+                    } else {
+                        callback.onFailure(error.toException());
+                    }
+                });
+            }
+
+            @Override
+            public void onFailure(Exception e) { callback.onFailure(e); }
+        });
+    }
+
+    // The movies' /movieTitleIndex keys that some movie already holds, read in parallel.
+    private void claimedTitleKeys(List<Movie> movies, DatabaseHelper.DatabaseCallback<Set<String>> callback) {
+        Set<String> keys = new HashSet<>();
+        for (Movie movie : movies) {
+            String titleKey = Movie.titleKey(movie.getTitle());
+            if (titleKey != null) keys.add(titleKey);
+        }
+        Set<String> claimed = Collections.synchronizedSet(new HashSet<String>());
+        if (keys.isEmpty()) {
+            callback.onSuccess(claimed);
+            return;
+        }
+        AtomicInteger pending = new AtomicInteger(keys.size());
+        AtomicBoolean failed = new AtomicBoolean();
+        for (String titleKey : keys) {
+            readOnce(databaseRef.child("movieTitleIndex").child(titleKey), DataSnapshot::exists,
+                    new DatabaseHelper.DatabaseCallback<Boolean>() {
+                        @Override
+                        public void onSuccess(Boolean exists) {
+                            if (exists) claimed.add(titleKey);
+                            if (pending.decrementAndGet() == 0 && !failed.get()) callback.onSuccess(claimed);
+                        }
+
+                        @Override
+                        public void onFailure(Exception e) {
+                            if (failed.compareAndSet(false, true)) callback.onFailure(e);
+                        }
+                    });
+        }
+    }
+
+    @Override
+    public void getMovieIdByTitle(String title, DatabaseHelper.DatabaseCallback<String> callback) {
+        String titleKey = Movie.titleKey(title);
+        if (titleKey == null) {
+            callback.onSuccess(null);
+            return;
+        }
+        readOnce(databaseRef.child("movieTitleIndex").child(titleKey),
+                snapshot -> snapshot.getValue(String.class), callback);
+    }
+
+    @Override
+    public void getAllMovies(DatabaseHelper.DatabaseCallback<List<Movie>> callback) {
+        readOnce(databaseRef.child("movies"), FirebaseBackend::toMovies, callback);
+    }
+
+    @Override
+    public ListenerRegistration observeMovieChanges(ChildEventCallback<Movie> callback) {
+        return observeChildren(databaseRef.child("movies"), FirebaseBackend::toMovie, callback);
+    }
+
+    @Override
+    public void deleteMovie(String movieId, DatabaseHelper.DatabaseCallback<Void> callback) {
+        readOnce(databaseRef.child("movies").child(movieId).child("title"), snapshot -> snapshot.getValue(String.class),
+                new DatabaseHelper.DatabaseCallback<String>() {
+                    @Override
+                    public void onSuccess(String title) {
+                        Map<String, Object> updates = new HashMap<>();
+                        updates.put("movies/" + movieId, null);
+                        String titleKey = Movie.titleKey(title);
+                        if (titleKey != null) updates.put("movieTitleIndex/" + titleKey, null);
+                        databaseRef.updateChildren(updates, (error, ref) -> {
+                            if (error == null) callback.onSuccess(null);
+                            else callback.onFailure(error.toException());
+                        });
+                    }
+
+                    @Override
+                    public void onFailure(Exception e) { callback.onFailure(e); }
+                });
+    }
+
+    @Override
+    public void addShow(Show show, DatabaseHelper.DatabaseCallback<String> callback) {
+        String showId = databaseRef.child("shows").push().getKey();
+        if (showId != null) {
+            show.setShowId(showId);
+            databaseRef.child("shows").child(showId).setValue(write(show))
+                    .addOnSuccessListener(aVoid -> callback.onSuccess(showId))
+                    .addOnFailureListener(callback::onFailure);
+        }
+    }
+
+    @Override
+    public void getAllShows(DatabaseHelper.DatabaseCallback<List<Show>> callback) {
+        readOnce(databaseRef.child("shows"), FirebaseBackend::toShows, callback);
+    }
+
+    @Override
+    public void getShow(String showId, DatabaseHelper.DatabaseCallback<Show> callback) {
+        readOnce(databaseRef.child("shows").child(showId), FirebaseBackend::toShow, callback);
+    }
+
+    @Override
+    public ListenerRegistration observeShowChanges(ChildEventCallback<Show> callback) {
+        return observeChildren(databaseRef.child("shows").orderByChild("movieTitle"), FirebaseBackend::toShow, callback);
+    }
+
+    @Override
+    public void getShowsByMovie(String movieTitle, DatabaseHelper.DatabaseCallback<List<Show>> callback) {
+        readOnce(databaseRef.child("shows").orderByChild("movieTitle_status").equalTo(Show.titleStatusKey(movieTitle, "Active")),
+                FirebaseBackend::toShows, new DatabaseHelper.DatabaseCallback<List<Show>>() {
+                    @Override
+                    public void onSuccess(List<Show> shows) {
+                        if (!shows.isEmpty() || showStatusKeysBackfilled) callback.onSuccess(shows);
+                        else getActiveShowsUnlessBackfilled(movieTitle, shows, callback);
+                    }
+                    @Override
+                    public void onFailure(Exception e) { callback.onFailure(e); }
+                });
+    }
+
+    // An empty answer is usually a movie with no bookable shows left, but before
+    // backfillShowStatusKeys has run it may also be shows stored without movieTitle_status. The
+    // small marker read settles which, so the title query only runs against an old database.
+    private void getActiveShowsUnlessBackfilled(String movieTitle, List<Show> none, DatabaseHelper.DatabaseCallback<List<Show>> callback) {
+        readOnce(databaseRef.child("migrations").child("showStatusKeys"), DataSnapshot::exists,
+                new DatabaseHelper.DatabaseCallback<Boolean>() {
+                    @Override
+                    public void onSuccess(Boolean backfilled) {
+                        if (backfilled) {
+                            showStatusKeysBackfilled = true;
+                            callback.onSuccess(none);
+                        } else {
+                            getActiveShowsByTitle(movieTitle, callback);
+                        }
+                    }
+                    @Override
+                    public void onFailure(Exception e) { callback.onFailure(e); }
+                });
+    }
+
+    // Shows stored before movieTitle_status existed are only found by title.
+    private void getActiveShowsByTitle(String movieTitle, DatabaseHelper.DatabaseCallback<List<Show>> callback) {
+        readOnce(databaseRef.child("shows").orderByChild("movieTitle").equalTo(movieTitle), snapshot -> {
+            List<Show> active = new ArrayList<>();
+            for (Show show : toShows(snapshot)) {
+                if ("Active".equals(show.getStatus())) active.add(show);
+            }
+            return active;
+        }, callback);
+    }
+
+    @Override
+    public void updateShowStatus(String showId, String status, DatabaseHelper.DatabaseCallback<Void> callback) {
+        readMovieTitle(showId, new DatabaseHelper.DatabaseCallback<String>() {
+            @Override
+            public void onSuccess(String movieTitle) {
+                Map<String, Object> updates = new HashMap<>();
+                putShowStatus(updates, showId, movieTitle, status);
+                databaseRef.updateChildren(updates, (error, ref) -> {
+                    if (error == null) callback.onSuccess(null);
+                    else callback.onFailure(error.toException());
+                });
+            }
+            @Override
+            public void onFailure(Exception e) { callback.onFailure(e); }
+        });
+    }
+
+    private void readMovieTitle(String showId, DatabaseHelper.DatabaseCallback<String> callback) {
+        readOnce(databaseRef.child("shows").child(showId).child("movieTitle"),
+                snapshot -> snapshot.getValue(String.class), callback);
+    }
+
+    // status and its composite index field must always change together.
+    private static void putShowStatus(Map<String, Object> updates, String showId, String movieTitle, String status) {
+        updates.put("shows/" + showId + "/status", status);
+        updates.put("shows/" + showId + "/movieTitle_status", Show.titleStatusKey(movieTitle, status));
+    }
+
+
+    @Override
+    public void getBookingsByUser(String username, DatabaseHelper.DatabaseCallback<List<Booking>> callback) {
+        readOnce(databaseRef.child("bookings").orderByChild("username").equalTo(username),
+                FirebaseBackend::toBookings, callback);
+    }
+
+    @Override
+    public void getBookingSummaries(String username, String movieId, DatabaseHelper.DatabaseCallback<List<BookingSummary>> callback) {
+        readOnce(databaseRef.child("userBookings").child(username).child(movieId),
+                FirebaseBackend::toBookingSummaries, callback);
+    }
+
+    private static String summaryPath(String username, String movieId, String showId) {
+        return "userBookings/" + username + "/" + movieId + "/" + showId;
+    }
+
+    @Override
+    public void addBooking(Booking booking, DatabaseHelper.DatabaseCallback<String> callback) {
+        String bookingId = databaseRef.child("bookings").push().getKey();
+        if (bookingId != null) {
+            booking.setBookingId(bookingId);
+            databaseRef.child("bookings").child(bookingId).setValue(write(booking))
+                    .addOnSuccessListener(aVoid -> callback.onSuccess(bookingId))
+                    .addOnFailureListener(callback::onFailure);
+        }
+    }
+
+    @Override
+    public void bookTickets(Booking booking, DatabaseHelper.DatabaseCallback<String> callback) {
+        String bookingId = databaseRef.child("bookings").push().getKey();
+        if (bookingId == null) {
+            callback.onFailure(new DatabaseException("Could not allocate booking id"));
+            return;
+        }
+        booking.setBookingId(bookingId);
+
+        // One multi-path write: the server applies the debit as an atomic increment, and the
+        // balance validation rule (database.rules.json) rejects the whole update if it would
+        // take the balance below zero, so concurrent purchases can neither overdraw nor lose updates.
+        Map<String, Object> updates = new HashMap<>();
+        updates.put("users/" + booking.getUsername() + "/balance", ServerValue.increment(-booking.getAmountPaid()));
+        updates.put("bookings/" + bookingId, write(booking));
+        putConfirmedTickets(updates, booking, 1);
+        databaseRef.updateChildren(updates, (error, ref) -> {
+            if (error == null) {
+                callback.onSuccess(bookingId);
+            } else if (error.getCode() == DatabaseError.PERMISSION_DENIED) {
+                explainDenial(booking, error, callback);
+            } else {
+                callback.onFailure(error.toException());
+            }
+        });
+    }
+
+    // A denial doesn't say which rule failed, so look at the show and the balance before blaming either.
+    private void explainDenial(Booking booking, DatabaseError error, DatabaseHelper.DatabaseCallback<String> callback) {
+        readOnce(databaseRef.child("shows").child(booking.getShowId()).child("status"),
+                snapshot -> snapshot.getValue(String.class), new DatabaseHelper.DatabaseCallback<String>() {
+                    @Override
+                    public void onSuccess(String status) {
+                        if (!"Active".equals(status)) callback.onFailure(new DatabaseHelper.ShowUnavailableException());
+                        else explainBalanceDenial(booking, error, callback);
+                    }
+
+                    @Override
+                    public void onFailure(Exception e) { callback.onFailure(error.toException()); }
+                });
+    }
+
+    private void explainBalanceDenial(Booking booking, DatabaseError error, DatabaseHelper.DatabaseCallback<String> callback) {
+        readOnce(databaseRef.child("users").child(booking.getUsername()).child("balance"),
+                snapshot -> snapshot.getValue(Double.class), new DatabaseHelper.DatabaseCallback<Double>() {
+                    @Override
+                    public void onSuccess(Double balance) {
+                        if (balance == null || balance < booking.getAmountPaid()) {
+                            callback.onFailure(new DatabaseHelper.InsufficientBalanceException());
+                        } else {
+                            callback.onFailure(error.toException());
+                        }
+                    }
+
+                    @Override
+                    public void onFailure(Exception e) { callback.onFailure(error.toException()); }
+                });
+    }
+
+    @Override
+    public void getBookingsByShow(String showId, DatabaseHelper.DatabaseCallback<List<Booking>> callback) {
+        readOnce(databaseRef.child("bookings").orderByChild("showId").equalTo(showId),
+                FirebaseBackend::toBookings, callback);
+    }
+
+    // Pages through the show's bookings: the range [showId, showId] walked in key order, resuming
+    // after the cursor's key.
+    @Override
+    public void getBookingsByShowPage(String showId, PageCursor after, int limit,
+                                      DatabaseHelper.DatabaseCallback<Page<Booking>> callback) {
+        Query query = databaseRef.child("bookings").orderByChild("showId");
+        query = after == null ? query.startAt(showId) : query.startAfter(showId, after.getKey());
+        readOnce(query.endAt(showId).limitToFirst(limit + 1), snapshot -> Page.fromOverfetch(toBookings(snapshot), limit,
+                b -> new PageCursor(showId, b.getBookingId())), callback);
+    }
+
+    @Override
+    public void cancelShowWithRefunds(String showId, DatabaseHelper.DatabaseCallback<RefundResult> callback) {
+        readMovieTitle(showId, new DatabaseHelper.DatabaseCallback<String>() {
+            @Override
+            public void onSuccess(String movieTitle) {
+                // Cancel first: the bookings validation rule (database.rules.json) then rejects any
+                // new booking, so the bookings read below is final. A booking read before this write
+                // could miss one that lands in between and leave it Confirmed without a refund.
+                Map<String, Object> updates = new HashMap<>();
+                putShowStatus(updates, showId, movieTitle, "Cancelled");
+                databaseRef.updateChildren(updates, (error, ref) -> {
+                    if (error == null) refundBookings(showId, callback);
+                    else callback.onFailure(error.toException());
+                });
+            }
+            @Override
+            public void onFailure(Exception e) { callback.onFailure(e); }
+        });
+    }
+
+    // Only Confirmed bookings are refunded, so running this again after a failed refund is safe.
+    private void refundBookings(String showId, DatabaseHelper.DatabaseCallback<RefundResult> callback) {
+        getBookingsByShow(showId, new DatabaseHelper.DatabaseCallback<List<Booking>>() {
+            @Override
+            public void onSuccess(List<Booking> bookings) {
+                Map<String, Double> creditsByUser = new HashMap<>();
+                Map<String, Object> updates = new HashMap<>();
+                double total = 0;
+                int refunded = 0;
+                for (Booking b : bookings) {
+                    if (!"Confirmed".equalsIgnoreCase(b.getStatus())) continue;
+                    Double credit = creditsByUser.get(b.getUsername());
+                    creditsByUser.put(b.getUsername(), (credit != null ? credit : 0) + b.getAmountPaid());
+                    updates.put("bookings/" + b.getBookingId() + "/status", "Refunded");
+                    // Every ticket the user held for this show is refunded, so the summary goes too.
+                    if (b.getMovieId() != null) updates.put(summaryPath(b.getUsername(), b.getMovieId(), showId), null);
+                    total += b.getAmountPaid();
+                    refunded++;
+                }
+                for (Map.Entry<String, Double> e : creditsByUser.entrySet()) {
+                    updates.put("users/" + e.getKey() + "/balance", ServerValue.increment(e.getValue()));
+                }
+                updates.put("shows/" + showId + "/ticketsSold", 0);
+
+                RefundResult result = new RefundResult(refunded, creditsByUser.size(), total);
+                databaseRef.updateChildren(updates, (error, ref) -> {
+                    if (error == null) callback.onSuccess(result);
+                    else callback.onFailure(error.toException());
+                });
+            }
+            @Override
+            public void onFailure(Exception e) { callback.onFailure(e); }
+        });
+    }
+
+    @Override
+    public void updateBookingStatus(String bookingId, String status, DatabaseHelper.DatabaseCallback<Void> callback) {
+        readOnce(databaseRef.child("bookings").child(bookingId), snapshot -> read(snapshot, Booking.class),
+                new DatabaseHelper.DatabaseCallback<Booking>() {
+                    @Override
+                    public void onSuccess(Booking booking) {
+                        Map<String, Object> updates = new HashMap<>();
+                        updates.put("bookings/" + bookingId + "/status", status);
+                        if (booking != null) {
+                            int sign = confirmedDelta(booking.getStatus(), status);
+                            if (sign != 0) putConfirmedTickets(updates, booking, sign);
+                        }
+                        databaseRef.updateChildren(updates, (error, ref) -> {
+                            if (error == null) callback.onSuccess(null);
+                            else callback.onFailure(error.toException());
+                        });
+                    }
+                    @Override
+                    public void onFailure(Exception e) { callback.onFailure(e); }
+                });
+    }
+
+    // +1 when a booking becomes Confirmed, -1 when it stops being Confirmed, else 0.
+    private static int confirmedDelta(String from, String to) {
+        boolean was = "Confirmed".equalsIgnoreCase(from);
+        boolean is = "Confirmed".equalsIgnoreCase(to);
+        return was == is ? 0 : is ? 1 : -1;
+    }
+
+    // The show and summary counters a confirmed booking adds to, moved by sign times its tickets and amount.
+    private static void putConfirmedTickets(Map<String, Object> updates, Booking booking, int sign) {
+        updates.put("shows/" + booking.getShowId() + "/ticketsSold", ServerValue.increment(sign * booking.getTicketCount()));
+        if (booking.getMovieId() != null) {
+            String summary = summaryPath(booking.getUsername(), booking.getMovieId(), booking.getShowId());
+            updates.put(summary + "/tickets", ServerValue.increment(sign * booking.getTicketCount()));
+            updates.put(summary + "/spent", ServerValue.increment(sign * booking.getAmountPaid()));
+        }
+    }
+
+    @Override
+    public void backfillShowStatusKeys(DatabaseHelper.DatabaseCallback<Integer> callback) {
+        runOnce("showStatusKeys", done -> readOnce(databaseRef.child("shows"), snapshot -> {
+            Map<String, Object> updates = new HashMap<>();
+            for (DataSnapshot snap : snapshot.getChildren()) {
+                Show show = toShow(snap);
+                if (show == null || show.getMovieTitle() == null || show.getStatus() == null) continue;
+                String stored = snap.child("movieTitle_status").getValue(String.class);
+                if (!show.getMovieTitleStatus().equals(stored)) {
+                    putShowStatus(updates, snap.getKey(), show.getMovieTitle(), show.getStatus());
+                }
+            }
+            return updates;
+        }, writing(done)), new DatabaseHelper.DatabaseCallback<Integer>() {
+            @Override
+            public void onSuccess(Integer changed) {
+                showStatusKeysBackfilled = true;
+                callback.onSuccess(changed);
+            }
+            @Override
+            public void onFailure(Exception e) { callback.onFailure(e); }
+        });
+    }
+
+    @Override
+    public void backfillBookingSummaries(DatabaseHelper.DatabaseCallback<Integer> callback) {
+        runOnce("bookingSummaries", done -> readOnce(databaseRef.child("movieTitleIndex"), snapshot -> {
+            Map<String, String> movieIds = new HashMap<>();
+            for (DataSnapshot snap : snapshot.getChildren()) movieIds.put(snap.getKey(), snap.getValue(String.class));
+            return movieIds;
+        }, new DatabaseHelper.DatabaseCallback<Map<String, String>>() {
+            @Override
+            public void onSuccess(Map<String, String> movieIdsByTitleKey) {
+                readOnce(databaseRef.child("bookings"),
+                        snapshot -> summaryBackfill(toBookings(snapshot), movieIdsByTitleKey), writing(done));
+            }
+            @Override
+            public void onFailure(Exception e) { done.onFailure(e); }
+        }), callback);
+    }
+
+    // Bookings are read before shows and each show is moved by the difference with an increment, so
+    // a booking landing between the two reads is neither lost nor counted twice.
+    @Override
+    public void backfillTicketsSold(DatabaseHelper.DatabaseCallback<Integer> callback) {
+        runOnce("ticketsSold", done -> readOnce(databaseRef.child("bookings"), snapshot -> {
+            Map<String, Long> sold = new HashMap<>();
+            for (Booking b : toBookings(snapshot)) {
+                if (b.getShowId() == null || !"Confirmed".equalsIgnoreCase(b.getStatus())) continue;
+                Long total = sold.get(b.getShowId());
+                sold.put(b.getShowId(), (total == null ? 0 : total) + b.getTicketCount());
+            }
+            return sold;
+        }, new DatabaseHelper.DatabaseCallback<Map<String, Long>>() {
+            @Override
+            public void onSuccess(Map<String, Long> soldByShow) {
+                readOnce(databaseRef.child("shows"), snapshot -> {
+                    Map<String, Object> updates = new HashMap<>();
+                    for (DataSnapshot snap : snapshot.getChildren()) {
+                        Long stored = snap.child("ticketsSold").getValue(Long.class);
+                        Long sold = soldByShow.get(snap.getKey());
+                        long delta = (sold == null ? 0 : sold) - (stored == null ? 0 : stored);
+                        if (delta != 0 || stored == null) {
+                            updates.put("shows/" + snap.getKey() + "/ticketsSold", ServerValue.increment(delta));
+                        }
+                    }
+                    return updates;
+                }, writing(done));
+            }
+            @Override
+            public void onFailure(Exception e) { done.onFailure(e); }
+        }), callback);
+    }
+
+    // Summaries are added to with increments, so bookings made while this runs still count.
+    // Backfilled bookings get their movieId, which keeps a second run from counting them again.
+    private static Map<String, Object> summaryBackfill(List<Booking> bookings, Map<String, String> movieIdsByTitleKey) {
+        Map<String, Object> updates = new HashMap<>();
+        Map<String, BookingSummary> totals = new HashMap<>();
+        for (Booking b : bookings) {
+            if (b.getMovieId() != null || b.getMovieTitle() == null || b.getUsername() == null || b.getShowId() == null) continue;
+            String movieId = movieIdsByTitleKey.get(Movie.titleKey(b.getMovieTitle()));
+            if (movieId == null) continue;
+            updates.put("bookings/" + b.getBookingId() + "/movieId", movieId);
+            if (!"Confirmed".equalsIgnoreCase(b.getStatus())) continue;
+            String path = summaryPath(b.getUsername(), movieId, b.getShowId());
+            BookingSummary total = totals.get(path);
+            if (total == null) {
+                total = new BookingSummary(b.getShowId(), 0, 0);
+                totals.put(path, total);
+            }
+            total.setTickets(total.getTickets() + b.getTicketCount());
+            total.setSpent(total.getSpent() + b.getAmountPaid());
+        }
+        for (Map.Entry<String, BookingSummary> e : totals.entrySet()) {
+            updates.put(e.getKey() + "/tickets", ServerValue.increment(e.getValue().getTickets()));
+            updates.put(e.getKey() + "/spent", ServerValue.increment(e.getValue().getSpent()));
+        }
+        return updates;
+    }
+
+    private interface Backfill {
+        void run(DatabaseHelper.DatabaseCallback<Integer> done);
+    }
+
+    // Runs backfill unless /migrations/<name> records that it already ran against this database.
+    // Backfills only write values derivable from other data, so two admins racing through one is harmless.
+    private void runOnce(String name, Backfill backfill, DatabaseHelper.DatabaseCallback<Integer> callback) {
+        DatabaseReference marker = databaseRef.child("migrations").child(name);
+        readOnce(marker, DataSnapshot::exists, new DatabaseHelper.DatabaseCallback<Boolean>() {
+            @Override
+            public void onSuccess(Boolean ran) {
+                if (ran) {
+                    callback.onSuccess(0);
+                    return;
+                }
+                backfill.run(new DatabaseHelper.DatabaseCallback<Integer>() {
+                    @Override
+                    public void onSuccess(Integer changed) {
+                        marker.setValue(ServerValue.TIMESTAMP)
+                                .addOnSuccessListener(aVoid -> callback.onSuccess(changed))
+                                .addOnFailureListener(callback::onFailure);
+                    }
+                    @Override
+                    public void onFailure(Exception e) { callback.onFailure(e); }
+                });
+            }
+            @Override
+            public void onFailure(Exception e) { callback.onFailure(e); }
+        });
+    }
+
+    // Applies a backfill's updates as one multi-path write and reports how many values it set.
+    private DatabaseHelper.DatabaseCallback<Map<String, Object>> writing(DatabaseHelper.DatabaseCallback<Integer> done) {
+        return new DatabaseHelper.DatabaseCallback<Map<String, Object>>() {
+            @Override
+            public void onSuccess(Map<String, Object> updates) {
+                if (updates.isEmpty()) {
+                    done.onSuccess(0);
+                    return;
+                }
+                databaseRef.updateChildren(updates, (error, ref) -> {
+                    if (error == null) done.onSuccess(updates.size());
+                    else done.onFailure(error.toException());
+                });
+            }
+            @Override
+            public void onFailure(Exception e) { done.onFailure(e); }
+        };
+    }
+
+    private interface SnapshotDecoder<T> {
+        T decode(DataSnapshot snap);
+    }
+
+    private <T> void readOnce(Query query, SnapshotDecoder<T> decoder, DatabaseHelper.DatabaseCallback<T> callback) {
+        query.addListenerForSingleValueEvent(new ValueEventListener() {
+            @Override
+            public void onDataChange(DataSnapshot snapshot) {
+                decodeExecutor.execute(() -> {
+                    long start = System.nanoTime();
+                    T result = decoder.decode(snapshot);
+                    Diagnostics.record("decode", start, Diagnostics.itemCount(result), -1, false);
+                    callback.onSuccess(result);
+                });
+            }
+            @Override
+            public void onCancelled(DatabaseError error) { callback.onFailure(error.toException()); }
+        });
+    }
+
+    private static <T> ListenerRegistration observeChildren(Query query, SnapshotDecoder<T> decoder, ChildEventCallback<T> callback) {
+        // Decoded off the main thread, but strictly in the order the SDK delivered the events.
+        Executor events = AppExecutors.newSerialExecutor();
+        AtomicBoolean removed = new AtomicBoolean();
+        ChildEventListener listener = query.addChildEventListener(new ChildEventListener() {
+            @Override
+            public void onChildAdded(DataSnapshot snap, String previousChildName) {
+                events.execute(() -> {
+                    T item = decoder.decode(snap);
+                    if (item != null && !removed.get()) callback.onChildAdded(snap.getKey(), item, previousChildName);
+                });
+            }
+            @Override
+            public void onChildChanged(DataSnapshot snap, String previousChildName) {
+                events.execute(() -> {
+                    T item = decoder.decode(snap);
+                    if (item != null && !removed.get()) callback.onChildChanged(snap.getKey(), item, previousChildName);
+                });
+            }
+            @Override
+            public void onChildRemoved(DataSnapshot snap) {
+                events.execute(() -> {
+                    if (!removed.get()) callback.onChildRemoved(snap.getKey());
+                });
+            }
+            @Override
+            public void onChildMoved(DataSnapshot snap, String previousChildName) {
+                events.execute(() -> {
+                    T item = decoder.decode(snap);
+                    if (item != null && !removed.get()) callback.onChildMoved(snap.getKey(), item, previousChildName);
+                });
+            }
+            @Override
+            public void onCancelled(DatabaseError error) { callback.onFailure(error.toException()); }
+        });
+        // Value events fire after all child events for the same data, so this marks the end of the
+        // initial load. It is served from the data the child listener already synced.
+        ValueEventListener synced = new ValueEventListener() {
+            @Override
+            public void onDataChange(DataSnapshot snapshot) {
+                events.execute(() -> {
+                    if (!removed.get()) callback.onSynced();
+                });
+            }
+            @Override
+            public void onCancelled(DatabaseError error) { }
+        };
+        query.addListenerForSingleValueEvent(synced);
+        return () -> {
+            removed.set(true);
+            query.removeEventListener(listener);
+            query.removeEventListener(synced);
+        };
+    }
+
+    private static <T> T read(DataSnapshot snap, Class<T> type) {
+        return ModelCodec.isReflectionFallback() ? snap.getValue(type) : ModelCodec.decode(snap.getValue(), type);
+    }
+
+    private static Object write(Object model) {
+        return ModelCodec.isReflectionFallback() ? model : ModelCodec.encode(model);
+    }
+
+    private static Movie toMovie(DataSnapshot snap) {
+        Movie movie = read(snap, Movie.class);
+        if (movie != null) movie.setId(snap.getKey());
+        return movie;
+    }
+
+    private static Show toShow(DataSnapshot snap) {
+        Show show = read(snap, Show.class);
+        if (show != null) show.setShowId(snap.getKey());
+        return show;
+    }
+
+    private static List<Movie> toMovies(DataSnapshot snapshot) {
+        List<Movie> movies = new ArrayList<>();
+        for (DataSnapshot snap : snapshot.getChildren()) {
+            Movie movie = toMovie(snap);
+            if (movie != null) movies.add(movie);
+        }
+        return movies;
+    }
+
+    private static List<Booking> toBookings(DataSnapshot snapshot) {
+        List<Booking> bookings = new ArrayList<>();
+        for (DataSnapshot snap : snapshot.getChildren()) {
+            Booking b = read(snap, Booking.class);
+            if (b != null) {
+                b.setBookingId(snap.getKey());
+                bookings.add(b);
+            }
+        }
+        return bookings;
+    }
+
+    private static List<BookingSummary> toBookingSummaries(DataSnapshot snapshot) {
+        List<BookingSummary> summaries = new ArrayList<>();
+        for (DataSnapshot snap : snapshot.getChildren()) {
+            BookingSummary summary = read(snap, BookingSummary.class);
+            if (summary != null) {
+                summary.setShowId(snap.getKey());
+                summaries.add(summary);
+            }
+        }
+        return summaries;
+    }
+
+    private static List<Show> toShows(DataSnapshot snapshot) {
+        List<Show> shows = new ArrayList<>();
+        for (DataSnapshot snap : snapshot.getChildren()) {
+            Show show = toShow(snap);
+            if (show != null) shows.add(show);
+        }
+        return shows;
+    }
+}
@@ -0,0 +1,148 @@
+package com.example.moviebuzz;
+
+import android.app.ActivityManager;
+import android.content.Context;
+import android.net.ConnectivityManager;
+import android.net.Network;
+import android.net.NetworkCapabilities;
+import android.net.NetworkRequest;
+import android.os.Build;
+
+import java.util.LinkedHashMap;
+import java.util.Locale;
+import java.util.Map;
+import java.util.concurrent.atomic.AtomicLong;
+import java.util.regex.Matcher;
+import java.util.regex.Pattern;
+
+// How posters are loaded on this device and connection. Glide's memory budget is sized once, from
+// the app's memory class, when Glide starts. The poster variant follows the network: on metered or
+// slow connections screens ask OMDb's image host for narrower posters and skip the high-resolution
+// details poster. Downloads and cache hits are counted per mode for the diagnostics screen.
+public final class ImageConfig {
+    public enum Mode { FULL, DATA_SAVER }
+
+    // Share of the app's heap for decoded posters (memory cache plus bitmap pool), capped so
+    // large-heap tablets don't hold more than a few catalog screens.
+    private static final float HEAP_SHARE = 0.25f;
+    private static final float LOW_RAM_HEAP_SHARE = 0.15f;
+    private static final long MAX_BUDGET_BYTES = 64L * 1024 * 1024;
+    // Below this estimated downstream rate a connection counts as slow.
+    private static final int SLOW_KBPS = 1500;
+
+    // Poster widths in pixels requested from OMDb's image host.
+    static final int GRID_WIDTH = 300;
+    static final int GRID_WIDTH_DATA_SAVER = 150;
+    static final int DETAILS_WIDTH = 600;
+
+    // OMDb posters are Amazon image URLs ending in "._V1_SX300.jpg", where SX is the width.
+    private static final Pattern SIZED_POSTER = Pattern.compile("(\\._V1_)(?:S[XY]\\d+)?(\\.jpg)$");
+
+    private static ImageConfig instance;
+
+    private final ConnectivityManager connectivity;
+    private volatile Mode mode;
+    private final Map<Mode, Counters> counters = new LinkedHashMap<>();
+
+    private ImageConfig(Context context) {
+        connectivity = (ConnectivityManager) context.getSystemService(Context.CONNECTIVITY_SERVICE);
+        for (Mode m : Mode.values()) counters.put(m, new Counters());
+        mode = detectMode();
+        // Any change to any network may change which one is active, so just re-check.
+        connectivity.registerNetworkCallback(new NetworkRequest.Builder().build(), new ConnectivityManager.NetworkCallback() {
+            @Override
+            public void onCapabilitiesChanged(Network network, NetworkCapabilities capabilities) {
+                mode = detectMode();
+            }
+
+            @Override
+            public void onLost(Network network) {
+                mode = detectMode();
+            }
+        });
+    }
+
+    public static synchronized ImageConfig getInstance(Context context) {
+        if (instance == null) {
+            instance = new ImageConfig(context.getApplicationContext());
+        }
+        return instance;
+    }
+
+    public Mode getMode() {
+        return mode;
+    }
+
+    private Mode detectMode() {
+        if (connectivity.isActiveNetworkMetered()) return Mode.DATA_SAVER;
+        if (Build.VERSION.SDK_INT >= 24
+                && connectivity.getRestrictBackgroundStatus() == ConnectivityManager.RESTRICT_BACKGROUND_STATUS_ENABLED) {
+            return Mode.DATA_SAVER;
+        }
+        NetworkCapabilities caps = connectivity.getNetworkCapabilities(connectivity.getActiveNetwork());
+        if (caps != null && caps.getLinkDownstreamBandwidthKbps() > 0 && caps.getLinkDownstreamBandwidthKbps() < SLOW_KBPS) {
+            return Mode.DATA_SAVER;
+        }
+        return Mode.FULL;
+    }
+
+    public String gridPosterUrl(String url, Mode mode) {
+        return posterUrl(url, mode == Mode.DATA_SAVER ? GRID_WIDTH_DATA_SAVER : GRID_WIDTH);
+    }
+
+    // Null when high resolution is deferred: show the grid variant instead.
+    public String detailsPosterUrl(String url, Mode mode) {
+        return mode == Mode.DATA_SAVER ? null : posterUrl(url, DETAILS_WIDTH);
+    }
+
+    // url resized to widthPx if it's an OMDb image host URL; anything else is returned unchanged.
+    static String posterUrl(String url, int widthPx) {
+        if (url == null) return null;
+        Matcher m = SIZED_POSTER.matcher(url);
+        if (!m.find()) return url;
+        return url.substring(0, m.start()) + m.group(1) + "SX" + widthPx + m.group(2);
+    }
+
+    // Bytes for Glide's memory cache and bitmap pool, in that order: two thirds of the budget
+    // for decoded posters ready to draw, one third for bitmaps to decode into.
+    static long[] memoryBudget(int memoryClassMb, boolean lowRam) {
+        long heap = memoryClassMb * 1024L * 1024L;
+        long budget = Math.min(MAX_BUDGET_BYTES, (long) (heap * (lowRam ? LOW_RAM_HEAP_SHARE : HEAP_SHARE)));
+        long memoryCache = budget * 2 / 3;
+        return new long[]{memoryCache, budget - memoryCache};
+    }
+
+    static long[] memoryBudget(Context context) {
+        ActivityManager am = (ActivityManager) context.getSystemService(Context.ACTIVITY_SERVICE);
+        return memoryBudget(am.getMemoryClass(), am.isLowRamDevice());
+    }
+
+    // One poster shown; fromCache when it came from Glide's memory or disk cache.
+    public void recordLoad(Mode mode, boolean fromCache) {
+        Counters c = counters.get(mode);
+        c.loads.incrementAndGet();
+        if (fromCache) c.hits.incrementAndGet();
+    }
+
+    void recordDownload(Mode mode, long bytes) {
+        counters.get(mode).bytes.addAndGet(bytes);
+    }
+
+    public Map<String, Map<String, Long>> getStats() {
+        Map<String, Map<String, Long>> stats = new LinkedHashMap<>();
+        for (Map.Entry<Mode, Counters> e : counters.entrySet()) {
+            Map<String, Long> mode = new LinkedHashMap<>();
+            mode.put("loads", e.getValue().loads.get());
+            mode.put("cacheHits", e.getValue().hits.get());
+            mode.put("bytesDownloaded", e.getValue().bytes.get());
+            stats.put(e.getKey().name().toLowerCase(Locale.ROOT), mode);
+        }
+        return stats;
+    }
+
+    private static class Counters {
+        final AtomicLong loads = new AtomicLong();
+        final AtomicLong hits = new AtomicLong();
+        final AtomicLong bytes = new AtomicLong();
+    }
+}
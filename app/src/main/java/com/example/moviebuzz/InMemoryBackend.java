@@ -0,0 +1,690 @@
+package com.example.moviebuzz;
+
+import java.util.ArrayList;
+import java.util.Collections;
+import java.util.Comparator;
+import java.util.HashMap;
+import java.util.LinkedHashMap;
+import java.util.List;
+import java.util.Locale;
+import java.util.Map;
+import java.util.Random;
+import java.util.concurrent.Executors;
+import java.util.concurrent.ScheduledExecutorService;
+import java.util.concurrent.ThreadFactory;
+import java.util.concurrent.TimeUnit;
+
+// Thread-safe stand-in for Firebase. Every call completes asynchronously on a worker
+// thread after an optional injected delay, mirroring how the real backend behaves.
+public class InMemoryBackend implements DatabaseBackend {
+    private final Object lock = new Object();
+    private final Map<String, User> users = new LinkedHashMap<>();
+    private final Map<String, Movie> movies = new LinkedHashMap<>();
+    // Movie.titleKey(title) -> movieId, like /movieTitleIndex in Firebase.
+    private final Map<String, String> movieTitleIndex = new LinkedHashMap<>();
+    private final Map<String, Show> shows = new LinkedHashMap<>();
+    private final Map<String, Booking> bookings = new LinkedHashMap<>();
+    // "<username>/<movieId>" -> showId -> totals, like /userBookings in Firebase.
+    private final Map<String, Map<String, BookingSummary>> bookingSummaries = new LinkedHashMap<>();
+    private final List<ChildEventCallback<Movie>> movieListeners = new ArrayList<>();
+    private final List<ChildEventCallback<Show>> showListeners = new ArrayList<>();
+    private final Map<String, List<ValueObserver<Double>>> balanceListeners = new LinkedHashMap<>();
+
+    private final ScheduledExecutorService executor;
+    private final Random random = new Random();
+    private long nextKey;
+    private volatile long minLatencyMs;
+    private volatile long maxLatencyMs;
+
+    public InMemoryBackend() {
+        this(4);
+    }
+
+    public InMemoryBackend(int workerThreads) {
+        executor = Executors.newScheduledThreadPool(workerThreads, new ThreadFactory() {
+            private int count;
+
+            @Override
+            public synchronized Thread newThread(Runnable r) {
+                Thread t = new Thread(r, "in-memory-db-" + (count++));
+                t.setDaemon(true);
+                return t;
+            }
+        });
+    }
+
+    // Every operation waits a uniformly random time in [minMs, maxMs] before it runs.
+    public void setLatency(long minMs, long maxMs) {
+        if (minMs < 0 || maxMs < minMs) throw new IllegalArgumentException("Invalid latency range");
+        this.minLatencyMs = minMs;
+        this.maxLatencyMs = maxMs;
+    }
+
+    public void shutdown() {
+        executor.shutdownNow();
+    }
+
+    @Override
+    public void getUser(String username, DatabaseHelper.DatabaseCallback<User> callback) {
+        run(() -> {
+            User user;
+            synchronized (lock) {
+                user = copy(users.get(username));
+            }
+            callback.onSuccess(user);
+        });
+    }
+
+    @Override
+    public void addUser(User user, DatabaseHelper.DatabaseCallback<Void> callback) {
+        User stored = copy(user);
+        run(() -> {
+            synchronized (lock) {
+                users.put(stored.getUsername(), stored);
+                balanceChanged(stored.getUsername());
+            }
+            succeed(callback, null);
+        });
+    }
+
+    @Override
+    public void updateUserBalance(String username, double newBalance, DatabaseHelper.DatabaseCallback<Void> callback) {
+        run(() -> {
+            synchronized (lock) {
+                User user = users.get(username);
+                if (user == null) {
+                    user = new User();
+                    user.setUsername(username);
+                    users.put(username, user);
+                }
+                user.setBalance(newBalance);
+                balanceChanged(username);
+            }
+            succeed(callback, null);
+        });
+    }
+
+    @Override
+    public void creditBalance(String username, double amount, DatabaseHelper.DatabaseCallback<Void> callback) {
+        run(() -> {
+            synchronized (lock) {
+                User user = users.get(username);
+                if (user == null) {
+                    user = new User();
+                    user.setUsername(username);
+                    users.put(username, user);
+                }
+                user.setBalance(user.getBalance() + amount);
+                balanceChanged(username);
+            }
+            succeed(callback, null);
+        });
+    }
+
+    @Override
+    public ListenerRegistration observeBalance(String username, ValueObserver<Double> observer) {
+        boolean[] removed = new boolean[1];
+        run(() -> {
+            synchronized (lock) {
+                if (removed[0]) return;
+                User user = users.get(username);
+                observer.onValue(user != null ? user.getBalance() : null);
+                List<ValueObserver<Double>> observers = balanceListeners.get(username);
+                if (observers == null) {
+                    observers = new ArrayList<>();
+                    balanceListeners.put(username, observers);
+                }
+                observers.add(observer);
+            }
+        });
+        return () -> {
+            synchronized (lock) {
+                removed[0] = true;
+                List<ValueObserver<Double>> observers = balanceListeners.get(username);
+                if (observers != null) observers.remove(observer);
+            }
+        };
+    }
+
+    @Override
+    public void addMovie(Movie movie, DatabaseHelper.DatabaseCallback<String> callback) {
+        String movieId = newKey();
+        movie.setId(movieId);
+        Movie stored = copy(movie);
+        String titleKey = Movie.titleKey(movie.getTitle());
+        run(() -> {
+            synchronized (lock) {
+                if (titleKey != null && movieTitleIndex.containsKey(titleKey)) {
+                    callback.onFailure(new DatabaseHelper.DuplicateMovieException(movie.getTitle()));
+                    return;
+                }
+                if (titleKey != null) movieTitleIndex.put(titleKey, movieId);
+                movies.put(movieId, stored);
+                for (ChildEventCallback<Movie> l : movieListeners) {
+                    l.onChildAdded(movieId, copy(stored), previousKey(orderedMovieKeys(), movieId));
+                }
+            }
+            succeed(callback, movieId);
+        });
+    }
+
+    @Override
+    public void addMovies(List<Movie> batch, DatabaseHelper.DatabaseCallback<List<String>> callback) {
+        List<Movie> stored = new ArrayList<>();
+        for (Movie movie : batch) stored.add(copy(movie));
+        run(() -> {
+            List<String> ids = new ArrayList<>();
+            synchronized (lock) {
+                for (int i = 0; i < stored.size(); i++) {
+                    Movie movie = stored.get(i);
+                    String titleKey = Movie.titleKey(movie.getTitle());
+                    if (titleKey != null && movieTitleIndex.containsKey(titleKey)) {
+                        ids.add(null);
+                        continue;
+                    }
+                    String movieId = newKey();
+                    movie.setId(movieId);
+                    batch.get(i).setId(movieId);
+                    if (titleKey != null) movieTitleIndex.put(titleKey, movieId);
+                    movies.put(movieId, movie);
+                    ids.add(movieId);
+                    for (ChildEventCallback<Movie> l : movieListeners) {
+                        l.onChildAdded(movieId, copy(movie), previousKey(orderedMovieKeys(), movieId));
+                    }
+                }
+            }
+            succeed(callback, ids);
+        });
+    }
+
+    @Override
+    public void getMovieIdByTitle(String title, DatabaseHelper.DatabaseCallback<String> callback) {
+        String titleKey = Movie.titleKey(title);
+        run(() -> {
+            String movieId;
+            synchronized (lock) {
+                movieId = movieTitleIndex.get(titleKey);
+            }
+            callback.onSuccess(movieId);
+        });
+    }
+
+    @Override
+    public void getAllMovies(DatabaseHelper.DatabaseCallback<List<Movie>> callback) {
+        run(() -> callback.onSuccess(snapshotMovies()));
+    }
+
+    @Override
+    public ListenerRegistration observeMovieChanges(ChildEventCallback<Movie> callback) {
+        boolean[] removed = new boolean[1];
+        run(() -> {
+            synchronized (lock) {
+                if (removed[0]) return;
+                String previous = null;
+                for (String key : orderedMovieKeys()) {
+                    callback.onChildAdded(key, copy(movies.get(key)), previous);
+                    previous = key;
+                }
+                callback.onSynced();
+                movieListeners.add(callback);
+            }
+        });
+        return () -> {
+            synchronized (lock) {
+                removed[0] = true;
+                movieListeners.remove(callback);
+            }
+        };
+    }
+
+    @Override
+    public void deleteMovie(String movieId, DatabaseHelper.DatabaseCallback<Void> callback) {
+        run(() -> {
+            synchronized (lock) {
+                Movie removed = movies.remove(movieId);
+                if (removed != null) {
+                    String titleKey = Movie.titleKey(removed.getTitle());
+                    if (titleKey != null) movieTitleIndex.remove(titleKey);
+                    for (ChildEventCallback<Movie> l : movieListeners) l.onChildRemoved(movieId);
+                }
+            }
+            succeed(callback, null);
+        });
+    }
+
+    @Override
+    public void addShow(Show show, DatabaseHelper.DatabaseCallback<String> callback) {
+        String showId = newKey();
+        show.setShowId(showId);
+        Show stored = copy(show);
+        run(() -> {
+            synchronized (lock) {
+                shows.put(showId, stored);
+                for (ChildEventCallback<Show> l : showListeners) {
+                    l.onChildAdded(showId, copy(stored), previousKey(orderedShowKeys(), showId));
+                }
+            }
+            succeed(callback, showId);
+        });
+    }
+
+    @Override
+    public void getAllShows(DatabaseHelper.DatabaseCallback<List<Show>> callback) {
+        run(() -> callback.onSuccess(snapshotShows()));
+    }
+
+    @Override
+    public void getShow(String showId, DatabaseHelper.DatabaseCallback<Show> callback) {
+        run(() -> {
+            Show show;
+            synchronized (lock) {
+                Show stored = shows.get(showId);
+                show = stored != null ? copy(stored) : null;
+            }
+            callback.onSuccess(show);
+        });
+    }
+
+    @Override
+    public ListenerRegistration observeShowChanges(ChildEventCallback<Show> callback) {
+        boolean[] removed = new boolean[1];
+        run(() -> {
+            synchronized (lock) {
+                if (removed[0]) return;
+                String previous = null;
+                for (String key : orderedShowKeys()) {
+                    callback.onChildAdded(key, copy(shows.get(key)), previous);
+                    previous = key;
+                }
+                callback.onSynced();
+                showListeners.add(callback);
+            }
+        });
+        return () -> {
+            synchronized (lock) {
+                removed[0] = true;
+                showListeners.remove(callback);
+            }
+        };
+    }
+
+    @Override
+    public void getShowsByMovie(String movieTitle, DatabaseHelper.DatabaseCallback<List<Show>> callback) {
+        run(() -> {
+            // Same predicate as the indexed movieTitle_status query.
+            String key = Show.titleStatusKey(movieTitle, "Active");
+            List<Show> list = new ArrayList<>();
+            synchronized (lock) {
+                for (Show s : shows.values()) {
+                    if (key.equals(s.getMovieTitleStatus())) list.add(copy(s));
+                }
+            }
+            callback.onSuccess(list);
+        });
+    }
+
+    @Override
+    public void updateShowStatus(String showId, String status, DatabaseHelper.DatabaseCallback<Void> callback) {
+        run(() -> {
+            synchronized (lock) {
+                Show show = shows.get(showId);
+                if (show != null) {
+                    show.setStatus(status);
+                    showChanged(showId);
+                }
+            }
+            succeed(callback, null);
+        });
+    }
+
+    @Override
+    public void getBookingsByUser(String username, DatabaseHelper.DatabaseCallback<List<Booking>> callback) {
+        run(() -> {
+            List<Booking> list = new ArrayList<>();
+            synchronized (lock) {
+                for (Booking b : bookings.values()) {
+                    if (username != null && username.equals(b.getUsername())) list.add(copy(b));
+                }
+            }
+            callback.onSuccess(list);
+        });
+    }
+
+    @Override
+    public void getBookingSummaries(String username, String movieId, DatabaseHelper.DatabaseCallback<List<BookingSummary>> callback) {
+        run(() -> {
+            List<BookingSummary> list = new ArrayList<>();
+            synchronized (lock) {
+                Map<String, BookingSummary> byShow = bookingSummaries.get(username + "/" + movieId);
+                if (byShow != null) {
+                    for (BookingSummary summary : byShow.values()) list.add(copy(summary));
+                }
+            }
+            callback.onSuccess(list);
+        });
+    }
+
+    @Override
+    public void addBooking(Booking booking, DatabaseHelper.DatabaseCallback<String> callback) {
+        String bookingId = newKey();
+        booking.setBookingId(bookingId);
+        Booking stored = copy(booking);
+        run(() -> {
+            synchronized (lock) {
+                bookings.put(bookingId, stored);
+            }
+            succeed(callback, bookingId);
+        });
+    }
+
+    @Override
+    public void bookTickets(Booking booking, DatabaseHelper.DatabaseCallback<String> callback) {
+        String bookingId = newKey();
+        booking.setBookingId(bookingId);
+        Booking stored = copy(booking);
+        run(() -> {
+            synchronized (lock) {
+                Show show = shows.get(stored.getShowId());
+                if (show == null || !"Active".equals(show.getStatus())) {
+                    callback.onFailure(new DatabaseHelper.ShowUnavailableException());
+                    return;
+                }
+                User user = users.get(stored.getUsername());
+                if (user == null || user.getBalance() < stored.getAmountPaid()) {
+                    callback.onFailure(new DatabaseHelper.InsufficientBalanceException());
+                    return;
+                }
+                user.setBalance(user.getBalance() - stored.getAmountPaid());
+                balanceChanged(stored.getUsername());
+                bookings.put(bookingId, stored);
+                addTicketsSold(stored, 1);
+                addToSummary(stored, 1);
+            }
+            callback.onSuccess(bookingId);
+        });
+    }
+
+    private void addTicketsSold(Booking b, int sign) {
+        Show show = shows.get(b.getShowId());
+        if (show == null) return;
+        show.setTicketsSold(show.getTicketsSold() + sign * b.getTicketCount());
+        showChanged(b.getShowId());
+    }
+
+    private void addToSummary(Booking b, int sign) {
+        if (b.getMovieId() == null) return;
+        String summaryKey = b.getUsername() + "/" + b.getMovieId();
+        Map<String, BookingSummary> byShow = bookingSummaries.get(summaryKey);
+        if (byShow == null) {
+            byShow = new LinkedHashMap<>();
+            bookingSummaries.put(summaryKey, byShow);
+        }
+        BookingSummary summary = byShow.get(b.getShowId());
+        if (summary == null) {
+            summary = new BookingSummary(b.getShowId(), 0, 0);
+            byShow.put(b.getShowId(), summary);
+        }
+        summary.setTickets(summary.getTickets() + sign * b.getTicketCount());
+        summary.setSpent(summary.getSpent() + sign * b.getAmountPaid());
+    }
+
+    @Override
+    public void getBookingsByShow(String showId, DatabaseHelper.DatabaseCallback<List<Booking>> callback) {
+        run(() -> {
+            List<Booking> list = new ArrayList<>();
+            synchronized (lock) {
+                for (Booking b : bookings.values()) {
+                    if (showId != null && showId.equals(b.getShowId())) list.add(copy(b));
+                }
+            }
+            callback.onSuccess(list);
+        });
+    }
+
+    @Override
+    public void getBookingsByShowPage(String showId, PageCursor after, int limit,
+                                      DatabaseHelper.DatabaseCallback<Page<Booking>> callback) {
+        run(() -> callback.onSuccess(bookingsPage(showId, after, limit)));
+    }
+
+    // The show's bookings in key order, like the orderByChild range query.
+    private Page<Booking> bookingsPage(String showId, PageCursor after, int limit) {
+        List<String> keys = new ArrayList<>();
+        synchronized (lock) {
+            for (Map.Entry<String, Booking> e : bookings.entrySet()) {
+                if (!showId.equals(e.getValue().getShowId())) continue;
+                if (after != null && e.getKey().compareTo(after.getKey()) <= 0) continue;
+                keys.add(e.getKey());
+            }
+            Collections.sort(keys);
+            List<Booking> rows = new ArrayList<>();
+            for (String key : keys) {
+                rows.add(copy(bookings.get(key)));
+                if (rows.size() > limit) break;
+            }
+            return Page.fromOverfetch(rows, limit, b -> new PageCursor(showId, b.getBookingId()));
+        }
+    }
+
+    @Override
+    public void cancelShowWithRefunds(String showId, DatabaseHelper.DatabaseCallback<RefundResult> callback) {
+        run(() -> {
+            RefundResult result;
+            synchronized (lock) {
+                Map<String, Double> creditsByUser = new LinkedHashMap<>();
+                double total = 0;
+                int refunded = 0;
+                for (Booking b : bookings.values()) {
+                    if (!showId.equals(b.getShowId()) || !"Confirmed".equalsIgnoreCase(b.getStatus())) continue;
+                    Double credit = creditsByUser.get(b.getUsername());
+                    creditsByUser.put(b.getUsername(), (credit != null ? credit : 0) + b.getAmountPaid());
+                    b.setStatus("Refunded");
+                    if (b.getMovieId() != null) {
+                        Map<String, BookingSummary> byShow = bookingSummaries.get(b.getUsername() + "/" + b.getMovieId());
+                        if (byShow != null) byShow.remove(showId);
+                    }
+                    total += b.getAmountPaid();
+                    refunded++;
+                }
+                for (Map.Entry<String, Double> e : creditsByUser.entrySet()) {
+                    User user = users.get(e.getKey());
+                    if (user != null) {
+                        user.setBalance(user.getBalance() + e.getValue());
+                        balanceChanged(e.getKey());
+                    }
+                }
+                Show show = shows.get(showId);
+                if (show != null) {
+                    show.setStatus("Cancelled");
+                    show.setTicketsSold(0);
+                    showChanged(showId);
+                }
+                result = new RefundResult(refunded, creditsByUser.size(), total);
+            }
+            callback.onSuccess(result);
+        });
+    }
+
+    @Override
+    public void updateBookingStatus(String bookingId, String status, DatabaseHelper.DatabaseCallback<Void> callback) {
+        run(() -> {
+            synchronized (lock) {
+                Booking booking = bookings.get(bookingId);
+                if (booking != null) {
+                    boolean was = "Confirmed".equalsIgnoreCase(booking.getStatus());
+                    boolean is = "Confirmed".equalsIgnoreCase(status);
+                    booking.setStatus(status);
+                    if (was != is) {
+                        addTicketsSold(booking, is ? 1 : -1);
+                        addToSummary(booking, is ? 1 : -1);
+                    }
+                }
+            }
+            succeed(callback, null);
+        });
+    }
+
+    @Override
+    public void backfillShowStatusKeys(DatabaseHelper.DatabaseCallback<Integer> callback) {
+        // movieTitle_status is always derived here, so there is nothing to fill in.
+        run(() -> callback.onSuccess(0));
+    }
+
+    @Override
+    public void backfillBookingSummaries(DatabaseHelper.DatabaseCallback<Integer> callback) {
+        run(() -> {
+            int linked = 0;
+            synchronized (lock) {
+                for (Booking b : bookings.values()) {
+                    if (b.getMovieId() != null || b.getMovieTitle() == null || b.getUsername() == null || b.getShowId() == null) continue;
+                    String movieId = movieTitleIndex.get(Movie.titleKey(b.getMovieTitle()));
+                    if (movieId == null) continue;
+                    b.setMovieId(movieId);
+                    linked++;
+                    if ("Confirmed".equalsIgnoreCase(b.getStatus())) addToSummary(b, 1);
+                }
+            }
+            callback.onSuccess(linked);
+        });
+    }
+
+    @Override
+    public void backfillTicketsSold(DatabaseHelper.DatabaseCallback<Integer> callback) {
+        run(() -> {
+            int changed = 0;
+            synchronized (lock) {
+                Map<String, Integer> sold = new HashMap<>();
+                for (Booking b : bookings.values()) {
+                    if (!"Confirmed".equalsIgnoreCase(b.getStatus())) continue;
+                    Integer total = sold.get(b.getShowId());
+                    sold.put(b.getShowId(), (total == null ? 0 : total) + b.getTicketCount());
+                }
+                for (Map.Entry<String, Show> e : shows.entrySet()) {
+                    Integer total = sold.get(e.getKey());
+                    int expected = total == null ? 0 : total;
+                    if (e.getValue().getTicketsSold() == expected) continue;
+                    e.getValue().setTicketsSold(expected);
+                    showChanged(e.getKey());
+                    changed++;
+                }
+            }
+            callback.onSuccess(changed);
+        });
+    }
+
+    private void run(Runnable task) {
+        long delay = minLatencyMs;
+        long spread = maxLatencyMs - minLatencyMs;
+        if (spread > 0) {
+            synchronized (random) {
+                delay += (long) (random.nextDouble() * (spread + 1));
+            }
+        }
+        executor.schedule(task, delay, TimeUnit.MILLISECONDS);
+    }
+
+    private String newKey() {
+        synchronized (lock) {
+            // Zero padded so that key order matches insertion order, like Firebase push ids.
+            return String.format(Locale.US, "-mem%012d", nextKey++);
+        }
+    }
+
+    private static <T> void succeed(DatabaseHelper.DatabaseCallback<T> callback, T result) {
+        if (callback != null) callback.onSuccess(result);
+    }
+
+    private List<Movie> snapshotMovies() {
+        List<Movie> list = new ArrayList<>();
+        synchronized (lock) {
+            for (Movie m : movies.values()) list.add(copy(m));
+        }
+        return list;
+    }
+
+    private List<Show> snapshotShows() {
+        List<Show> list = new ArrayList<>();
+        synchronized (lock) {
+            for (Show s : shows.values()) list.add(copy(s));
+        }
+        return list;
+    }
+
+    // Child events are delivered while holding the lock so listeners see edits in commit order.
+    private void balanceChanged(String username) {
+        List<ValueObserver<Double>> observers = balanceListeners.get(username);
+        if (observers == null) return;
+        double balance = users.get(username).getBalance();
+        for (ValueObserver<Double> o : observers) o.onValue(balance);
+    }
+
+    private void showChanged(String showId) {
+        for (ChildEventCallback<Show> l : showListeners) {
+            l.onChildChanged(showId, copy(shows.get(showId)), previousKey(orderedShowKeys(), showId));
+        }
+    }
+
+    private List<String> orderedMovieKeys() {
+        List<String> keys = new ArrayList<>(movies.keySet());
+        Collections.sort(keys);
+        return keys;
+    }
+
+    // Same order as orderByChild("movieTitle"): by title, then by key.
+    private List<String> orderedShowKeys() {
+        List<String> keys = new ArrayList<>(shows.keySet());
+        Collections.sort(keys, new Comparator<String>() {
+            @Override
+            public int compare(String a, String b) {
+                return compareByTitle(shows.get(a).getMovieTitle(), a, shows.get(b).getMovieTitle(), b);
+            }
+        });
+        return keys;
+    }
+
+    private static String previousKey(List<String> orderedKeys, String key) {
+        int index = orderedKeys.indexOf(key);
+        return index > 0 ? orderedKeys.get(index - 1) : null;
+    }
+
+    private static int compareByTitle(String ta, String a, String tb, String b) {
+        if (ta == null ? tb != null : !ta.equals(tb)) {
+            if (ta == null) return -1;
+            if (tb == null) return 1;
+            return ta.compareTo(tb);
+        }
+        return a.compareTo(b);
+    }
+
+    private static User copy(User u) {
+        if (u == null) return null;
+        return new User(u.getUsername(), u.getPassword(), u.getRole(), u.getBalance());
+    }
+
+    private static Movie copy(Movie m) {
+        Movie c = new Movie(m.getTitle(), m.getGenre(), m.getDuration(), m.getPosterPath());
+        c.setId(m.getId());
+        c.setPosterThumbKey(m.getPosterThumbKey());
+        c.setPosterHeroKey(m.getPosterHeroKey());
+        return c;
+    }
+
+    private static Show copy(Show s) {
+        Show c = new Show(s.getMovieTitle(), s.getShowDate(), s.getShowTime(), s.getPrice(), s.getStatus());
+        c.setShowId(s.getShowId());
+        c.setTicketsSold(s.getTicketsSold());
+        return c;
+    }
+
+    private static Booking copy(Booking b) {
+        Booking c = new Booking(b.getUsername(), b.getShowId(), b.getMovieTitle(), b.getShowDate(),
+                b.getShowTime(), b.getAmountPaid(), b.getTicketCount(), b.getStatus());
+        c.setBookingId(b.getBookingId());
+        c.setMovieId(b.getMovieId());
+        return c;
+    }
+
+    private static BookingSummary copy(BookingSummary s) {
+        return new BookingSummary(s.getShowId(), s.getTickets(), s.getSpent());
+    }
+}
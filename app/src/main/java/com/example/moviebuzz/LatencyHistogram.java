@@ -0,0 +1,96 @@
+package com.example.moviebuzz;
+
+import java.util.LinkedHashMap;
+import java.util.Map;
+import java.util.concurrent.atomic.AtomicLong;
+import java.util.concurrent.atomic.AtomicLongArray;
+
+// Latency, item-count, payload-size and error tallies for one operation, kept in fixed buckets.
+// record() only bumps atomics, so it can run on every call from any thread without allocating.
+// Percentiles are reported as the upper bound of the bucket they fall in.
+public final class LatencyHistogram {
+    // Bucket upper bounds in microseconds; one more bucket catches everything slower.
+    private static final long[] BOUNDS_US = {
+            250, 500, 1_000, 2_000, 5_000, 10_000, 20_000, 50_000, 100_000,
+            200_000, 500_000, 1_000_000, 2_000_000, 5_000_000, 10_000_000, 30_000_000
+    };
+
+    private final AtomicLongArray buckets = new AtomicLongArray(BOUNDS_US.length + 1);
+    private final AtomicLong count = new AtomicLong();
+    private final AtomicLong errors = new AtomicLong();
+    private final AtomicLong items = new AtomicLong();
+    private final AtomicLong bytes = new AtomicLong();
+    private final AtomicLong totalMicros = new AtomicLong();
+    private final AtomicLong maxMicros = new AtomicLong();
+
+    // itemCount and payloadBytes are ignored when negative, for operations that don't know them.
+    public void record(long elapsedNanos, int itemCount, long payloadBytes, boolean failed) {
+        long micros = Math.max(0, elapsedNanos / 1000);
+        buckets.incrementAndGet(bucketOf(micros));
+        count.incrementAndGet();
+        totalMicros.addAndGet(micros);
+        if (failed) errors.incrementAndGet();
+        if (itemCount > 0) items.addAndGet(itemCount);
+        if (payloadBytes > 0) bytes.addAndGet(payloadBytes);
+        long max;
+        while (micros > (max = maxMicros.get()) && !maxMicros.compareAndSet(max, micros)) {
+            // Lost a race with another writer; re-read and retry.
+        }
+    }
+
+    public long getCount() {
+        return count.get();
+    }
+
+    // p in (0, 100]. Returns 0 until something has been recorded.
+    public long percentileMicros(double p) {
+        long total = 0;
+        long[] snapshot = new long[buckets.length()];
+        for (int i = 0; i < snapshot.length; i++) {
+            snapshot[i] = buckets.get(i);
+            total += snapshot[i];
+        }
+        if (total == 0) return 0;
+        long rank = (long) Math.ceil(total * p / 100.0);
+        long seen = 0;
+        for (int i = 0; i < snapshot.length; i++) {
+            seen += snapshot[i];
+            if (seen >= rank) return i < BOUNDS_US.length ? BOUNDS_US[i] : maxMicros.get();
+        }
+        return maxMicros.get();
+    }
+
+    public void reset() {
+        for (int i = 0; i < buckets.length(); i++) buckets.set(i, 0);
+        count.set(0);
+        errors.set(0);
+        items.set(0);
+        bytes.set(0);
+        totalMicros.set(0);
+        maxMicros.set(0);
+    }
+
+    // Summary for the diagnostics screen and JSON export; times are in milliseconds.
+    public Map<String, Object> toMap() {
+        long n = count.get();
+        Map<String, Object> map = new LinkedHashMap<>();
+        map.put("count", n);
+        map.put("errors", errors.get());
+        map.put("errorRate", n == 0 ? 0.0 : (double) errors.get() / n);
+        map.put("p50Ms", percentileMicros(50) / 1000.0);
+        map.put("p95Ms", percentileMicros(95) / 1000.0);
+        map.put("p99Ms", percentileMicros(99) / 1000.0);
+        map.put("meanMs", n == 0 ? 0.0 : totalMicros.get() / 1000.0 / n);
+        map.put("maxMs", maxMicros.get() / 1000.0);
+        map.put("items", items.get());
+        map.put("bytes", bytes.get());
+        return map;
+    }
+
+    private static int bucketOf(long micros) {
+        for (int i = 0; i < BOUNDS_US.length; i++) {
+            if (micros <= BOUNDS_US[i]) return i;
+        }
+        return BOUNDS_US.length;
+    }
+}
@@ -0,0 +1,5 @@
+package com.example.moviebuzz;
+
+public interface ListenerRegistration {
+    void remove();
+}
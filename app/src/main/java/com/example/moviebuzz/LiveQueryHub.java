@@ -0,0 +1,137 @@
+package com.example.moviebuzz;
+
+import java.util.ArrayList;
+import java.util.HashMap;
+import java.util.LinkedHashMap;
+import java.util.List;
+import java.util.Map;
+
+// Keeps exactly one backend child listener per query key and maintains its results in a
+// SyncedList. Subscribers first receive a reset with the current contents, then one small
+// ChangeSet per child event. The backend listener is attached for the first subscriber and
+// detached after the last one leaves. Subscribers are called with the hub lock held so every
+// subscriber sees the same order of edits; they should hand off work rather than block.
+public class LiveQueryHub {
+
+    public interface Source<T> {
+        ListenerRegistration attach(ChildEventCallback<T> sink);
+    }
+
+    private final Map<String, Entry<?>> entries = new LinkedHashMap<>();
+
+    public <T> ListenerRegistration subscribe(String key, Source<T> source, DatabaseHelper.SyncCallback<T> subscriber) {
+        Entry<T> entry;
+        boolean attach = false;
+        synchronized (this) {
+            @SuppressWarnings("unchecked")
+            Entry<T> existing = (Entry<T>) entries.get(key);
+            if (existing == null) {
+                existing = new Entry<>(key);
+                entries.put(key, existing);
+                attach = true;
+            }
+            entry = existing;
+            entry.subscribers.add(subscriber);
+            if (entry.synced) subscriber.onChanged(ChangeSet.reset(entry.list.snapshot()));
+        }
+
+        if (attach) {
+            ListenerRegistration registration = source.attach(entry);
+            boolean orphaned;
+            synchronized (this) {
+                entry.registration = registration;
+                orphaned = entry.closed;
+            }
+            if (orphaned) registration.remove();
+        }
+
+        return () -> unsubscribe(entry, subscriber);
+    }
+
+    public synchronized Map<String, Integer> getListenerCounts() {
+        Map<String, Integer> counts = new HashMap<>();
+        for (Entry<?> e : entries.values()) counts.put(e.key, e.subscribers.size());
+        return counts;
+    }
+
+    public synchronized int getAttachedQueryCount() {
+        return entries.size();
+    }
+
+    private <T> void unsubscribe(Entry<T> entry, DatabaseHelper.SyncCallback<T> subscriber) {
+        ListenerRegistration toRemove;
+        synchronized (this) {
+            if (!entry.subscribers.remove(subscriber) || !entry.subscribers.isEmpty()) return;
+            if (entries.get(entry.key) == entry) entries.remove(entry.key);
+            entry.closed = true;
+            toRemove = entry.registration;
+        }
+        if (toRemove != null) toRemove.remove();
+    }
+
+    private class Entry<T> implements ChildEventCallback<T> {
+        final String key;
+        final List<DatabaseHelper.SyncCallback<T>> subscribers = new ArrayList<>();
+        final SyncedList<T> list = new SyncedList<>();
+        ListenerRegistration registration;
+        boolean synced;
+        boolean closed;
+
+        Entry(String key) {
+            this.key = key;
+        }
+
+        @Override
+        public void onChildAdded(String childKey, T item, String previousKey) {
+            synchronized (LiveQueryHub.this) {
+                publish(list.add(childKey, item, previousKey));
+            }
+        }
+
+        @Override
+        public void onChildChanged(String childKey, T item, String previousKey) {
+            synchronized (LiveQueryHub.this) {
+                publish(list.change(childKey, item, previousKey));
+            }
+        }
+
+        @Override
+        public void onChildRemoved(String childKey) {
+            synchronized (LiveQueryHub.this) {
+                publish(list.remove(childKey));
+            }
+        }
+
+        @Override
+        public void onChildMoved(String childKey, T item, String previousKey) {
+            synchronized (LiveQueryHub.this) {
+                publish(list.move(childKey, item, previousKey));
+            }
+        }
+
+        @Override
+        public void onSynced() {
+            synchronized (LiveQueryHub.this) {
+                if (closed || synced) return;
+                synced = true;
+                ChangeSet<T> reset = ChangeSet.reset(list.snapshot());
+                for (DatabaseHelper.SyncCallback<T> s : new ArrayList<>(subscribers)) s.onChanged(reset);
+            }
+        }
+
+        @Override
+        public void onFailure(Exception e) {
+            synchronized (LiveQueryHub.this) {
+                if (closed) return;
+                for (DatabaseHelper.SyncCallback<T> s : new ArrayList<>(subscribers)) s.onFailure(e);
+            }
+        }
+
+        // Events before the initial sync only build up the list; subscribers get it as one reset.
+        private void publish(ChangeSet.Op<T> op) {
+            if (op == null || closed || !synced) return;
+            ChangeSet<T> changes = ChangeSet.of(op);
+            for (DatabaseHelper.SyncCallback<T> s : new ArrayList<>(subscribers)) s.onChanged(changes);
+        }
+    }
+}
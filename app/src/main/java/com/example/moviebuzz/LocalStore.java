@@ -0,0 +1,92 @@
+package com.example.moviebuzz;
+
+import android.content.ContentValues;
+import android.content.Context;
+import android.database.Cursor;
+import android.database.sqlite.SQLiteDatabase;
+import android.database.sqlite.SQLiteOpenHelper;
+import com.fasterxml.jackson.databind.DeserializationFeature;
+import com.fasterxml.jackson.databind.JavaType;
+import com.fasterxml.jackson.databind.ObjectMapper;
+import java.util.List;
+
+// On-disk copy of query results (movies, shows, shows per movie, booking summaries per user) so
+// screens can render before the network answers. Each entry records when it was last synced. All methods
+// do disk I/O and must be called off the main thread.
+public class LocalStore extends SQLiteOpenHelper {
+    private static final String DB_NAME = "moviebuzz_cache.db";
+    private static final int DB_VERSION = 1;
+    private static final String TABLE = "cache";
+
+    private ObjectMapper mapper;
+
+    public LocalStore(Context context) {
+        super(context, DB_NAME, null, DB_VERSION);
+    }
+
+    @Override
+    public void onCreate(SQLiteDatabase db) {
+        db.execSQL("CREATE TABLE " + TABLE + " (cache_key TEXT PRIMARY KEY, json TEXT NOT NULL, synced_at INTEGER NOT NULL)");
+    }
+
+    @Override
+    public void onUpgrade(SQLiteDatabase db, int oldVersion, int newVersion) {
+        // Only a cache: dropping it just means one cold start.
+        db.execSQL("DROP TABLE IF EXISTS " + TABLE);
+        onCreate(db);
+    }
+
+    public <T> List<T> readList(String key, Class<T> type) {
+        try (Cursor c = getReadableDatabase().query(TABLE, new String[]{"json"}, "cache_key = ?",
+                new String[]{key}, null, null, null)) {
+            if (!c.moveToFirst()) return null;
+            JavaType listType = mapper().getTypeFactory().constructCollectionType(List.class, type);
+            return mapper().readValue(c.getString(0), listType);
+        } catch (Exception e) {
+            return null;
+        }
+    }
+
+    public <T> void writeList(String key, List<T> items) {
+        try {
+            ContentValues values = new ContentValues();
+            values.put("cache_key", key);
+            values.put("json", mapper().writeValueAsString(items));
+            values.put("synced_at", System.currentTimeMillis());
+            getWritableDatabase().insertWithOnConflict(TABLE, null, values, SQLiteDatabase.CONFLICT_REPLACE);
+        } catch (Exception ignored) {
+            // A failed cache write only costs a slower next start.
+        }
+    }
+
+    // Wall-clock time of the last successful sync of key, or -1 if nothing is cached.
+    public long getSyncedAt(String key) {
+        try (Cursor c = getReadableDatabase().query(TABLE, new String[]{"synced_at"}, "cache_key = ?",
+                new String[]{key}, null, null, null)) {
+            return c.moveToFirst() ? c.getLong(0) : -1;
+        }
+    }
+
+    public boolean isStale(String key, long maxAgeMs) {
+        long syncedAt = getSyncedAt(key);
+        return syncedAt < 0 || System.currentTimeMillis() - syncedAt > maxAgeMs;
+    }
+
+    public void invalidatePrefix(String prefix) {
+        getWritableDatabase().delete(TABLE, "substr(cache_key, 1, ?) = ?",
+                new String[]{String.valueOf(prefix.length()), prefix});
+    }
+
+    // Opens the database and builds the JSON mapper, the two slow parts of a first read.
+    public void warmUp() {
+        getReadableDatabase();
+        mapper();
+    }
+
+    private synchronized ObjectMapper mapper() {
+        if (mapper == null) {
+            mapper = new ObjectMapper().configure(DeserializationFeature.FAIL_ON_UNKNOWN_PROPERTIES, false);
+        }
+        return mapper;
+    }
+}
@@ -23,18 +23,21 @@ public class LoginActivity extends AppCompatActivity {
     @Override
     protected void onCreate(Bundle savedInstanceState) {
         super.onCreate(savedInstanceState);
-        setContentView(R.layout.activity_login);
-
-        databaseHelper = DatabaseHelper.getInstance(this);
         userSession = UserSession.getInstance(this);
 
+        // A returning user goes straight on, without inflating a form nobody will see.
         if (userSession.isLoggedIn()) {
             redirectUser();
             return;
         }
 
+        setContentView(R.layout.activity_login);
+        // Only needed once the user submits; AppStartup opens it in the background after the first frame.
+        databaseHelper = DatabaseHelper.getInstance(this);
+
         initViews();
         setupListeners();
+        StartupTracer.reportFullyDrawn(this);
     }
 
     private void initViews() {
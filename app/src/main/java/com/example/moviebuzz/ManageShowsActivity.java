@@ -68,19 +68,12 @@ public class ManageShowsActivity extends AppCompatActivity {
     }
 
     private void loadShows() {
-        databaseHelper.getAllShows(new DatabaseHelper.DatabaseCallback<List<Show>>() {
+        ListUpdateCallback updates = new AdapterListUpdateCallback(showAdapter);
+        // Shows arrive sorted by movie title, ignoring case.
+        databaseHelper.observeShows(this, new DatabaseHelper.SyncCallback<Show>() {
             @Override
-            public void onSuccess(List<Show> shows) {
-                showList.clear();
-                if (shows != null) {
-                    showList.addAll(shows);
-
-
-                    Collections.sort(showList, (s1, s2) ->
-                            s1.getMovieTitle().compareToIgnoreCase(s2.getMovieTitle())
-                    );
-                }
-                runOnUiThread(() -> showAdapter.notifyDataSetChanged());
+            public void onChanged(ChangeSet<Show> changes) {
+                changes.applyTo(showList, updates);
             }
             @Override public void onFailure(Exception e) {}
         });
@@ -91,13 +84,18 @@ public class ManageShowsActivity extends AppCompatActivity {
                 .setTitle("Confirm Refund & Cancel")
                 .setMessage("Are you sure you want to cancel '" + show.getMovieTitle() + "'? All purchased tickets will be refunded to users' balances.")
                 .setPositiveButton("Process Refunds", (dialog, which) -> {
-                    databaseHelper.updateShowStatus(show.getShowId(), "Cancelled", new DatabaseHelper.DatabaseCallback<Void>() {
+                    databaseHelper.cancelShowWithRefunds(show.getShowId(), new DatabaseHelper.DatabaseCallback<RefundResult>() {
                         @Override
-                        public void onSuccess(Void result) {
-                            startRefundProcess(show);
+                        public void onSuccess(RefundResult result) {
+                            String message = result.getRefundedBookings() == 0
+                                    ? "Show Cancelled (No bookings to refund)"
+                                    : "Refunded " + result.getRefundedBookings() + " booking(s) to "
+                                        + result.getCreditedUsers() + " customer(s), BDT "
+                                        + String.format("%.2f", result.getTotalRefunded());
+                            Toast.makeText(ManageShowsActivity.this, message, Toast.LENGTH_LONG).show();
                         }
                         @Override public void onFailure(Exception e) {
-                            runOnUiThread(() -> Toast.makeText(ManageShowsActivity.this, "Failed to cancel show", Toast.LENGTH_SHORT).show());
+                            Toast.makeText(ManageShowsActivity.this, "Failed to cancel show", Toast.LENGTH_SHORT).show();
                         }
                     });
                 })
@@ -105,56 +103,8 @@ public class ManageShowsActivity extends AppCompatActivity {
                 .show();
     }
 
-    private void startRefundProcess(Show show) {
-        databaseHelper.getBookingsByShow(show.getShowId(), new DatabaseHelper.DatabaseCallback<List<Booking>>() {
-            @Override
-            public void onSuccess(List<Booking> bookings) {
-                if (bookings == null || bookings.isEmpty()) {
-                    runOnUiThread(() -> {
-                        Toast.makeText(ManageShowsActivity.this, "Show Cancelled (No bookings to refund)", Toast.LENGTH_SHORT).show();
-                        loadShows();
-                    });
-                    return;
-                }
-
-                for (Booking b : bookings) {
-                    if (b != null && "Confirmed".equalsIgnoreCase(b.getStatus())) {
-                        processSingleRefund(b);
-                    }
-                }
-
-                runOnUiThread(() -> {
-                    Toast.makeText(ManageShowsActivity.this, "Refunds processed successfully", Toast.LENGTH_LONG).show();
-                    loadShows();
-                });
-            }
-            @Override public void onFailure(Exception e) {}
-        });
-    }
-
-    private void processSingleRefund(Booking b) {
-        databaseHelper.getUser(b.getUsername(), new DatabaseHelper.DatabaseCallback<User>() {
-            @Override
-            public void onSuccess(User user) {
-                if (user != null) {
-                    double refundAmt = b.getAmountPaid();
-                    double newBalance = user.getBalance() + refundAmt;
-
-                    databaseHelper.updateUserBalance(user.getUsername(), newBalance, new DatabaseHelper.DatabaseCallback<Void>() {
-                        @Override
-                        public void onSuccess(Void r) {
-                            databaseHelper.updateBookingStatus(b.getBookingId(), "Refunded", null);
-                        }
-                        @Override public void onFailure(Exception e) {}
-                    });
-                }
-            }
-            @Override public void onFailure(Exception e) {}
-        });
-    }
-
     private class ShowAdapter extends RecyclerView.Adapter<ShowAdapter.ShowViewHolder> {
-        private int selectedPos = -1;
+        private String selectedId;
 
         @Override
         public ShowViewHolder onCreateViewHolder(ViewGroup parent, int viewType) {
@@ -180,20 +130,30 @@ public class ManageShowsActivity extends AppCompatActivity {
                 holder.status.setBackgroundColor(0xFFE8F5E9);
             }
 
-            holder.card.setStrokeWidth(selectedPos == position ? 8 : 2);
-            holder.card.setStrokeColor(selectedPos == position ? 0xFF3498DB : 0xFFDDDDDD);
+            boolean selected = show.getShowId() != null && show.getShowId().equals(selectedId);
+            holder.card.setStrokeWidth(selected ? 8 : 2);
+            holder.card.setStrokeColor(selected ? 0xFF3498DB : 0xFFDDDDDD);
 
             holder.itemView.setOnClickListener(v -> {
-                int previous = selectedPos;
-                selectedPos = holder.getAdapterPosition();
+                int previous = indexOf(selectedId);
+                selectedId = show.getShowId();
                 if (previous != -1) notifyItemChanged(previous);
-                notifyItemChanged(selectedPos);
+                notifyItemChanged(holder.getAdapterPosition());
             });
         }
 
         @Override public int getItemCount() { return showList.size(); }
         public Show getSelectedShow() {
-            return (selectedPos != -1 && selectedPos < showList.size()) ? showList.get(selectedPos) : null;
+            int pos = indexOf(selectedId);
+            return pos != -1 ? showList.get(pos) : null;
+        }
+
+        private int indexOf(String id) {
+            if (id == null) return -1;
+            for (int i = 0; i < showList.size(); i++) {
+                if (id.equals(showList.get(i).getShowId())) return i;
+            }
+            return -1;
         }
 
         class ShowViewHolder extends RecyclerView.ViewHolder {
@@ -0,0 +1,161 @@
+package com.example.moviebuzz;
+
+import java.util.HashMap;
+import java.util.Map;
+
+// Hand-written mapping between the models and the Map<String, Object> trees Firebase reads and
+// writes, replacing per-child reflective bean mapping. Keys match what the SDK's mapper produces
+// from the getters, so data written either way reads back the same. Any model field added here
+// must also be added to the matching decode/encode pair.
+public final class ModelCodec {
+    private static volatile boolean reflectionFallback;
+
+    private ModelCodec() {}
+
+    // When true, FirebaseBackend goes back to DataSnapshot.getValue(Class) / setValue(bean).
+    public static void setReflectionFallback(boolean enabled) {
+        reflectionFallback = enabled;
+    }
+
+    public static boolean isReflectionFallback() {
+        return reflectionFallback;
+    }
+
+    @SuppressWarnings("unchecked")
+    public static <T> T decode(Object raw, Class<T> type) {
+        if (!(raw instanceof Map)) return null;
+        Map<String, Object> map = (Map<String, Object>) raw;
+        if (type == Show.class) return (T) decodeShow(map);
+        if (type == Booking.class) return (T) decodeBooking(map);
+        if (type == Movie.class) return (T) decodeMovie(map);
+        if (type == User.class) return (T) decodeUser(map);
+        if (type == BookingSummary.class) return (T) decodeBookingSummary(map);
+        throw new IllegalArgumentException("No codec for " + type.getName());
+    }
+
+    public static Map<String, Object> encode(Object model) {
+        if (model instanceof Show) return encodeShow((Show) model);
+        if (model instanceof Booking) return encodeBooking((Booking) model);
+        if (model instanceof Movie) return encodeMovie((Movie) model);
+        if (model instanceof User) return encodeUser((User) model);
+        throw new IllegalArgumentException("No codec for " + model.getClass().getName());
+    }
+
+    public static Movie decodeMovie(Map<String, Object> map) {
+        Movie m = new Movie();
+        m.setId(string(map.get("id")));
+        m.setTitle(string(map.get("title")));
+        m.setGenre(string(map.get("genre")));
+        m.setDuration(string(map.get("duration")));
+        m.setPosterPath(string(map.get("posterPath")));
+        m.setPosterThumbKey(string(map.get("posterThumbKey")));
+        m.setPosterHeroKey(string(map.get("posterHeroKey")));
+        return m;
+    }
+
+    public static Map<String, Object> encodeMovie(Movie m) {
+        Map<String, Object> map = new HashMap<>();
+        put(map, "id", m.getId());
+        put(map, "title", m.getTitle());
+        put(map, "genre", m.getGenre());
+        put(map, "duration", m.getDuration());
+        put(map, "posterPath", m.getPosterPath());
+        put(map, "posterThumbKey", m.getPosterThumbKey());
+        put(map, "posterHeroKey", m.getPosterHeroKey());
+        return map;
+    }
+
+    public static Show decodeShow(Map<String, Object> map) {
+        Show s = new Show();
+        s.setShowId(string(map.get("showId")));
+        s.setMovieTitle(string(map.get("movieTitle")));
+        s.setShowDate(string(map.get("showDate")));
+        s.setShowTime(string(map.get("showTime")));
+        s.setPrice(number(map.get("price")));
+        s.setStatus(string(map.get("status")));
+        s.setTicketsSold((int) number(map.get("ticketsSold")));
+        return s;
+    }
+
+    public static Map<String, Object> encodeShow(Show s) {
+        Map<String, Object> map = new HashMap<>();
+        put(map, "showId", s.getShowId());
+        put(map, "movieTitle", s.getMovieTitle());
+        put(map, "showDate", s.getShowDate());
+        put(map, "showTime", s.getShowTime());
+        map.put("price", s.getPrice());
+        put(map, "status", s.getStatus());
+        map.put("ticketsSold", s.getTicketsSold());
+        map.put("movieTitle_status", s.getMovieTitleStatus());
+        return map;
+    }
+
+    public static Booking decodeBooking(Map<String, Object> map) {
+        Booking b = new Booking();
+        b.setBookingId(string(map.get("bookingId")));
+        b.setUsername(string(map.get("username")));
+        b.setShowId(string(map.get("showId")));
+        b.setMovieId(string(map.get("movieId")));
+        b.setMovieTitle(string(map.get("movieTitle")));
+        b.setShowDate(string(map.get("showDate")));
+        b.setShowTime(string(map.get("showTime")));
+        b.setAmountPaid(number(map.get("amountPaid")));
+        b.setTicketCount((int) number(map.get("ticketCount")));
+        b.setStatus(string(map.get("status")));
+        return b;
+    }
+
+    public static Map<String, Object> encodeBooking(Booking b) {
+        Map<String, Object> map = new HashMap<>();
+        put(map, "bookingId", b.getBookingId());
+        put(map, "username", b.getUsername());
+        put(map, "showId", b.getShowId());
+        put(map, "movieId", b.getMovieId());
+        put(map, "movieTitle", b.getMovieTitle());
+        put(map, "showDate", b.getShowDate());
+        put(map, "showTime", b.getShowTime());
+        map.put("amountPaid", b.getAmountPaid());
+        map.put("ticketCount", b.getTicketCount());
+        put(map, "status", b.getStatus());
+        return map;
+    }
+
+    public static User decodeUser(Map<String, Object> map) {
+        User u = new User();
+        u.setUsername(string(map.get("username")));
+        u.setPassword(string(map.get("password")));
+        u.setRole(string(map.get("role")));
+        u.setBalance(number(map.get("balance")));
+        return u;
+    }
+
+    public static Map<String, Object> encodeUser(User u) {
+        Map<String, Object> map = new HashMap<>();
+        put(map, "username", u.getUsername());
+        put(map, "password", u.getPassword());
+        put(map, "role", u.getRole());
+        map.put("balance", u.getBalance());
+        return map;
+    }
+
+    public static BookingSummary decodeBookingSummary(Map<String, Object> map) {
+        BookingSummary s = new BookingSummary();
+        s.setShowId(string(map.get("showId")));
+        s.setTickets((int) number(map.get("tickets")));
+        s.setSpent(number(map.get("spent")));
+        return s;
+    }
+
+    private static String string(Object value) {
+        return value != null ? value.toString() : null;
+    }
+
+    // The SDK hands back Long for whole numbers and Double otherwise.
+    private static double number(Object value) {
+        return value instanceof Number ? ((Number) value).doubleValue() : 0;
+    }
+
+    private static void put(Map<String, Object> map, String key, Object value) {
+        if (value != null) map.put(key, value);
+    }
+}
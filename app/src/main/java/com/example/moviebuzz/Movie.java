@@ -3,6 +3,9 @@ package com.example.moviebuzz;
 import com.fasterxml.jackson.annotation.JsonIgnoreProperties;
 import com.fasterxml.jackson.annotation.JsonProperty;
 
+import java.util.Locale;
+import java.util.Objects;
+
 @JsonIgnoreProperties(ignoreUnknown = true)
 public class Movie {
 
@@ -20,6 +23,10 @@ public class Movie {
     @JsonProperty("Poster")
     private String posterPath;
 
+    // PosterStore hashes of the grid and details derivatives; null until they've been made.
+    private String posterThumbKey;
+    private String posterHeroKey;
+
 
     public Movie() {}
 
@@ -72,4 +79,46 @@ public class Movie {
     public void setPosterPath(String posterPath) {
         this.posterPath = posterPath;
     }
-}
\ No newline at end of file
+
+    public String getPosterThumbKey() {
+        return posterThumbKey;
+    }
+
+    public void setPosterThumbKey(String posterThumbKey) {
+        this.posterThumbKey = posterThumbKey;
+    }
+
+    public String getPosterHeroKey() {
+        return posterHeroKey;
+    }
+
+    public void setPosterHeroKey(String posterHeroKey) {
+        this.posterHeroKey = posterHeroKey;
+    }
+
+    // Field by field, so a list diff can tell an edited movie from an unchanged one.
+    @Override
+    public boolean equals(Object o) {
+        if (this == o) return true;
+        if (!(o instanceof Movie)) return false;
+        Movie m = (Movie) o;
+        return Objects.equals(id, m.id) && Objects.equals(title, m.title) && Objects.equals(genre, m.genre)
+                && Objects.equals(duration, m.duration) && Objects.equals(posterPath, m.posterPath)
+                && Objects.equals(posterThumbKey, m.posterThumbKey) && Objects.equals(posterHeroKey, m.posterHeroKey);
+    }
+
+    @Override
+    public int hashCode() {
+        return Objects.hash(id, title, genre, duration, posterPath, posterThumbKey, posterHeroKey);
+    }
+
+    // Key of the movie's entry in /movieTitleIndex: titles that differ only in case, spacing or
+    // characters Firebase keys can't hold map to the same key, so they count as duplicates. A movie
+    // whose title is missing or blank has no key and is never indexed: "movieTitleIndex/" would
+    // name the index itself.
+    public static String titleKey(String title) {
+        if (title == null) return null;
+        String key = title.trim().replaceAll("\\s+", " ").toLowerCase(Locale.ROOT);
+        return key.isEmpty() ? null : key.replaceAll("[.#$\\[\\]/]", "_");
+    }
+}
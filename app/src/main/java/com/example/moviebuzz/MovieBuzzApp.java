@@ -1,12 +1,17 @@
 package com.example.moviebuzz;
 
 import android.app.Application;
-import com.google.firebase.FirebaseApp;
 
 public class MovieBuzzApp extends Application {
     @Override
     public void onCreate() {
         super.onCreate();
-        FirebaseApp.initializeApp(this);
+        if (BuildConfig.USE_LOCAL_BACKEND) {
+            // Before anything asks for the helper, so no Firebase-backed one is ever created.
+            DatabaseHelper.useBackend(SampleData.createBackend());
+        }
+        // FirebaseApp is already initialized by the SDK's FirebaseInitProvider, which runs before
+        // this; everything else is started or deferred by AppStartup.
+        AppStartup.start(this);
     }
-}
\ No newline at end of file
+}
@@ -0,0 +1,46 @@
+package com.example.moviebuzz;
+
+import android.content.Context;
+
+import com.bumptech.glide.Glide;
+import com.bumptech.glide.GlideBuilder;
+import com.bumptech.glide.Registry;
+import com.bumptech.glide.annotation.GlideModule;
+import com.bumptech.glide.load.engine.bitmap_recycle.LruBitmapPool;
+import com.bumptech.glide.load.engine.cache.InternalCacheDiskCacheFactory;
+import com.bumptech.glide.load.engine.cache.LruResourceCache;
+import com.bumptech.glide.load.model.GlideUrl;
+import com.bumptech.glide.module.AppGlideModule;
+
+import java.io.InputStream;
+
+// Glide's configuration for the app, applied when Glide is first used (AppStartup warms it up).
+@GlideModule
+public final class MovieBuzzGlideModule extends AppGlideModule {
+    // Posters are cached twice: the original download, shared by every screen, and each
+    // downsampled size (grid thumbnails, the details header) so they aren't decoded from the
+    // original again. Thumbnails are small, so this holds the catalog many times over.
+    private static final long DISK_CACHE_BYTES = 150L * 1024 * 1024;
+
+    @Override
+    public void applyOptions(Context context, GlideBuilder builder) {
+        builder.setDiskCache(new InternalCacheDiskCacheFactory(context, "posters", DISK_CACHE_BYTES));
+        // Sized from the memory class instead of the screen, so low-RAM phones with large screens
+        // don't get a budget their heap can't afford.
+        long[] budget = ImageConfig.memoryBudget(context);
+        builder.setMemoryCache(new LruResourceCache(budget[0]));
+        builder.setBitmapPool(new LruBitmapPool(budget[1]));
+    }
+
+    @Override
+    public void registerComponents(Context context, Glide glide, Registry registry) {
+        registry.replace(GlideUrl.class, InputStream.class,
+                new CountingUrlLoader.Factory(ImageConfig.getInstance(context)));
+    }
+
+    // No libraries register Glide modules through the manifest; skip looking for them at startup.
+    @Override
+    public boolean isManifestParsingEnabled() {
+        return false;
+    }
+}
@@ -1,6 +1,7 @@
 package com.example.moviebuzz;
 
 import android.content.Intent;
+import android.graphics.drawable.Drawable;
 import android.os.Bundle;
 import android.view.*;
 import android.widget.*;
@@ -9,6 +10,8 @@ import androidx.appcompat.app.AppCompatActivity;
 import androidx.recyclerview.widget.LinearLayoutManager;
 import androidx.recyclerview.widget.RecyclerView;
 import com.bumptech.glide.Glide;
+import com.bumptech.glide.RequestBuilder;
+import com.bumptech.glide.RequestManager;
 import com.bumptech.glide.load.engine.DiskCacheStrategy;
 import com.google.android.material.button.MaterialButton;
 import com.google.android.material.card.MaterialCardView;
@@ -25,7 +28,7 @@ public class MovieDetailsActivity extends AppCompatActivity {
     private UserSession userSession;
     private Movie currentMovie;
     private final List<Show> showList = new ArrayList<>();
-    private final Map<String, List<Booking>> showBookingsMap = new HashMap<>();
+    private final Map<String, BookingSummary> showSummaryMap = new HashMap<>();
     private ShowAdapter showAdapter;
 
     @Override
@@ -39,7 +42,8 @@ public class MovieDetailsActivity extends AppCompatActivity {
         initializeViews();
         setupUI();
         loadMovieDetails();
-        loadBalance();
+        userSession.getBalance().observe(this, balance ->
+                balanceText.setText("Balance: BDT " + String.format("%.2f", balance != null ? balance : 0.0)));
     }
 
     private void initializeViews() {
@@ -78,71 +82,95 @@ public class MovieDetailsActivity extends AppCompatActivity {
 
         currentMovie = new Movie(title, genre, "", posterUrl);
         currentMovie.setId(movieId);
+        currentMovie.setPosterThumbKey(intent.getStringExtra("movie_poster_thumb"));
+        currentMovie.setPosterHeroKey(intent.getStringExtra("movie_poster_hero"));
 
 
         titleText.setText(title != null ? title : "Unknown Movie");
         genreText.setText(genre != null && !genre.equals("null") ? genre : "Action/Drama");
 
 
-        if (posterUrl != null && !posterUrl.isEmpty() && !posterUrl.equalsIgnoreCase("null")) {
-            Glide.with(this)
-                    .load(posterUrl)
-                    .diskCacheStrategy(DiskCacheStrategy.ALL) // Cache API images for speed
-                    .placeholder(R.drawable.placeholder_movie) // Show while loading
+        if (currentMovie.getPosterThumbKey() != null
+                || (posterUrl != null && !posterUrl.isEmpty() && !posterUrl.equalsIgnoreCase("null"))) {
+            // The grid's poster is usually cached already and stands in until the large one
+            // arrives; on metered or slow connections it is all that's loaded.
+            ImageConfig imageConfig = ImageConfig.getInstance(this);
+            ImageConfig.Mode mode = imageConfig.getMode();
+            PosterStore posterStore = PosterStore.getInstance(this);
+            RequestManager glide = Glide.with(this);
+            RequestBuilder<Drawable> grid = glide.load(posterStore.gridUrl(currentMovie, imageConfig, mode))
+                    .diskCacheStrategy(DiskCacheStrategy.ALL)
+                    .centerCrop();
+            String large = posterStore.heroUrl(currentMovie, imageConfig, mode);
+            RequestBuilder<Drawable> request = large == null ? grid
+                    : glide.load(large).diskCacheStrategy(DiskCacheStrategy.ALL).centerCrop().thumbnail(grid);
+            request.placeholder(R.drawable.placeholder_movie) // Show while loading
                     .error(R.drawable.placeholder_movie)       // Show if URL fails
-                    .centerCrop()
                     .into(posterImage);
         } else {
             posterImage.setImageResource(R.drawable.placeholder_movie);
         }
 
-        loadUserBookings();
+        // Independent reads; each renders from the local store first, then from the network.
+        loadBookingSummaries();
+        loadAvailableShows();
     }
 
 
 
-    private void loadUserBookings() {
-        databaseHelper.getBookingsByUser(userSession.getUsername(), new DatabaseHelper.DatabaseCallback<List<Booking>>() {
+    private void loadBookingSummaries() {
+        databaseHelper.getBookingSummaries(userSession.getUsername(), currentMovie.getId(),
+                DatabaseHelper.whileAlive(this, new DatabaseHelper.CachedCallback<List<BookingSummary>>() {
             @Override
-            public void onSuccess(List<Booking> bookings) {
-                showBookingsMap.clear();
-                if (bookings != null) {
-                    for (Booking b : bookings) {
-                        if (b.getMovieTitle().equalsIgnoreCase(currentMovie.getTitle())) {
-                            if (!showBookingsMap.containsKey(b.getShowId()))
-                                showBookingsMap.put(b.getShowId(), new ArrayList<>());
-                            showBookingsMap.get(b.getShowId()).add(b);
-                        }
-                    }
-                }
-                loadAvailableShows();
+            public void onCached(List<BookingSummary> summaries) {
+                showSummaries(summaries);
+            }
+            @Override
+            public void onSuccess(List<BookingSummary> summaries) {
+                showSummaries(summaries);
             }
-            @Override public void onFailure(Exception e) { loadAvailableShows(); }
-        });
+            @Override public void onFailure(Exception e) {}
+        }));
+    }
+
+    private void showSummaries(List<BookingSummary> summaries) {
+        showSummaryMap.clear();
+        if (summaries != null) {
+            for (BookingSummary summary : summaries) showSummaryMap.put(summary.getShowId(), summary);
+        }
+        showAdapter.notifyDataSetChanged();
     }
 
     private void loadAvailableShows() {
-        databaseHelper.getShowsByMovie(currentMovie.getTitle(), new DatabaseHelper.DatabaseCallback<List<Show>>() {
+        databaseHelper.getShowsByMovie(currentMovie.getTitle(), DatabaseHelper.whileAlive(this, new DatabaseHelper.CachedCallback<List<Show>>() {
+            @Override
+            public void onCached(List<Show> shows) {
+                showShows(shows);
+            }
             @Override
             public void onSuccess(List<Show> shows) {
-                showList.clear();
-                if (shows != null) showList.addAll(shows);
-                runOnUiThread(() -> showAdapter.notifyDataSetChanged());
+                showShows(shows);
             }
             @Override public void onFailure(Exception e) {}
-        });
+        }));
     }
 
-    private void loadBalance() {
-        databaseHelper.getUser(userSession.getUsername(), new DatabaseHelper.DatabaseCallback<User>() {
-            @Override
-            public void onSuccess(User user) {
-                if (user != null) {
-                    runOnUiThread(() -> balanceText.setText("Balance: BDT " + String.format("%.2f", user.getBalance())));
-                }
-            }
-            @Override public void onFailure(Exception e) {}
-        });
+    // Called for the cached list and again for the network one, so the selection is kept by
+    // showId and dropped if that show is no longer offered.
+    private void showShows(List<Show> shows) {
+        showList.clear();
+        if (shows != null) showList.addAll(shows);
+        if (showAdapter.selectedShowId != null && indexOfShow(showAdapter.selectedShowId) < 0) {
+            showAdapter.selectedShowId = null;
+        }
+        showAdapter.notifyDataSetChanged();
+    }
+
+    private int indexOfShow(String showId) {
+        for (int i = 0; i < showList.size(); i++) {
+            if (showId.equals(showList.get(i).getShowId())) return i;
+        }
+        return -1;
     }
 
     private void handleConfirmBooking() {
@@ -153,39 +181,31 @@ public class MovieDetailsActivity extends AppCompatActivity {
         }
         int qty = Integer.parseInt(ticketSpinner.getSelectedItem().toString());
         double total = selected.getPrice() * qty;
-        databaseHelper.getUser(userSession.getUsername(), new DatabaseHelper.DatabaseCallback<User>() {
+        Booking b = new Booking(userSession.getUsername(), selected.getShowId(), currentMovie.getTitle(),
+                selected.getShowDate(), selected.getShowTime(), total, qty, "Confirmed");
+        b.setMovieId(currentMovie.getId());
+        databaseHelper.bookTickets(b, DatabaseHelper.whileAlive(this, new DatabaseHelper.DatabaseCallback<String>() {
+            @Override
+            public void onSuccess(String id) {
+                Toast.makeText(MovieDetailsActivity.this, "Booked Successfully!", Toast.LENGTH_SHORT).show();
+                loadBookingSummaries();
+            }
             @Override
-            public void onSuccess(User user) {
-                if (user != null && user.getBalance() >= total) {
-                    databaseHelper.updateUserBalance(userSession.getUsername(), user.getBalance() - total, new DatabaseHelper.DatabaseCallback<Void>() {
-                        @Override
-                        public void onSuccess(Void r) {
-                            Booking b = new Booking(userSession.getUsername(), selected.getShowId(), currentMovie.getTitle(),
-                                    selected.getShowDate(), selected.getShowTime(), total, qty, "Confirmed");
-                            databaseHelper.addBooking(b, new DatabaseHelper.DatabaseCallback<String>() {
-                                @Override
-                                public void onSuccess(String id) {
-                                    runOnUiThread(() -> {
-                                        Toast.makeText(MovieDetailsActivity.this, "Booked Successfully!", Toast.LENGTH_SHORT).show();
-                                        loadBalance();
-                                        loadUserBookings();
-                                    });
-                                }
-                                @Override public void onFailure(Exception e) {}
-                            });
-                        }
-                        @Override public void onFailure(Exception e) {}
-                    });
+            public void onFailure(Exception e) {
+                if (e instanceof DatabaseHelper.InsufficientBalanceException) {
+                    statusText.setText("Insufficient Balance!");
+                } else if (e instanceof DatabaseHelper.ShowUnavailableException) {
+                    statusText.setText("This show is no longer available.");
+                    loadAvailableShows();
                 } else {
-                    runOnUiThread(() -> statusText.setText("Insufficient Balance!"));
+                    statusText.setText("Booking failed");
                 }
             }
-            @Override public void onFailure(Exception e) {}
-        });
+        }));
     }
 
     private class ShowAdapter extends RecyclerView.Adapter<ShowAdapter.ShowViewHolder> {
-        private int selectedPos = -1;
+        private String selectedShowId;
         @NonNull @Override public ShowViewHolder onCreateViewHolder(@NonNull ViewGroup parent, int viewType) {
             View v = LayoutInflater.from(parent.getContext()).inflate(R.layout.item_show, parent, false);
             return new ShowViewHolder(v);
@@ -196,25 +216,29 @@ public class MovieDetailsActivity extends AppCompatActivity {
             holder.date.setText(show.getShowDate());
             holder.time.setText(show.getShowTime());
             holder.price.setText("BDT " + (int)show.getPrice());
-            List<Booking> bookings = showBookingsMap.get(show.getShowId());
-            if (bookings != null && !bookings.isEmpty()) {
-                int t = 0; double s = 0;
-                for (Booking b : bookings) { t += b.getTicketCount(); s += b.getAmountPaid(); }
+            BookingSummary summary = showSummaryMap.get(show.getShowId());
+            if (summary != null && summary.getTickets() > 0) {
                 holder.ownedLayout.setVisibility(View.VISIBLE);
-                holder.txtOwned.setText("Tickets Owned: " + t);
-                holder.txtSpent.setText("Total Spent: BDT " + String.format("%.2f", s));
+                holder.txtOwned.setText("Tickets Owned: " + summary.getTickets());
+                holder.txtSpent.setText("Total Spent: BDT " + String.format("%.2f", summary.getSpent()));
             } else { holder.ownedLayout.setVisibility(View.GONE); }
-            holder.cardView.setStrokeColor(selectedPos == position ? 0xFF00D2FF : 0xFF333333);
-            holder.cardView.setStrokeWidth(selectedPos == position ? 4 : 2);
+            boolean selected = show.getShowId() != null && show.getShowId().equals(selectedShowId);
+            holder.cardView.setStrokeColor(selected ? 0xFF00D2FF : 0xFF333333);
+            holder.cardView.setStrokeWidth(selected ? 4 : 2);
             holder.itemView.setOnClickListener(v -> {
-                int old = selectedPos;
-                selectedPos = holder.getAdapterPosition();
-                notifyItemChanged(old);
-                notifyItemChanged(selectedPos);
+                int clicked = holder.getAdapterPosition();
+                if (clicked == RecyclerView.NO_POSITION) return;
+                int old = selectedShowId != null ? indexOfShow(selectedShowId) : -1;
+                selectedShowId = showList.get(clicked).getShowId();
+                if (old >= 0) notifyItemChanged(old);
+                notifyItemChanged(clicked);
             });
         }
         @Override public int getItemCount() { return showList.size(); }
-        public Show getSelectedShow() { return selectedPos != -1 ? showList.get(selectedPos) : null; }
+        public Show getSelectedShow() {
+            int position = selectedShowId != null ? indexOfShow(selectedShowId) : -1;
+            return position >= 0 ? showList.get(position) : null;
+        }
         class ShowViewHolder extends RecyclerView.ViewHolder {
             TextView movieName, date, time, price, txtOwned, txtSpent;
             LinearLayout ownedLayout;
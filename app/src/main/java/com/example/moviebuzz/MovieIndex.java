@@ -0,0 +1,338 @@
+package com.example.moviebuzz;
+
+import java.text.Normalizer;
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.Collection;
+import java.util.Collections;
+import java.util.Comparator;
+import java.util.HashMap;
+import java.util.List;
+import java.util.Locale;
+import java.util.Map;
+
+// In-memory inverted index over the catalog for the customer grid's search box and genre chips.
+// Movies get dense int doc ids in the order they arrive; title words and genres map to posting
+// lists of those ids (sorted int arrays), so a search is a few array scans and bitset ANDs rather
+// than a pass over every movie. Title words are kept once each in one sorted array, which also
+// answers the prefix lookup for the word being typed. Kept up to date from the same ChangeSets
+// that drive the grid. Not thread-safe: one thread (or serial executor) owns it.
+public class MovieIndex {
+    // Sorted distinct title words and, at the same positions, their token ids.
+    private String[] words = new String[256];
+    private int[] wordIds = new int[256];
+    private int wordCount;
+    private final List<Postings> titlePostings = new ArrayList<>();
+
+    // Genre keys are lowercase; the name shown is the first spelling seen.
+    private final Map<String, Integer> genreIds = new HashMap<>();
+    private final List<String> genreNames = new ArrayList<>();
+    private final List<Postings> genrePostings = new ArrayList<>();
+
+    // By doc id; null once removed. Ids aren't reused, so results keep arrival order.
+    private final List<Movie> docs = new ArrayList<>();
+    private final List<int[]> docTokens = new ArrayList<>();
+    private final List<int[]> docGenres = new ArrayList<>();
+    private final Map<String, Integer> docIds = new HashMap<>();
+
+    // Scratch bitsets over doc ids, reused across searches.
+    private long[] prefixBits = new long[0];
+    private long[] genreBits = new long[0];
+
+    public int size() {
+        return docIds.size();
+    }
+
+    // Same contract as ChangeSet.applyTo: a reset replaces everything.
+    public void apply(ChangeSet<Movie> changes) {
+        if (changes.isReset()) {
+            clear();
+            for (Movie m : changes.getResetItems()) put(m);
+            return;
+        }
+        for (ChangeSet.Op<Movie> op : changes.getOps()) {
+            if (op.type == ChangeSet.REMOVE) remove(op.item.getId());
+            else put(op.item);
+        }
+    }
+
+    public void clear() {
+        Arrays.fill(words, 0, wordCount, null);
+        wordCount = 0;
+        titlePostings.clear();
+        genreIds.clear();
+        genreNames.clear();
+        genrePostings.clear();
+        docs.clear();
+        docTokens.clear();
+        docGenres.clear();
+        docIds.clear();
+    }
+
+    // Adds the movie, or updates it in place (keeping its position) if its id is known.
+    public void put(Movie m) {
+        if (m.getId() == null) return;
+        int[] tokens = tokenIds(m.getTitle());
+        int[] genres = genreIds(m.getGenre());
+        Integer existing = docIds.get(m.getId());
+        if (existing == null) {
+            int doc = docs.size();
+            docIds.put(m.getId(), doc);
+            docs.add(m);
+            docTokens.add(tokens);
+            docGenres.add(genres);
+            for (int t : tokens) titlePostings.get(t).add(doc);
+            for (int g : genres) genrePostings.get(g).add(doc);
+            return;
+        }
+        int doc = existing;
+        docs.set(doc, m);
+        if (!Arrays.equals(tokens, docTokens.get(doc))) {
+            for (int t : docTokens.get(doc)) titlePostings.get(t).remove(doc);
+            for (int t : tokens) titlePostings.get(t).add(doc);
+            docTokens.set(doc, tokens);
+        }
+        if (!Arrays.equals(genres, docGenres.get(doc))) {
+            for (int g : docGenres.get(doc)) genrePostings.get(g).remove(doc);
+            for (int g : genres) genrePostings.get(g).add(doc);
+            docGenres.set(doc, genres);
+        }
+    }
+
+    public void remove(String movieId) {
+        Integer doc = movieId == null ? null : docIds.remove(movieId);
+        if (doc == null) return;
+        for (int t : docTokens.get(doc)) titlePostings.get(t).remove(doc);
+        for (int g : docGenres.get(doc)) genrePostings.get(g).remove(doc);
+        docs.set(doc, null);
+        docTokens.set(doc, null);
+        docGenres.set(doc, null);
+    }
+
+    // Movies whose title has every word of query, the last one as a prefix (it may still be
+    // being typed), and which are in at least one of genres (keys from getGenres()). An empty
+    // query or genre set doesn't filter. Results are in the order the movies were added.
+    public List<Movie> search(String query, Collection<String> genres) {
+        List<String> terms = tokenize(query);
+        List<Movie> results = new ArrayList<>();
+
+        // Whole words: their posting lists, smallest first.
+        List<Postings> required = new ArrayList<>();
+        for (int i = 0; i < terms.size() - 1; i++) {
+            int pos = find(terms.get(i));
+            if (pos < 0) return results;
+            required.add(titlePostings.get(wordIds[pos]));
+        }
+        Collections.sort(required, BY_SIZE);
+
+        int longs = (docs.size() + 63) >>> 6;
+        boolean byPrefix = !terms.isEmpty();
+        if (byPrefix) {
+            prefixBits = cleared(prefixBits, longs);
+            String prefix = terms.get(terms.size() - 1);
+            int pos = find(prefix);
+            for (int i = pos >= 0 ? pos : -pos - 1; i < wordCount && words[i].startsWith(prefix); i++) {
+                titlePostings.get(wordIds[i]).setBits(prefixBits);
+            }
+        }
+        boolean byGenre = genres != null && !genres.isEmpty();
+        if (byGenre) {
+            genreBits = cleared(genreBits, longs);
+            for (String genre : genres) {
+                Integer g = genreIds.get(genre.toLowerCase(Locale.ROOT));
+                if (g != null) genrePostings.get(g).setBits(genreBits);
+            }
+        }
+
+        if (!required.isEmpty()) {
+            Postings smallest = required.get(0);
+            for (int i = 0; i < smallest.size; i++) {
+                int doc = smallest.docs[i];
+                if (byPrefix && !isSet(prefixBits, doc)) continue;
+                if (byGenre && !isSet(genreBits, doc)) continue;
+                boolean all = true;
+                for (int r = 1; r < required.size() && all; r++) all = required.get(r).contains(doc);
+                if (all) results.add(docs.get(doc));
+            }
+        } else if (byPrefix || byGenre) {
+            for (int w = 0; w < longs; w++) {
+                long bits = byPrefix ? prefixBits[w] : -1L;
+                if (byGenre) bits &= genreBits[w];
+                while (bits != 0) {
+                    int doc = (w << 6) + Long.numberOfTrailingZeros(bits);
+                    bits &= bits - 1;
+                    results.add(docs.get(doc));
+                }
+            }
+        } else {
+            for (Movie m : docs) if (m != null) results.add(m);
+        }
+        return results;
+    }
+
+    // Genres with at least one movie, most common first, as {key, name, count}.
+    public List<Genre> getGenres() {
+        List<Genre> genres = new ArrayList<>();
+        for (Map.Entry<String, Integer> e : genreIds.entrySet()) {
+            int count = genrePostings.get(e.getValue()).size;
+            if (count > 0) genres.add(new Genre(e.getKey(), genreNames.get(e.getValue()), count));
+        }
+        Collections.sort(genres, (a, b) -> a.count != b.count ? b.count - a.count : a.name.compareTo(b.name));
+        return genres;
+    }
+
+    // Distinct title words and total postings, for sizing the index.
+    public int getWordCount() {
+        return wordCount;
+    }
+
+    public long getPostingCount() {
+        long n = 0;
+        for (Postings p : titlePostings) n += p.size;
+        for (Postings p : genrePostings) n += p.size;
+        return n;
+    }
+
+    // Lowercase letter/digit runs with accents removed: "Amélie (2001)" -> [amelie, 2001].
+    static List<String> tokenize(String text) {
+        List<String> tokens = new ArrayList<>();
+        if (text == null) return tokens;
+        String s = text.toLowerCase(Locale.ROOT);
+        for (int i = 0; i < s.length(); i++) {
+            if (s.charAt(i) > 0x7f) {
+                s = Normalizer.normalize(s, Normalizer.Form.NFD).replaceAll("\\p{M}+", "");
+                break;
+            }
+        }
+        int start = -1;
+        for (int i = 0; i <= s.length(); i++) {
+            boolean word = i < s.length() && Character.isLetterOrDigit(s.charAt(i));
+            if (word && start < 0) start = i;
+            if (!word && start >= 0) {
+                tokens.add(s.substring(start, i));
+                start = -1;
+            }
+        }
+        return tokens;
+    }
+
+    // Sorted, distinct token ids for title, interning new words.
+    private int[] tokenIds(String title) {
+        List<String> tokens = tokenize(title);
+        int[] ids = new int[tokens.size()];
+        int n = 0;
+        for (String token : tokens) {
+            int pos = find(token);
+            if (pos < 0) pos = insertWord(-pos - 1, token);
+            ids[n++] = wordIds[pos];
+        }
+        return distinct(ids, n);
+    }
+
+    // OMDb genres are comma-separated: "Action, Adventure, Sci-Fi".
+    private int[] genreIds(String genre) {
+        if (genre == null) return new int[0];
+        String[] parts = genre.split(",");
+        int[] ids = new int[parts.length];
+        int n = 0;
+        for (String part : parts) {
+            String name = part.trim();
+            if (name.isEmpty() || name.equalsIgnoreCase("N/A")) continue;
+            String key = name.toLowerCase(Locale.ROOT);
+            Integer id = genreIds.get(key);
+            if (id == null) {
+                id = genreNames.size();
+                genreIds.put(key, id);
+                genreNames.add(name);
+                genrePostings.add(new Postings());
+            }
+            ids[n++] = id;
+        }
+        return distinct(ids, n);
+    }
+
+    private static int[] distinct(int[] ids, int n) {
+        Arrays.sort(ids, 0, n);
+        int m = 0;
+        for (int i = 0; i < n; i++) if (m == 0 || ids[m - 1] != ids[i]) ids[m++] = ids[i];
+        return m == ids.length ? ids : Arrays.copyOf(ids, m);
+    }
+
+    // Position of word in the sorted array, or -(insertion point) - 1.
+    private int find(String word) {
+        return Arrays.binarySearch(words, 0, wordCount, word);
+    }
+
+    private int insertWord(int pos, String word) {
+        if (wordCount == words.length) {
+            words = Arrays.copyOf(words, wordCount * 2);
+            wordIds = Arrays.copyOf(wordIds, wordCount * 2);
+        }
+        System.arraycopy(words, pos, words, pos + 1, wordCount - pos);
+        System.arraycopy(wordIds, pos, wordIds, pos + 1, wordCount - pos);
+        words[pos] = word;
+        wordIds[pos] = titlePostings.size();
+        titlePostings.add(new Postings());
+        wordCount++;
+        return pos;
+    }
+
+    private static long[] cleared(long[] bits, int words) {
+        if (bits.length < words) return new long[Math.max(words, bits.length * 2)];
+        Arrays.fill(bits, 0, words, 0L);
+        return bits;
+    }
+
+    private static boolean isSet(long[] bits, int doc) {
+        return (bits[doc >>> 6] & (1L << doc)) != 0;
+    }
+
+    private static final Comparator<Postings> BY_SIZE = (a, b) -> a.size - b.size;
+
+    // Sorted doc ids. Docs mostly arrive in increasing order, so adds are usually appends.
+    private static class Postings {
+        int[] docs = new int[2];
+        int size;
+
+        void add(int doc) {
+            int pos = size == 0 || docs[size - 1] < doc ? size : Arrays.binarySearch(docs, 0, size, doc);
+            if (pos >= 0 && pos < size) return;
+            if (pos < 0) pos = -pos - 1;
+            if (size == docs.length) docs = Arrays.copyOf(docs, size * 2);
+            System.arraycopy(docs, pos, docs, pos + 1, size - pos);
+            docs[pos] = doc;
+            size++;
+        }
+
+        void remove(int doc) {
+            int pos = Arrays.binarySearch(docs, 0, size, doc);
+            if (pos < 0) return;
+            System.arraycopy(docs, pos + 1, docs, pos, size - pos - 1);
+            size--;
+        }
+
+        boolean contains(int doc) {
+            return Arrays.binarySearch(docs, 0, size, doc) >= 0;
+        }
+
+        void setBits(long[] bits) {
+            for (int i = 0; i < size; i++) bits[docs[i] >>> 6] |= 1L << docs[i];
+        }
+    }
+
+    public static class Genre {
+        private final String key;
+        private final String name;
+        private final int count;
+
+        Genre(String key, String name, int count) {
+            this.key = key;
+            this.name = name;
+            this.count = count;
+        }
+
+        public String getKey() { return key; }
+        public String getName() { return name; }
+        public int getCount() { return count; }
+    }
+}
@@ -0,0 +1,407 @@
+package com.example.moviebuzz;
+
+import android.content.Context;
+import com.bumptech.glide.disklrucache.DiskLruCache;
+import com.fasterxml.jackson.annotation.JsonIgnoreProperties;
+import com.fasterxml.jackson.annotation.JsonProperty;
+import com.fasterxml.jackson.core.JsonParser;
+import com.fasterxml.jackson.databind.ObjectMapper;
+import com.fasterxml.jackson.databind.ObjectReader;
+
+import java.io.File;
+import java.io.FileOutputStream;
+import java.io.FilterInputStream;
+import java.io.IOException;
+import java.io.InputStream;
+import java.io.OutputStream;
+import java.net.HttpURLConnection;
+import java.net.URL;
+import java.net.URLEncoder;
+import java.security.MessageDigest;
+import java.util.ArrayList;
+import java.util.Collections;
+import java.util.LinkedHashMap;
+import java.util.List;
+import java.util.Locale;
+import java.util.Map;
+import java.util.concurrent.Executor;
+import java.util.regex.Pattern;
+
+// Title lookups against OMDb. Requests run on a shared network executor with timeouts, and
+// every response body is read to the end and closed (never disconnect()ed) so the connection
+// goes back to HttpURLConnection's keep-alive pool. Bodies are parsed straight off the socket by
+// one shared Jackson reader while being copied into an on-disk LRU keyed by the normalized query,
+// so repeating a search costs no request at all.
+public class OmdbClient {
+    private static final String BASE_URL = "https://www.omdbapi.com/";
+    private static final String API_KEY = "48e4feec";
+    private static final int CONNECT_TIMEOUT_MS = 5_000;
+    private static final int READ_TIMEOUT_MS = 10_000;
+    // OMDb title responses are around 1 KB, so this holds a couple of thousand searches.
+    private static final long CACHE_BYTES = 2 * 1024 * 1024;
+    // Bump to drop every cached response, e.g. when Movie's JSON mapping changes.
+    private static final int CACHE_VERSION = 1;
+    private static final Pattern IMDB_ID = Pattern.compile("tt\\d{7,}");
+
+    // Readers are thread-safe and reusable. Closing the source is left to us, so the body can be drained.
+    private static final ObjectMapper MAPPER = new ObjectMapper()
+            .configure(JsonParser.Feature.AUTO_CLOSE_SOURCE, false);
+    private static final ObjectReader MOVIE_READER = MAPPER.readerFor(Movie.class);
+    private static final ObjectReader SEARCH_READER = MAPPER.readerFor(SearchPage.class);
+    // Recent ?s= results by Movie.titleKey(query), for answering keystrokes without I/O.
+    private static final int REMEMBERED_SEARCHES = 100;
+
+    private static OmdbClient instance;
+
+    private final String baseUrl;
+    private final String apiKey;
+    private final DiskLruCache cache;
+    private final Executor ioExecutor;
+    private final Executor callbackExecutor;
+    private final Map<String, SearchPage> searches = new LinkedHashMap<String, SearchPage>(16, 0.75f, true) {
+        @Override
+        protected boolean removeEldestEntry(Map.Entry<String, SearchPage> eldest) {
+            return size() > REMEMBERED_SEARCHES;
+        }
+    };
+
+    OmdbClient(String baseUrl, String apiKey, File cacheDir, long cacheBytes, Executor ioExecutor, Executor callbackExecutor) {
+        this.baseUrl = baseUrl;
+        this.apiKey = apiKey;
+        this.cache = openCache(cacheDir, cacheBytes);
+        this.ioExecutor = ioExecutor;
+        this.callbackExecutor = callbackExecutor;
+    }
+
+    public static synchronized OmdbClient getInstance(Context context) {
+        if (instance == null) {
+            File dir = new File(context.getApplicationContext().getCacheDir(), "omdb");
+            instance = new OmdbClient(BASE_URL, API_KEY, dir, CACHE_BYTES, AppExecutors.network(), AppExecutors.mainThread());
+        }
+        return instance;
+    }
+
+    // The movie OMDb returns for title, or null if it has none. Delivered on the main thread.
+    public void findByTitle(String title, DatabaseHelper.DatabaseCallback<Movie> callback) {
+        ioExecutor.execute(() -> {
+            try {
+                Movie movie = fetch(title);
+                callbackExecutor.execute(() -> callback.onSuccess(movie));
+            } catch (Exception e) {
+                callbackExecutor.execute(() -> callback.onFailure(e));
+            }
+        });
+    }
+
+    // Blocking variant of findByTitle for callers already on a background thread. Also accepts
+    // an IMDb id ("tt0111161") in place of the title.
+    Movie fetch(String query) throws IOException {
+        String value = query.trim();
+        if (isImdbId(value)) {
+            value = value.toLowerCase(Locale.ROOT);
+            return found(load("i", value, cacheKey("id:" + value), MOVIE_READER, "omdb", null));
+        }
+        // Not-found answers are cached as well, and map to null the same way.
+        return found(load("t", value, cacheKey(Movie.titleKey(value)), MOVIE_READER, "omdb", null));
+    }
+
+    // OMDb answers unknown titles with a 200 and {"Response":"False"}, which maps to no title.
+    private static Movie found(Movie movie) {
+        return movie != null && movie.getTitle() != null ? movie : null;
+    }
+
+    // Titles matching query from the ?s= endpoint, at most one page of them. Returns null without
+    // parsing the response once cancellation reports the result is no longer wanted.
+    List<Suggestion> search(String query, Cancellation cancellation) throws IOException {
+        String key = Movie.titleKey(query);
+        SearchPage page = rememberedSearch(key);
+        if (page == null) {
+            page = load("s", query.trim(), cacheKey("s:" + key), SEARCH_READER, "omdb.search", cancellation);
+            if (page == null) return null;
+            synchronized (searches) {
+                searches.put(key, page);
+            }
+        }
+        return page.getResults();
+    }
+
+    // What search(query) would return, if that's known without any I/O: query was searched
+    // recently, or it only adds words to a recent query whose results all fit in one page, in
+    // which case they are filtered locally. Cheap enough for the main thread; null otherwise.
+    List<Suggestion> cachedSuggestions(String query) {
+        String key = Movie.titleKey(query);
+        SearchPage page = rememberedSearch(key);
+        if (page != null) return page.getResults();
+        synchronized (searches) {
+            for (int i = key.lastIndexOf(' '); i > 0; i = key.lastIndexOf(' ', i - 1)) {
+                SearchPage broader = searches.get(key.substring(0, i));
+                if (broader == null || !broader.isComplete()) continue;
+                List<Suggestion> narrowed = new ArrayList<>();
+                String[] words = key.split(" ");
+                for (Suggestion s : broader.getResults()) if (s.matches(words)) narrowed.add(s);
+                searches.put(key, new SearchPage(narrowed));
+                return narrowed;
+            }
+        }
+        return null;
+    }
+
+    private SearchPage rememberedSearch(String key) {
+        synchronized (searches) {
+            return searches.get(key);
+        }
+    }
+
+    private <T> T load(String param, String value, String key, ObjectReader reader, String metric,
+                       Cancellation cancellation) throws IOException {
+        T cached = readCached(key, reader, metric);
+        if (cached != null) return cached;
+
+        long start = System.nanoTime();
+        URL url = new URL(baseUrl + "?" + param + "=" + URLEncoder.encode(value, "UTF-8") + "&apikey=" + apiKey);
+        HttpURLConnection conn = (HttpURLConnection) url.openConnection();
+        conn.setConnectTimeout(CONNECT_TIMEOUT_MS);
+        conn.setReadTimeout(READ_TIMEOUT_MS);
+        try {
+            int code = conn.getResponseCode();
+            if (code != HttpURLConnection.HTTP_OK) {
+                drainAndClose(conn.getErrorStream());
+                throw new IOException("OMDb returned HTTP " + code);
+            }
+            TeeInputStream body = new TeeInputStream(conn.getInputStream(), edit(key));
+            T result = null;
+            try {
+                // A superseded response is still read to the end, which keeps the connection
+                // reusable and fills the cache, but it isn't parsed.
+                if (cancellation == null || !cancellation.isCancelled()) result = reader.readValue(body);
+                // Whatever follows the JSON (usually nothing) must be consumed before the
+                // connection can be reused, and belongs in the cached copy too.
+                body.drain();
+                body.commit();
+            } finally {
+                body.close();
+            }
+            Diagnostics.record(metric, start, result != null ? 1 : -1, body.count, false);
+            return result;
+        } catch (IOException e) {
+            Diagnostics.record(metric, start, -1, -1, true);
+            throw e;
+        }
+    }
+
+    private <T> T readCached(String key, ObjectReader reader, String metric) {
+        if (cache == null) return null;
+        long start = System.nanoTime();
+        try {
+            DiskLruCache.Value value = cache.get(key);
+            if (value == null) return null;
+            T result = reader.readValue(value.getFile(0));
+            Diagnostics.record(metric + ".cached", start, 1, value.getLength(0), false);
+            return result;
+        } catch (IOException e) {
+            // Unreadable entry: forget it and go to the network.
+            try {
+                cache.remove(key);
+            } catch (IOException ignored) {
+            }
+            return null;
+        }
+    }
+
+    private DiskLruCache.Editor edit(String key) {
+        if (cache == null) return null;
+        try {
+            // Null while another thread is writing the same key; this response then just isn't cached.
+            return cache.edit(key);
+        } catch (IOException e) {
+            return null;
+        }
+    }
+
+    private static DiskLruCache openCache(File dir, long maxBytes) {
+        if (dir == null) return null;
+        try {
+            return DiskLruCache.open(dir, CACHE_VERSION, 1, maxBytes);
+        } catch (IOException e) {
+            // Works without a cache, just slower.
+            return null;
+        }
+    }
+
+    static boolean isImdbId(String query) {
+        return IMDB_ID.matcher(query.trim().toLowerCase(Locale.ROOT)).matches();
+    }
+
+    // DiskLruCache keys must match [a-z0-9_-]{1,120}, so the normalized query is hashed.
+    private static String cacheKey(String normalized) {
+        try {
+            MessageDigest sha = MessageDigest.getInstance("SHA-256");
+            byte[] digest = sha.digest(normalized.getBytes("UTF-8"));
+            StringBuilder hex = new StringBuilder(digest.length * 2);
+            for (byte b : digest) hex.append(String.format(Locale.US, "%02x", b));
+            return hex.toString();
+        } catch (Exception e) {
+            throw new IllegalStateException(e);
+        }
+    }
+
+    private static void drainAndClose(InputStream in) throws IOException {
+        if (in == null) return;
+        try (InputStream stream = in) {
+            byte[] buf = new byte[4096];
+            while (stream.read(buf) != -1) {
+                // Discard.
+            }
+        }
+    }
+
+    // Copies everything read from the response into a cache entry, and counts the bytes.
+    private static class TeeInputStream extends FilterInputStream {
+        private final DiskLruCache.Editor editor;
+        private OutputStream copy;
+        long count;
+
+        TeeInputStream(InputStream in, DiskLruCache.Editor editor) {
+            super(in);
+            this.editor = editor;
+            if (editor != null) {
+                try {
+                    copy = new FileOutputStream(editor.getFile(0));
+                } catch (IOException e) {
+                    editor.abortUnlessCommitted();
+                    copy = null;
+                }
+            }
+        }
+
+        @Override
+        public int read() throws IOException {
+            int b = super.read();
+            if (b != -1) write(new byte[]{(byte) b}, 0, 1);
+            return b;
+        }
+
+        @Override
+        public int read(byte[] buf, int off, int len) throws IOException {
+            int n = super.read(buf, off, len);
+            if (n > 0) write(buf, off, n);
+            return n;
+        }
+
+        void drain() throws IOException {
+            byte[] buf = new byte[4096];
+            while (read(buf, 0, buf.length) != -1) {
+                // Copied by read().
+            }
+        }
+
+        private void write(byte[] buf, int off, int len) {
+            count += len;
+            if (copy == null) return;
+            try {
+                copy.write(buf, off, len);
+            } catch (IOException e) {
+                abortCopy();
+            }
+        }
+
+        void commit() {
+            if (copy == null) return;
+            try {
+                copy.close();
+                editor.commit();
+            } catch (IOException e) {
+                editor.abortUnlessCommitted();
+            }
+            copy = null;
+        }
+
+        @Override
+        public void close() throws IOException {
+            super.close();
+            // Still copying here means parsing failed before commit(), so the copy may be partial.
+            if (copy != null) abortCopy();
+        }
+
+        private void abortCopy() {
+            try {
+                copy.close();
+            } catch (IOException ignored) {
+            }
+            copy = null;
+            editor.abortUnlessCommitted();
+        }
+    }
+
+    interface Cancellation {
+        boolean isCancelled();
+    }
+
+    // One ?s= result: enough to show the title and fetch the full movie by id.
+    @JsonIgnoreProperties(ignoreUnknown = true)
+    public static class Suggestion {
+        @JsonProperty("Title")
+        private String title;
+        @JsonProperty("Year")
+        private String year;
+        @JsonProperty("imdbID")
+        private String imdbId;
+
+        public String getTitle() { return title; }
+        public String getYear() { return year; }
+        public String getImdbId() { return imdbId; }
+
+        // Every word of the query is a word of the title, the last one possibly cut short.
+        boolean matches(String[] queryWords) {
+            if (title == null) return false;
+            List<String> titleWords = new ArrayList<>();
+            Collections.addAll(titleWords, Movie.titleKey(title).split(" "));
+            for (int i = 0; i < queryWords.length; i++) {
+                boolean last = i == queryWords.length - 1;
+                boolean found = false;
+                for (String word : titleWords) {
+                    if (last ? word.startsWith(queryWords[i]) : word.equals(queryWords[i])) {
+                        found = true;
+                        break;
+                    }
+                }
+                if (!found) return false;
+            }
+            return true;
+        }
+
+        // Shown in the suggestion dropdown.
+        @Override
+        public String toString() {
+            return year != null ? title + " (" + year + ")" : title;
+        }
+    }
+
+    // A ?s= response. OMDb answers no matches, and queries too broad to list, with
+    // {"Response":"False","Error":...} instead of an empty page.
+    @JsonIgnoreProperties(ignoreUnknown = true)
+    static class SearchPage {
+        @JsonProperty("Search")
+        private List<Suggestion> results;
+        @JsonProperty("totalResults")
+        private int totalResults;
+        @JsonProperty("Error")
+        private String error;
+
+        SearchPage() {}
+
+        SearchPage(List<Suggestion> results) {
+            this.results = results;
+            this.totalResults = results.size();
+        }
+
+        List<Suggestion> getResults() {
+            return results != null ? results : Collections.<Suggestion>emptyList();
+        }
+
+        // Holds every match rather than the first page, or "Too many results."
+        boolean isComplete() {
+            return results != null ? results.size() >= totalResults : "Movie not found!".equals(error);
+        }
+    }
+}
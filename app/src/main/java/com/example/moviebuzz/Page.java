@@ -0,0 +1,31 @@
+package com.example.moviebuzz;
+
+import java.util.ArrayList;
+import java.util.Collections;
+import java.util.List;
+
+public class Page<T> {
+    private final List<T> items;
+    private final PageCursor next;
+
+    public Page(List<T> items, PageCursor next) {
+        this.items = Collections.unmodifiableList(items);
+        this.next = next;
+    }
+
+    public List<T> getItems() { return items; }
+
+    // Cursor for the following page, or null if this is the last one.
+    public PageCursor getNext() { return next; }
+
+    interface CursorOf<T> {
+        PageCursor cursorOf(T item);
+    }
+
+    // Backends fetch limit + 1 rows; the extra row only tells us whether another page exists.
+    static <T> Page<T> fromOverfetch(List<T> rows, int limit, CursorOf<T> cursorOf) {
+        if (rows.size() <= limit) return new Page<>(rows, null);
+        List<T> items = new ArrayList<>(rows.subList(0, limit));
+        return new Page<>(items, cursorOf.cursorOf(items.get(limit - 1)));
+    }
+}
@@ -0,0 +1,17 @@
+package com.example.moviebuzz;
+
+// Position just after the last row of a page: the ordering child's value plus the row's key,
+// which together are unique even when many rows share a value.
+public class PageCursor {
+    private final String value;
+    private final String key;
+
+    public PageCursor(String value, String key) {
+        this.value = value;
+        this.key = key;
+    }
+
+    public String getValue() { return value; }
+
+    public String getKey() { return key; }
+}
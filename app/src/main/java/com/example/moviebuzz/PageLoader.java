@@ -0,0 +1,82 @@
+package com.example.moviebuzz;
+
+import androidx.lifecycle.LifecycleOwner;
+import androidx.recyclerview.widget.LinearLayoutManager;
+import androidx.recyclerview.widget.RecyclerView;
+import java.util.ArrayList;
+import java.util.List;
+
+// Grows a RecyclerView's backing list one page at a time as the user nears the end, so the
+// first rows appear after a single small query however large the collection is. Expects the
+// fetcher to answer on the main thread, as DatabaseHelper does; pages arriving after the owner
+// is destroyed are dropped.
+public class PageLoader<T> extends RecyclerView.OnScrollListener {
+    private final List<T> items = new ArrayList<>();
+    private final LifecycleOwner owner;
+    private final RecyclerView.Adapter<?> adapter;
+    private final Fetcher<T> fetcher;
+    private final int pageSize;
+    private PageCursor next;
+    private boolean loading;
+    private boolean exhausted;
+    private Listener listener;
+
+    public interface Fetcher<T> {
+        void fetch(PageCursor after, int limit, DatabaseHelper.DatabaseCallback<Page<T>> callback);
+    }
+
+    public interface Listener {
+        void onFailure(Exception e);
+    }
+
+    public PageLoader(LifecycleOwner owner, RecyclerView.Adapter<?> adapter, int pageSize, Fetcher<T> fetcher) {
+        this.owner = owner;
+        this.adapter = adapter;
+        this.pageSize = pageSize;
+        this.fetcher = fetcher;
+    }
+
+    public void setListener(Listener listener) {
+        this.listener = listener;
+    }
+
+    public List<T> getItems() {
+        return items;
+    }
+
+    public void attachTo(RecyclerView recyclerView) {
+        recyclerView.addOnScrollListener(this);
+        loadNext();
+    }
+
+    public void loadNext() {
+        if (loading || exhausted) return;
+        loading = true;
+        fetcher.fetch(next, pageSize, DatabaseHelper.whileAlive(owner, new DatabaseHelper.DatabaseCallback<Page<T>>() {
+            @Override
+            public void onSuccess(Page<T> page) {
+                int start = items.size();
+                items.addAll(page.getItems());
+                adapter.notifyItemRangeInserted(start, page.getItems().size());
+                next = page.getNext();
+                exhausted = next == null;
+                loading = false;
+            }
+
+            @Override
+            public void onFailure(Exception e) {
+                loading = false;
+                if (listener != null) listener.onFailure(e);
+            }
+        }));
+    }
+
+    @Override
+    public void onScrolled(RecyclerView recyclerView, int dx, int dy) {
+        RecyclerView.LayoutManager layoutManager = recyclerView.getLayoutManager();
+        if (!(layoutManager instanceof LinearLayoutManager)) return;
+        int lastVisible = ((LinearLayoutManager) layoutManager).findLastVisibleItemPosition();
+        // Start the next query while half a page is still left to scroll through.
+        if (lastVisible >= items.size() - pageSize / 2) loadNext();
+    }
+}
@@ -0,0 +1,234 @@
+package com.example.moviebuzz;
+
+import android.content.Context;
+import android.graphics.Bitmap;
+import android.graphics.BitmapFactory;
+import android.graphics.Canvas;
+import android.graphics.Paint;
+import android.graphics.Rect;
+
+import com.google.android.gms.tasks.Task;
+import com.google.android.gms.tasks.Tasks;
+import com.google.firebase.storage.FirebaseStorage;
+import com.google.firebase.storage.StorageException;
+import com.google.firebase.storage.StorageMetadata;
+import com.google.firebase.storage.StorageReference;
+
+import java.io.ByteArrayOutputStream;
+import java.io.IOException;
+import java.io.InputStream;
+import java.io.UnsupportedEncodingException;
+import java.net.HttpURLConnection;
+import java.net.URL;
+import java.net.URLEncoder;
+import java.security.MessageDigest;
+import java.util.Locale;
+import java.util.concurrent.ExecutionException;
+import java.util.concurrent.Executor;
+import java.util.concurrent.TimeUnit;
+
+// Poster derivatives, made once when a movie is imported instead of on every device. The OMDb
+// poster is downloaded at hero size, cropped and scaled to the grid and details sizes, and each
+// JPEG is stored in Firebase Storage under posters/<sha256 of its bytes>.jpg. The movie records
+// the two hashes. A name never changes content, so objects are written once (storage.rules
+// allows create only), served with a year-long immutable Cache-Control, and Glide's cache key (the
+// URL) never goes stale.
+public class PosterStore {
+    static final int THUMB_WIDTH = ImageConfig.GRID_WIDTH;
+    static final int HERO_WIDTH = ImageConfig.DETAILS_WIDTH;
+    // Posters are 2:3; both derivatives are cropped to it so cells line up.
+    private static final int ASPECT_W = 2, ASPECT_H = 3;
+    private static final int JPEG_QUALITY = 85;
+    private static final String CACHE_CONTROL = "public, max-age=31536000, immutable";
+    private static final int CONNECT_TIMEOUT_MS = 5_000;
+    private static final int READ_TIMEOUT_MS = 15_000;
+    private static final long STORAGE_TIMEOUT_S = 30;
+
+    private static PosterStore instance;
+
+    // Null in local-backend builds, where there's no Firebase project to upload to.
+    private final FirebaseStorage storage;
+    private final Executor ioExecutor;
+    private final Executor callbackExecutor;
+
+    PosterStore(FirebaseStorage storage, Executor ioExecutor, Executor callbackExecutor) {
+        this.storage = storage;
+        this.ioExecutor = ioExecutor;
+        this.callbackExecutor = callbackExecutor;
+    }
+
+    public static synchronized PosterStore getInstance(Context context) {
+        if (instance == null) {
+            instance = new PosterStore(BuildConfig.USE_LOCAL_BACKEND ? null : FirebaseStorage.getInstance(),
+                    AppExecutors.network(), AppExecutors.mainThread());
+        }
+        return instance;
+    }
+
+    public static boolean hasPoster(Movie m) {
+        if (m.getPosterThumbKey() != null) return true;
+        String url = m.getPosterPath();
+        return url != null && !url.isEmpty() && !url.equalsIgnoreCase("N/A");
+    }
+
+    // The grid poster: the stored thumbnail, or the OMDb image for movies imported before
+    // derivatives existed (or whose poster couldn't be processed).
+    public String gridUrl(Movie m, ImageConfig imageConfig, ImageConfig.Mode mode) {
+        if (m.getPosterThumbKey() != null && storage != null) return url(m.getPosterThumbKey());
+        return imageConfig.gridPosterUrl(m.getPosterPath(), mode);
+    }
+
+    // Null when high resolution is deferred (see ImageConfig.detailsPosterUrl).
+    public String heroUrl(Movie m, ImageConfig imageConfig, ImageConfig.Mode mode) {
+        if (mode == ImageConfig.Mode.DATA_SAVER) return null;
+        if (m.getPosterHeroKey() != null && storage != null) return url(m.getPosterHeroKey());
+        return imageConfig.detailsPosterUrl(m.getPosterPath(), mode);
+    }
+
+    private String url(String key) {
+        return publicUrl(storage.getReference().getBucket(), key);
+    }
+
+    // Storage's REST URL for a public object; building it locally saves a getDownloadUrl() round
+    // trip per poster, and it carries no token, so it's the same on every device.
+    static String publicUrl(String bucket, String key) {
+        try {
+            return "https://firebasestorage.googleapis.com/v0/b/" + bucket + "/o/"
+                    + URLEncoder.encode(path(key), "UTF-8") + "?alt=media";
+        } catch (UnsupportedEncodingException e) {
+            throw new IllegalStateException(e);
+        }
+    }
+
+    private static String path(String key) {
+        return "posters/" + key + ".jpg";
+    }
+
+    // Sets the movie's derivative keys on success; on failure the movie is delivered unchanged
+    // and keeps showing the OMDb poster, since a missing derivative isn't worth failing a save.
+    public void attachDerivatives(Movie movie, DatabaseHelper.DatabaseCallback<Movie> callback) {
+        ioExecutor.execute(() -> {
+            attachDerivatives(movie);
+            callbackExecutor.execute(() -> callback.onSuccess(movie));
+        });
+    }
+
+    // Blocking version for callers already on a worker thread, like CatalogImporter.
+    public boolean attachDerivatives(Movie movie) {
+        if (storage == null || !hasPoster(movie) || movie.getPosterThumbKey() != null) return false;
+        long start = System.nanoTime();
+        try {
+            byte[] source = download(ImageConfig.posterUrl(movie.getPosterPath(), HERO_WIDTH));
+            byte[] thumb = derive(source, THUMB_WIDTH);
+            byte[] hero = derive(source, HERO_WIDTH);
+            String thumbKey = sha256(thumb);
+            String heroKey = sha256(hero);
+            upload(thumbKey, thumb);
+            upload(heroKey, hero);
+            movie.setPosterThumbKey(thumbKey);
+            movie.setPosterHeroKey(heroKey);
+            Diagnostics.record("poster.derive", start, 2, thumb.length + hero.length, false);
+            return true;
+        } catch (Exception e) {
+            Diagnostics.record("poster.derive", start, -1, -1, true);
+            return false;
+        }
+    }
+
+    private static byte[] download(String url) throws IOException {
+        HttpURLConnection conn = (HttpURLConnection) new URL(url).openConnection();
+        conn.setConnectTimeout(CONNECT_TIMEOUT_MS);
+        conn.setReadTimeout(READ_TIMEOUT_MS);
+        int code = conn.getResponseCode();
+        if (code != HttpURLConnection.HTTP_OK) {
+            InputStream error = conn.getErrorStream();
+            if (error != null) error.close();
+            throw new IOException("Poster returned HTTP " + code);
+        }
+        try (InputStream in = conn.getInputStream()) {
+            ByteArrayOutputStream out = new ByteArrayOutputStream(64 * 1024);
+            byte[] buf = new byte[8192];
+            int n;
+            while ((n = in.read(buf)) != -1) out.write(buf, 0, n);
+            return out.toByteArray();
+        }
+    }
+
+    // A width x (width * 3 / 2) JPEG, center-cropped from the source.
+    private static byte[] derive(byte[] source, int width) throws IOException {
+        int height = width * ASPECT_H / ASPECT_W;
+        BitmapFactory.Options bounds = new BitmapFactory.Options();
+        bounds.inJustDecodeBounds = true;
+        BitmapFactory.decodeByteArray(source, 0, source.length, bounds);
+        if (bounds.outWidth <= 0 || bounds.outHeight <= 0) throw new IOException("Poster is not an image");
+
+        BitmapFactory.Options options = new BitmapFactory.Options();
+        options.inSampleSize = sampleSize(bounds.outWidth, bounds.outHeight, width, height);
+        Bitmap decoded = BitmapFactory.decodeByteArray(source, 0, source.length, options);
+        if (decoded == null) throw new IOException("Poster could not be decoded");
+        Bitmap scaled = Bitmap.createBitmap(width, height, Bitmap.Config.ARGB_8888);
+        try {
+            int[] crop = crop(decoded.getWidth(), decoded.getHeight(), width, height);
+            new Canvas(scaled).drawBitmap(decoded, new Rect(crop[0], crop[1], crop[2], crop[3]),
+                    new Rect(0, 0, width, height), new Paint(Paint.FILTER_BITMAP_FLAG));
+            ByteArrayOutputStream out = new ByteArrayOutputStream();
+            scaled.compress(Bitmap.CompressFormat.JPEG, JPEG_QUALITY, out);
+            return out.toByteArray();
+        } finally {
+            decoded.recycle();
+            scaled.recycle();
+        }
+    }
+
+    // Largest power of two that still decodes at least width x height.
+    static int sampleSize(int srcWidth, int srcHeight, int width, int height) {
+        int sample = 1;
+        while (srcWidth / (sample * 2) >= width && srcHeight / (sample * 2) >= height) sample *= 2;
+        return sample;
+    }
+
+    // {left, top, right, bottom} of the centered region of a srcWidth x srcHeight image with the
+    // aspect ratio of width x height.
+    static int[] crop(int srcWidth, int srcHeight, int width, int height) {
+        if ((long) srcWidth * height > (long) srcHeight * width) {
+            int w = (int) ((long) srcHeight * width / height);
+            int left = (srcWidth - w) / 2;
+            return new int[]{left, 0, left + w, srcHeight};
+        }
+        int h = (int) ((long) srcWidth * height / width);
+        int top = (srcHeight - h) / 2;
+        return new int[]{0, top, srcWidth, top + h};
+    }
+
+    static String sha256(byte[] data) {
+        try {
+            byte[] digest = MessageDigest.getInstance("SHA-256").digest(data);
+            StringBuilder hex = new StringBuilder(digest.length * 2);
+            for (byte b : digest) hex.append(String.format(Locale.US, "%02x", b));
+            return hex.toString();
+        } catch (Exception e) {
+            throw new IllegalStateException(e);
+        }
+    }
+
+    // Skips objects that already exist: the same poster imported twice, or shared by two movies.
+    private void upload(String key, byte[] data) throws Exception {
+        StorageReference ref = storage.getReference(path(key));
+        Task<StorageMetadata> existing = ref.getMetadata();
+        try {
+            Tasks.await(existing, STORAGE_TIMEOUT_S, TimeUnit.SECONDS);
+            return;
+        } catch (ExecutionException e) {
+            Exception error = existing.getException();
+            if (!(error instanceof StorageException)
+                    || ((StorageException) error).getErrorCode() != StorageException.ERROR_OBJECT_NOT_FOUND) {
+                throw e;
+            }
+        }
+        StorageMetadata metadata = new StorageMetadata.Builder()
+                .setContentType("image/jpeg")
+                .setCacheControl(CACHE_CONTROL)
+                .build();
+        Tasks.await(ref.putBytes(data, metadata), STORAGE_TIMEOUT_S, TimeUnit.SECONDS);
+    }
+}
@@ -0,0 +1,27 @@
+package com.example.moviebuzz;
+
+public class RefundResult {
+    private int refundedBookings;
+    private int creditedUsers;
+    private double totalRefunded;
+
+    public RefundResult() {
+
+    }
+
+    public RefundResult(int refundedBookings, int creditedUsers, double totalRefunded) {
+        this.refundedBookings = refundedBookings;
+        this.creditedUsers = creditedUsers;
+        this.totalRefunded = totalRefunded;
+    }
+
+
+    public int getRefundedBookings() { return refundedBookings; }
+    public void setRefundedBookings(int refundedBookings) { this.refundedBookings = refundedBookings; }
+
+    public int getCreditedUsers() { return creditedUsers; }
+    public void setCreditedUsers(int creditedUsers) { this.creditedUsers = creditedUsers; }
+
+    public double getTotalRefunded() { return totalRefunded; }
+    public void setTotalRefunded(double totalRefunded) { this.totalRefunded = totalRefunded; }
+}
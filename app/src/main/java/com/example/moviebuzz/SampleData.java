@@ -0,0 +1,42 @@
+package com.example.moviebuzz;
+
+import java.util.Locale;
+
+// Fixed catalog served by an InMemoryBackend in builds with BuildConfig.USE_LOCAL_BACKEND (the
+// benchmark build type), so macrobenchmarks see the same data on every run and need no network.
+// Posters are left empty: the grid then measures binding and layout, not image downloads.
+final class SampleData {
+    static final String USERNAME = "bench";
+    static final String PASSWORD = "bench";
+
+    private static final int MOVIES = 60;
+    private static final int SHOWS_PER_MOVIE = 4;
+    private static final String[] GENRES = {"Action", "Drama", "Comedy", "Sci-Fi", "Thriller", "Animation"};
+    // Fixed rather than random, so runs stay comparable while still paying a network-like hop.
+    private static final long LATENCY_MS = 40;
+
+    private SampleData() {}
+
+    static InMemoryBackend createBackend() {
+        InMemoryBackend backend = new InMemoryBackend();
+        // Enough that booking in every iteration of a benchmark never runs out.
+        backend.addUser(new User(USERNAME, PASSWORD, "customer", 1_000_000_000), ignore());
+        for (int m = 0; m < MOVIES; m++) {
+            String title = String.format(Locale.US, "Feature %02d", m + 1);
+            backend.addMovie(new Movie(title, GENRES[m % GENRES.length], (90 + m % 60) + " min", null), ignore());
+            for (int s = 0; s < SHOWS_PER_MOVIE; s++) {
+                String date = String.format(Locale.US, "2026-01-%02d", s + 1);
+                backend.addShow(new Show(title, date, "7:00 PM", 250 + 50 * (s % 3), "Active"), ignore());
+            }
+        }
+        backend.setLatency(LATENCY_MS, LATENCY_MS);
+        return backend;
+    }
+
+    private static <T> DatabaseHelper.DatabaseCallback<T> ignore() {
+        return new DatabaseHelper.DatabaseCallback<T>() {
+            @Override public void onSuccess(T result) { }
+            @Override public void onFailure(Exception e) { }
+        };
+    }
+}
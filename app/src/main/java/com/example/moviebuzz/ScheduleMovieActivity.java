@@ -104,19 +104,15 @@ public class ScheduleMovieActivity extends AppCompatActivity {
             databaseHelper.addShow(show, new DatabaseHelper.DatabaseCallback<String>() {
                 @Override
                 public void onSuccess(String showId) {
-                    runOnUiThread(() -> {
-                        Toast.makeText(ScheduleMovieActivity.this,
-                                "Show scheduled for " + title, Toast.LENGTH_SHORT).show();
-                        finish();
-                    });
+                    Toast.makeText(ScheduleMovieActivity.this,
+                            "Show scheduled for " + title, Toast.LENGTH_SHORT).show();
+                    finish();
                 }
 
                 @Override
                 public void onFailure(Exception e) {
-                    runOnUiThread(() ->
-                            Toast.makeText(ScheduleMovieActivity.this,
-                                    "Database Error: " + e.getMessage(), Toast.LENGTH_LONG).show()
-                    );
+                    Toast.makeText(ScheduleMovieActivity.this,
+                            "Database Error: " + e.getMessage(), Toast.LENGTH_LONG).show();
                 }
             });
 
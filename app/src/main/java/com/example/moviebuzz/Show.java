@@ -1,5 +1,9 @@
 package com.example.moviebuzz;
 
+import com.google.firebase.database.PropertyName;
+
+import java.util.Objects;
+
 public class Show {
     private String showId;
     private String movieTitle;
@@ -7,6 +11,8 @@ public class Show {
     private String showTime;
     private double price;
     private String status;
+    // Confirmed tickets, kept by bookTickets and cancelShowWithRefunds so totals need no booking scan.
+    private int ticketsSold;
 
     public Show() {
 
@@ -38,4 +44,35 @@ public class Show {
 
     public String getStatus() { return status; }
     public void setStatus(String status) { this.status = status; }
-}
\ No newline at end of file
+
+    public int getTicketsSold() { return ticketsSold; }
+    public void setTicketsSold(int ticketsSold) { this.ticketsSold = ticketsSold; }
+
+    // Denormalized "<movieTitle>_<status>" so one equalTo() query returns only a movie's bookable
+    // shows. Always derived; stored so the server can index it.
+    @PropertyName("movieTitle_status")
+    public String getMovieTitleStatus() { return titleStatusKey(movieTitle, status); }
+    @PropertyName("movieTitle_status")
+    public void setMovieTitleStatus(String movieTitleStatus) {}
+
+    // Field by field, so a list diff can tell an edited show from an unchanged one.
+    @Override
+    public boolean equals(Object o) {
+        if (this == o) return true;
+        if (!(o instanceof Show)) return false;
+        Show s = (Show) o;
+        return Double.compare(price, s.price) == 0 && ticketsSold == s.ticketsSold
+                && Objects.equals(showId, s.showId) && Objects.equals(movieTitle, s.movieTitle)
+                && Objects.equals(showDate, s.showDate) && Objects.equals(showTime, s.showTime)
+                && Objects.equals(status, s.status);
+    }
+
+    @Override
+    public int hashCode() {
+        return Objects.hash(showId, movieTitle, showDate, showTime, price, status, ticketsSold);
+    }
+
+    public static String titleStatusKey(String movieTitle, String status) {
+        return movieTitle + "_" + status;
+    }
+}
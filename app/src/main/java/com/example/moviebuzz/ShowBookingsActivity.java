@@ -9,7 +9,6 @@ import androidx.appcompat.app.AppCompatActivity;
 import androidx.recyclerview.widget.LinearLayoutManager;
 import androidx.recyclerview.widget.RecyclerView;
 
-import java.util.ArrayList;
 import java.util.List;
 
 public class ShowBookingsActivity extends AppCompatActivity {
@@ -19,8 +18,10 @@ public class ShowBookingsActivity extends AppCompatActivity {
     private Button closeButton;
 
     private DatabaseHelper databaseHelper;
-    private final List<Booking> bookingList = new ArrayList<>();
+    private static final int PAGE_SIZE = 50;
+    private List<Booking> bookingList;
     private BookingAdapter bookingAdapter;
+    private PageLoader<Booking> bookingPages;
 
     private String showId, showMovie, showDate;
 
@@ -59,40 +60,30 @@ public class ShowBookingsActivity extends AppCompatActivity {
         bookingAdapter = new BookingAdapter();
         bookingsRecyclerView.setLayoutManager(new LinearLayoutManager(this));
         bookingsRecyclerView.setAdapter(bookingAdapter);
+        bookingPages = new PageLoader<>(this, bookingAdapter, PAGE_SIZE,
+                (after, limit, cb) -> databaseHelper.getBookingsByShowPage(showId, after, limit, cb));
+        bookingList = bookingPages.getItems();
+        bookingPages.setListener(e ->
+                Toast.makeText(ShowBookingsActivity.this, "Error loading bookings", Toast.LENGTH_SHORT).show());
     }
 
     private void loadBookings() {
-        databaseHelper.getBookingsByShow(showId,
-                new DatabaseHelper.DatabaseCallback<List<Booking>>() {
-
-                    @Override
-                    public void onSuccess(List<Booking> bookings) {
-                        bookingList.clear();
-                        bookingList.addAll(bookings);
-
-                        int activeTickets = 0;
-                        for (Booking booking : bookings) {
-                            // Sum up only active/confirmed bookings
-                            if ("Confirmed".equalsIgnoreCase(booking.getStatus())) {
-                                activeTickets += booking.getTicketCount();
-                            }
-                        }
-
-                        final int total = activeTickets;
-                        runOnUiThread(() -> {
-                            bookingAdapter.notifyDataSetChanged();
-                            totalSoldLabel.setText("Total Tickets Sold: " + total);
-                        });
-                    }
-
-                    @Override
-                    public void onFailure(Exception e) {
-                        runOnUiThread(() ->
-                                Toast.makeText(ShowBookingsActivity.this,
-                                        "Error loading bookings", Toast.LENGTH_SHORT).show()
-                        );
-                    }
-                });
+        bookingPages.attachTo(bookingsRecyclerView);
+
+        // The total comes from the show's counter, so it doesn't wait for every page.
+        databaseHelper.getShow(showId, DatabaseHelper.whileAlive(this, new DatabaseHelper.DatabaseCallback<Show>() {
+            @Override
+            public void onSuccess(Show show) {
+                final int total = show != null ? show.getTicketsSold() : 0;
+                totalSoldLabel.setText("Total Tickets Sold: " + total);
+            }
+
+            @Override
+            public void onFailure(Exception e) {
+                Toast.makeText(ShowBookingsActivity.this,
+                        "Error loading bookings", Toast.LENGTH_SHORT).show();
+            }
+        }));
     }
 
 
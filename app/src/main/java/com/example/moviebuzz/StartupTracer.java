@@ -0,0 +1,102 @@
+package com.example.moviebuzz;
+
+import android.app.Activity;
+import android.os.Build;
+import android.os.Handler;
+import android.os.Looper;
+import android.os.Process;
+import android.os.SystemClock;
+import android.util.Log;
+import android.view.View;
+import android.view.ViewTreeObserver;
+import java.util.Map;
+import java.util.WeakHashMap;
+
+// Time to initial display (first frame drawn) and time to full display (the screen called
+// reportFullyDrawn) per activity, logged and recorded in Diagnostics as
+// "startup.<Activity>.ttid" / ".ttfd". Until the first frame of the process has been drawn,
+// times are measured from process start, so a trampoline like LoginActivity redirecting a
+// logged-in user still counts towards the home screen's cold start. Main thread only.
+public final class StartupTracer {
+    private static final String TAG = "Startup";
+    // Fallback for API 23, which can't report when the process started. MovieBuzzApp.onCreate
+    // touches this class first thing, so it misses only the time to bind the application.
+    private static final long LOADED_AT = SystemClock.uptimeMillis();
+
+    private static final Map<Activity, Trace> traces = new WeakHashMap<>();
+    private static final Handler main = new Handler(Looper.getMainLooper());
+    private static boolean firstFrameDrawn;
+
+    private StartupTracer() {}
+
+    static void init() {
+        // Loading the class is the point: it pins LOADED_AT.
+    }
+
+    static void onActivityCreated(Activity activity) {
+        boolean cold = !firstFrameDrawn;
+        traces.put(activity, new Trace(cold ? processStartUptime() : SystemClock.uptimeMillis(), cold));
+    }
+
+    // Called once the content view is set; waits for the first frame of the activity's window.
+    static void onActivityStarted(Activity activity, Runnable onFirstFrameOfProcess) {
+        Trace trace = traces.get(activity);
+        if (trace == null || trace.listening || trace.initialDisplayMs >= 0) return;
+        trace.listening = true;
+        View decor = activity.getWindow().getDecorView();
+        decor.getViewTreeObserver().addOnDrawListener(new ViewTreeObserver.OnDrawListener() {
+            @Override
+            public void onDraw() {
+                if (trace.initialDisplayMs >= 0) return;
+                trace.initialDisplayMs = SystemClock.uptimeMillis() - trace.startUptime;
+                // Draw listeners can't be removed from inside onDraw.
+                main.post(() -> {
+                    decor.getViewTreeObserver().removeOnDrawListener(this);
+                    trace.initialReported = true;
+                    report(activity, "ttid", trace.initialDisplayMs, trace.cold);
+                    if (trace.fullDisplayMs >= 0) {
+                        report(activity, "ttfd", Math.max(trace.fullDisplayMs, trace.initialDisplayMs), trace.cold);
+                    }
+                    if (!firstFrameDrawn) {
+                        firstFrameDrawn = true;
+                        onFirstFrameOfProcess.run();
+                    }
+                });
+            }
+        });
+    }
+
+    // Screens call this once their primary content is on screen. Reported after the initial
+    // display if it comes first, so TTFD is never logged ahead of TTID.
+    public static void reportFullyDrawn(Activity activity) {
+        activity.reportFullyDrawn();
+        Trace trace = traces.get(activity);
+        if (trace == null || trace.fullDisplayMs >= 0) return;
+        trace.fullDisplayMs = SystemClock.uptimeMillis() - trace.startUptime;
+        if (trace.initialReported) report(activity, "ttfd", trace.fullDisplayMs, trace.cold);
+    }
+
+    private static void report(Activity activity, String metric, long ms, boolean cold) {
+        String screen = activity.getClass().getSimpleName();
+        Log.i(TAG, screen + " " + metric + "=" + ms + "ms " + (cold ? "cold" : "warm"));
+        Diagnostics.histogram("startup." + screen + "." + metric).record(ms * 1_000_000L, -1, -1, false);
+    }
+
+    private static long processStartUptime() {
+        return Build.VERSION.SDK_INT >= 24 ? Process.getStartUptimeMillis() : LOADED_AT;
+    }
+
+    private static class Trace {
+        final long startUptime;
+        final boolean cold;
+        boolean listening;
+        boolean initialReported;
+        long initialDisplayMs = -1;
+        long fullDisplayMs = -1;
+
+        Trace(long startUptime, boolean cold) {
+            this.startUptime = startUptime;
+            this.cold = cold;
+        }
+    }
+}
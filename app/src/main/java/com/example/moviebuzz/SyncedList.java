@@ -0,0 +1,80 @@
+package com.example.moviebuzz;
+
+import java.util.ArrayList;
+import java.util.HashMap;
+import java.util.List;
+import java.util.Map;
+
+// Ordered collection keyed by database key, maintained from child events. Each mutation returns
+// the single positional edit it caused so observers can update incrementally.
+public class SyncedList<T> {
+    private final List<String> keys = new ArrayList<>();
+    private final List<T> items = new ArrayList<>();
+    // key -> position in keys, kept exact after every edit.
+    private final Map<String, Integer> positions = new HashMap<>();
+
+    public int size() {
+        return items.size();
+    }
+
+    public List<T> snapshot() {
+        return new ArrayList<>(items);
+    }
+
+    public ChangeSet.Op<T> add(String key, T item, String previousKey) {
+        int existing = indexOf(key);
+        if (existing >= 0) return change(key, item, previousKey);
+        int position = positionAfter(previousKey);
+        keys.add(position, key);
+        items.add(position, item);
+        reindexFrom(position);
+        return new ChangeSet.Op<>(ChangeSet.INSERT, position, position, item);
+    }
+
+    public ChangeSet.Op<T> change(String key, T item, String previousKey) {
+        int position = indexOf(key);
+        if (position < 0) return add(key, item, previousKey);
+        items.set(position, item);
+        return new ChangeSet.Op<>(ChangeSet.CHANGE, position, position, item);
+    }
+
+    public ChangeSet.Op<T> remove(String key) {
+        int position = indexOf(key);
+        if (position < 0) return null;
+        keys.remove(position);
+        T item = items.remove(position);
+        positions.remove(key);
+        reindexFrom(position);
+        return new ChangeSet.Op<>(ChangeSet.REMOVE, position, position, item);
+    }
+
+    public ChangeSet.Op<T> move(String key, T item, String previousKey) {
+        int from = indexOf(key);
+        if (from < 0) return add(key, item, previousKey);
+        keys.remove(from);
+        items.remove(from);
+        positions.remove(key);
+        reindexFrom(from);
+        int to = positionAfter(previousKey);
+        keys.add(to, key);
+        items.add(to, item);
+        reindexFrom(to);
+        return new ChangeSet.Op<>(ChangeSet.MOVE, from, to, item);
+    }
+
+    private int positionAfter(String previousKey) {
+        if (previousKey == null) return 0;
+        int index = indexOf(previousKey);
+        return index < 0 ? keys.size() : index + 1;
+    }
+
+    private int indexOf(String key) {
+        Integer position = positions.get(key);
+        return position != null ? position : -1;
+    }
+
+    // Only the entries from start on shift, so the appends of an initial load cost O(1) each.
+    private void reindexFrom(int start) {
+        for (int i = start; i < keys.size(); i++) positions.put(keys.get(i), i);
+    }
+}
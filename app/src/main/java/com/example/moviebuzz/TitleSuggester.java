@@ -0,0 +1,112 @@
+package com.example.moviebuzz;
+
+import android.content.Context;
+
+import java.io.IOException;
+import java.util.Collections;
+import java.util.List;
+import java.util.concurrent.Executor;
+import java.util.concurrent.Executors;
+import java.util.concurrent.ScheduledExecutorService;
+import java.util.concurrent.ScheduledFuture;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicLong;
+
+// Live OMDb title suggestions for a search field. Queries OmdbClient can answer from memory are
+// answered at once; anything else waits until typing pauses for DEBOUNCE_MS before a request
+// goes out. Every query supersedes the one before: a superseded request isn't parsed when its
+// response arrives, and only the latest query's suggestions are ever delivered.
+public class TitleSuggester {
+    private static final long DEBOUNCE_MS = 300;
+    // OMDb rejects shorter searches as too broad.
+    private static final int MIN_QUERY_LENGTH = 3;
+
+    private static ScheduledExecutorService sharedScheduler;
+
+    public interface Listener {
+        void onSuggestions(String query, List<OmdbClient.Suggestion> suggestions);
+    }
+
+    private final OmdbClient omdb;
+    private final ScheduledExecutorService scheduler;
+    private final Executor ioExecutor;
+    private final Executor callbackExecutor;
+    private final long debounceMs;
+    private final Listener listener;
+    private final AtomicLong generation = new AtomicLong();
+    private ScheduledFuture<?> pending;
+
+    TitleSuggester(OmdbClient omdb, ScheduledExecutorService scheduler, Executor ioExecutor,
+                   Executor callbackExecutor, long debounceMs, Listener listener) {
+        this.omdb = omdb;
+        this.scheduler = scheduler;
+        this.ioExecutor = ioExecutor;
+        this.callbackExecutor = callbackExecutor;
+        this.debounceMs = debounceMs;
+        this.listener = listener;
+    }
+
+    // Suggestions arrive on the main thread.
+    public static TitleSuggester create(Context context, Listener listener) {
+        return new TitleSuggester(OmdbClient.getInstance(context), scheduler(), AppExecutors.network(),
+                AppExecutors.mainThread(), DEBOUNCE_MS, listener);
+    }
+
+    private static synchronized ScheduledExecutorService scheduler() {
+        if (sharedScheduler == null) {
+            sharedScheduler = Executors.newSingleThreadScheduledExecutor(r -> {
+                Thread t = new Thread(r, "suggest-debounce");
+                t.setDaemon(true);
+                return t;
+            });
+        }
+        return sharedScheduler;
+    }
+
+    public synchronized void setQuery(String text) {
+        long current = supersede();
+        String query = text.trim();
+        if (query.length() < MIN_QUERY_LENGTH) {
+            deliver(current, query, Collections.<OmdbClient.Suggestion>emptyList());
+            return;
+        }
+        List<OmdbClient.Suggestion> known = omdb.cachedSuggestions(query);
+        if (known != null) {
+            deliver(current, query, known);
+            return;
+        }
+        pending = scheduler.schedule(() -> ioExecutor.execute(() -> fetch(current, query)),
+                debounceMs, TimeUnit.MILLISECONDS);
+    }
+
+    // Drops the pending query, e.g. once a suggestion has been picked or the screen goes away.
+    public synchronized void cancel() {
+        supersede();
+    }
+
+    private long supersede() {
+        if (pending != null) pending.cancel(false);
+        pending = null;
+        return generation.incrementAndGet();
+    }
+
+    private boolean isStale(long queryGeneration) {
+        return queryGeneration != generation.get();
+    }
+
+    private void fetch(long queryGeneration, String query) {
+        if (isStale(queryGeneration)) return;
+        try {
+            List<OmdbClient.Suggestion> results = omdb.search(query, () -> isStale(queryGeneration));
+            if (results != null) deliver(queryGeneration, query, results);
+        } catch (IOException e) {
+            // Suggestions are best effort; the search button still reports network errors.
+        }
+    }
+
+    private void deliver(long queryGeneration, String query, List<OmdbClient.Suggestion> suggestions) {
+        callbackExecutor.execute(() -> {
+            if (!isStale(queryGeneration)) listener.onSuggestions(query, suggestions);
+        });
+    }
+}
@@ -0,0 +1,121 @@
+package com.example.moviebuzz;
+
+import java.util.ArrayList;
+import java.util.HashMap;
+import java.util.LinkedHashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.concurrent.atomic.AtomicLong;
+
+// Short-lived per-username cache of user profiles. Concurrent reads for the same username share
+// one backend fetch, and writes that go through DatabaseHelper invalidate the entry.
+public class UserProfileCache {
+    public interface Fetcher {
+        void fetch(String username, DatabaseHelper.DatabaseCallback<User> callback);
+    }
+
+    private final long ttlMs;
+    private final Object lock = new Object();
+    private final Map<String, Entry> entries = new HashMap<>();
+    private final Map<String, List<DatabaseHelper.DatabaseCallback<User>>> inFlight = new HashMap<>();
+    // Bumped by every invalidation, so a fetch that started before a write can't re-cache old data.
+    private long generation;
+
+    private final AtomicLong hits = new AtomicLong();
+    private final AtomicLong misses = new AtomicLong();
+    private final AtomicLong coalesced = new AtomicLong();
+
+    public UserProfileCache(long ttlMs) {
+        this.ttlMs = ttlMs;
+    }
+
+    public void get(String username, Fetcher fetcher, DatabaseHelper.DatabaseCallback<User> callback) {
+        User cached = null;
+        long startedAt;
+        synchronized (lock) {
+            Entry entry = entries.get(username);
+            if (entry != null && System.currentTimeMillis() - entry.fetchedAt <= ttlMs) {
+                cached = entry.user;
+            } else {
+                entries.remove(username);
+                List<DatabaseHelper.DatabaseCallback<User>> waiting = inFlight.get(username);
+                if (waiting != null) {
+                    waiting.add(callback);
+                    coalesced.incrementAndGet();
+                    return;
+                }
+                waiting = new ArrayList<>();
+                waiting.add(callback);
+                inFlight.put(username, waiting);
+            }
+            startedAt = generation;
+        }
+        if (cached != null) {
+            hits.incrementAndGet();
+            callback.onSuccess(copy(cached));
+            return;
+        }
+
+        misses.incrementAndGet();
+        fetcher.fetch(username, new DatabaseHelper.DatabaseCallback<User>() {
+            @Override
+            public void onSuccess(User user) {
+                List<DatabaseHelper.DatabaseCallback<User>> waiting;
+                synchronized (lock) {
+                    waiting = inFlight.remove(username);
+                    if (user != null && generation == startedAt) {
+                        entries.put(username, new Entry(copy(user), System.currentTimeMillis()));
+                    }
+                }
+                for (DatabaseHelper.DatabaseCallback<User> cb : waiting) cb.onSuccess(copy(user));
+            }
+
+            @Override
+            public void onFailure(Exception e) {
+                List<DatabaseHelper.DatabaseCallback<User>> waiting;
+                synchronized (lock) {
+                    waiting = inFlight.remove(username);
+                }
+                for (DatabaseHelper.DatabaseCallback<User> cb : waiting) cb.onFailure(e);
+            }
+        });
+    }
+
+    public void invalidate(String username) {
+        synchronized (lock) {
+            entries.remove(username);
+            generation++;
+        }
+    }
+
+    public void invalidateAll() {
+        synchronized (lock) {
+            entries.clear();
+            generation++;
+        }
+    }
+
+    public Map<String, Long> getStats() {
+        Map<String, Long> stats = new LinkedHashMap<>();
+        stats.put("hits", hits.get());
+        stats.put("misses", misses.get());
+        stats.put("coalesced", coalesced.get());
+        return stats;
+    }
+
+    // Callers may mutate what they get back, so nobody shares the cached instance.
+    private static User copy(User u) {
+        if (u == null) return null;
+        return new User(u.getUsername(), u.getPassword(), u.getRole(), u.getBalance());
+    }
+
+    private static class Entry {
+        final User user;
+        final long fetchedAt;
+
+        Entry(User user, long fetchedAt) {
+            this.user = user;
+            this.fetchedAt = fetchedAt;
+        }
+    }
+}
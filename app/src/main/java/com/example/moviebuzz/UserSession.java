@@ -2,20 +2,26 @@ package com.example.moviebuzz;
 
 import android.content.Context;
 import android.content.SharedPreferences;
+import androidx.lifecycle.LiveData;
 
 public class UserSession {
     private static final String PREF_NAME = "UserSession";
     private static final String KEY_USERNAME = "username";
     private static final String KEY_ROLE = "role";
-    private static final String KEY_BALANCE = "balance"; // Added key for balance
+    private static final String KEY_BALANCE = "balance"; // Last balance seen, shown until the live value arrives
 
     private static UserSession instance;
+    private final Context appContext;
     private SharedPreferences sharedPreferences;
     private SharedPreferences.Editor editor;
+    private final BalanceLiveData balance;
 
     private UserSession(Context context) {
+        appContext = context;
         sharedPreferences = context.getSharedPreferences(PREF_NAME, Context.MODE_PRIVATE);
         editor = sharedPreferences.edit();
+        // Seeded through the constructor: getInstance may run off the main thread, where setValue throws.
+        balance = new BalanceLiveData(savedBalance());
     }
 
     public static synchronized UserSession getInstance(Context context) {
@@ -25,26 +31,30 @@ public class UserSession {
         return instance;
     }
 
+    // Whether a login was saved by a previous run. Reads prefs directly, so unlike getInstance it
+    // is safe off the main thread; used by AppStartup before any screen exists.
+    static boolean hasSavedLogin(Context context) {
+        return context.getSharedPreferences(PREF_NAME, Context.MODE_PRIVATE).getString(KEY_USERNAME, null) != null;
+    }
+
     public void login(String username, String role) {
         editor.putString(KEY_USERNAME, username);
         editor.putString(KEY_ROLE, role);
+        editor.remove(KEY_BALANCE);
         editor.apply();
+        balance.reset();
     }
 
-
-    public void setBalance(float balance) {
-        editor.putFloat(KEY_BALANCE, balance);
-        editor.apply();
-    }
-
-
-    public float getBalance() {
-        return sharedPreferences.getFloat(KEY_BALANCE, 0.0f);
+    // The logged-in user's balance, kept current by a single database subscription that is open
+    // while any screen observes it. Bind to it instead of reading /users/{username}.
+    public LiveData<Double> getBalance() {
+        return balance;
     }
 
     public void logout() {
         editor.clear();
         editor.apply();
+        balance.reset();
     }
 
     public String getUsername() {
@@ -62,4 +72,59 @@ public class UserSession {
     public boolean isAdmin() {
         return "admin".equalsIgnoreCase(getRole());
     }
-}
\ No newline at end of file
+
+    private Double savedBalance() {
+        return sharedPreferences.contains(KEY_BALANCE) ? (double) sharedPreferences.getFloat(KEY_BALANCE, 0f) : null;
+    }
+
+    private class BalanceLiveData extends LiveData<Double> {
+        private ListenerRegistration registration;
+
+        BalanceLiveData(Double initial) {
+            super(initial);
+        }
+
+        @Override
+        protected void onActive() {
+            subscribe();
+        }
+
+        @Override
+        protected void onInactive() {
+            unsubscribe();
+        }
+
+        // Called on login and logout: drops the old user's subscription and starts over.
+        void reset() {
+            unsubscribe();
+            setValue(savedBalance());
+            if (hasActiveObservers()) subscribe();
+        }
+
+        private void subscribe() {
+            String username = getUsername();
+            if (username == null || registration != null) return;
+            registration = DatabaseHelper.getInstance(appContext).observeBalance(username, new ValueObserver<Double>() {
+                @Override
+                public void onValue(Double value) {
+                    if (!username.equals(getUsername())) return;
+                    setValue(value);
+                    if (value != null) {
+                        editor.putFloat(KEY_BALANCE, value.floatValue());
+                        editor.apply();
+                    }
+                }
+
+                @Override
+                public void onFailure(Exception e) { }
+            });
+        }
+
+        private void unsubscribe() {
+            if (registration != null) {
+                registration.remove();
+                registration = null;
+            }
+        }
+    }
+}
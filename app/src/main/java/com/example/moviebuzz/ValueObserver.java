@@ -0,0 +1,8 @@
+package com.example.moviebuzz;
+
+// Receives the current value of a database node and then every later change.
+public interface ValueObserver<T> {
+    void onValue(T value);
+
+    void onFailure(Exception e);
+}
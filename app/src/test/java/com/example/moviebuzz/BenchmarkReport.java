@@ -0,0 +1,17 @@
+package com.example.moviebuzz;
+
+import java.util.Locale;
+
+// Benchmark figures are only printed with -Dmoviebuzz.benchmark.large=true, the same switch that
+// turns on the large runs, so a normal test run stays quiet and just checks the results. The app's
+// build.gradle.kts forwards it to the test JVM and shows its output:
+//   ./gradlew :app:testDebugUnitTest -Dmoviebuzz.benchmark.large=true
+final class BenchmarkReport {
+    static final boolean ENABLED = Boolean.getBoolean("moviebuzz.benchmark.large");
+
+    private BenchmarkReport() {}
+
+    static void print(String format, Object... args) {
+        if (ENABLED) System.out.println(String.format(Locale.US, format, args));
+    }
+}
@@ -0,0 +1,111 @@
+package com.example.moviebuzz;
+
+import org.junit.After;
+import org.junit.Before;
+import org.junit.Test;
+
+import java.util.concurrent.CountDownLatch;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicInteger;
+import java.util.concurrent.atomic.AtomicReference;
+
+import static org.junit.Assert.*;
+
+// N concurrent buyers hammer one account through bookTickets. Reports purchases per second
+// for each N and checks that every successful purchase was debited exactly once.
+public class BookingContentionBenchmarkTest {
+    private static final double PRICE = 10;
+    private static final int PURCHASES_PER_BUYER = 50;
+
+    private InMemoryBackend backend;
+    private DatabaseHelper databaseHelper;
+
+    @Before
+    public void setUp() {
+        backend = new InMemoryBackend(16);
+        backend.setLatency(1, 3);
+        databaseHelper = new DatabaseHelper(backend);
+    }
+
+    @After
+    public void tearDown() {
+        backend.shutdown();
+    }
+
+    @Test
+    public void atomicBooking_neverLosesUpdates() throws Exception {
+        for (int buyers : new int[]{1, 4, 16, 64}) {
+            String username = "buyer" + buyers;
+            int attempts = buyers * PURCHASES_PER_BUYER;
+            // Enough for only half of the attempts, so the overdraft check is exercised too.
+            double initial = PRICE * attempts / 2;
+            addUser(username, initial);
+            String showId = addShow();
+
+            AtomicInteger succeeded = new AtomicInteger();
+            AtomicInteger rejected = new AtomicInteger();
+            CountDownLatch done = new CountDownLatch(attempts);
+            long start = System.nanoTime();
+            for (int b = 0; b < buyers; b++) {
+                new Thread(() -> {
+                    for (int i = 0; i < PURCHASES_PER_BUYER; i++) {
+                        Booking booking = new Booking(username, showId, "Dune", "2026-01-01", "7:00 PM", PRICE, 1, "Confirmed");
+                        databaseHelper.bookTickets(booking, new DatabaseHelper.DatabaseCallback<String>() {
+                            @Override
+                            public void onSuccess(String id) {
+                                succeeded.incrementAndGet();
+                                done.countDown();
+                            }
+
+                            @Override
+                            public void onFailure(Exception e) {
+                                if (e instanceof DatabaseHelper.InsufficientBalanceException) rejected.incrementAndGet();
+                                done.countDown();
+                            }
+                        });
+                    }
+                }).start();
+            }
+            assertTrue(done.await(30, TimeUnit.SECONDS));
+            double seconds = (System.nanoTime() - start) / 1e9;
+
+            User user = getUser(username);
+            assertEquals(attempts / 2, succeeded.get());
+            assertEquals(attempts - succeeded.get(), rejected.get());
+            assertEquals(initial - succeeded.get() * PRICE, user.getBalance(), 1e-6);
+            BenchmarkReport.print("bookTickets buyers=%d purchases=%d %.0f purchases/s",
+                    buyers, succeeded.get(), succeeded.get() / seconds);
+        }
+    }
+
+    private void addUser(String username, double balance) throws Exception {
+        CountDownLatch latch = new CountDownLatch(1);
+        databaseHelper.addUser(new User(username, "pw", "customer", balance), new DatabaseHelper.DatabaseCallback<Void>() {
+            @Override public void onSuccess(Void result) { latch.countDown(); }
+            @Override public void onFailure(Exception e) { }
+        });
+        assertTrue(latch.await(5, TimeUnit.SECONDS));
+    }
+
+    private String addShow() throws Exception {
+        CountDownLatch latch = new CountDownLatch(1);
+        AtomicReference<String> showId = new AtomicReference<>();
+        databaseHelper.addShow(new Show("Dune", "2026-01-01", "7:00 PM", PRICE, "Active"), new DatabaseHelper.DatabaseCallback<String>() {
+            @Override public void onSuccess(String result) { showId.set(result); latch.countDown(); }
+            @Override public void onFailure(Exception e) { }
+        });
+        assertTrue(latch.await(5, TimeUnit.SECONDS));
+        return showId.get();
+    }
+
+    private User getUser(String username) throws Exception {
+        CountDownLatch latch = new CountDownLatch(1);
+        AtomicReference<User> user = new AtomicReference<>();
+        databaseHelper.getUser(username, new DatabaseHelper.DatabaseCallback<User>() {
+            @Override public void onSuccess(User result) { user.set(result); latch.countDown(); }
+            @Override public void onFailure(Exception e) { latch.countDown(); }
+        });
+        assertTrue(latch.await(5, TimeUnit.SECONDS));
+        return user.get();
+    }
+}
@@ -0,0 +1,187 @@
+package com.example.moviebuzz;
+
+import com.sun.net.httpserver.HttpServer;
+
+import org.junit.After;
+import org.junit.Before;
+import org.junit.Test;
+
+import java.io.OutputStream;
+import java.net.InetSocketAddress;
+import java.net.URLDecoder;
+import java.nio.charset.StandardCharsets;
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.Collections;
+import java.util.List;
+import java.util.Set;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.CountDownLatch;
+import java.util.concurrent.Executors;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicInteger;
+import java.util.concurrent.atomic.AtomicReference;
+
+import static org.junit.Assert.*;
+
+// Imports against an InMemoryBackend and a local server that answers like OMDb after a delay:
+// "?t=<title>" echoes the title back, "?i=tt<n>" returns "Film <n>", titles starting with
+// "missing" are not found.
+public class CatalogImporterTest {
+    private static final long LATENCY_MS = 20;
+
+    private HttpServer server;
+    private UnpublishedIndexBackend backend;
+    private DatabaseHelper db;
+    private final AtomicInteger requests = new AtomicInteger();
+    private final AtomicInteger inFlight = new AtomicInteger();
+    private final AtomicInteger maxInFlight = new AtomicInteger();
+
+    @Before
+    public void setUp() throws Exception {
+        server = HttpServer.create(new InetSocketAddress("127.0.0.1", 0), 0);
+        server.setExecutor(Executors.newCachedThreadPool());
+        server.createContext("/", exchange -> {
+            requests.incrementAndGet();
+            maxInFlight.accumulateAndGet(inFlight.incrementAndGet(), Math::max);
+            String query = URLDecoder.decode(exchange.getRequestURI().getRawQuery(), "UTF-8");
+            String value = query.replaceAll("^[ti]=([^&]*).*", "$1");
+            String title = query.startsWith("i=") ? "Film " + Integer.parseInt(value.substring(2)) : value;
+            String body = title.startsWith("missing")
+                    ? "{\"Response\":\"False\",\"Error\":\"Movie not found!\"}"
+                    : "{\"Title\":\"" + title + "\",\"Genre\":\"Drama\",\"Runtime\":\"100 min\",\"Response\":\"True\"}";
+            byte[] bytes = body.getBytes(StandardCharsets.UTF_8);
+            try {
+                Thread.sleep(LATENCY_MS);
+            } catch (InterruptedException ignored) {
+            }
+            inFlight.decrementAndGet();
+            exchange.sendResponseHeaders(200, bytes.length);
+            try (OutputStream out = exchange.getResponseBody()) {
+                out.write(bytes);
+            }
+        });
+        server.start();
+        backend = new UnpublishedIndexBackend();
+        db = new DatabaseHelper(backend);
+    }
+
+    // Titles the import writes stay out of its own index checks, as if those writes hadn't reached
+    // the server yet, so whether a later check sees an earlier batch never depends on timing.
+    private static class UnpublishedIndexBackend extends InMemoryBackend {
+        private final Set<String> unpublished = Collections.newSetFromMap(new ConcurrentHashMap<String, Boolean>());
+
+        @Override
+        public void addMovies(List<Movie> movies, DatabaseHelper.DatabaseCallback<List<String>> callback) {
+            for (Movie m : movies) unpublished.add(Movie.titleKey(m.getTitle()));
+            super.addMovies(movies, callback);
+        }
+
+        @Override
+        public void getMovieIdByTitle(String title, DatabaseHelper.DatabaseCallback<String> callback) {
+            if (unpublished.contains(Movie.titleKey(title))) callback.onSuccess(null);
+            else super.getMovieIdByTitle(title, callback);
+        }
+    }
+
+    @After
+    public void tearDown() {
+        server.stop(0);
+    }
+
+    private CatalogImporter importer(int parallelism, double requestsPerSecond, int batchSize) {
+        String base = "http://127.0.0.1:" + server.getAddress().getPort() + "/";
+        // No response cache, so every lookup reaches the server.
+        OmdbClient omdb = new OmdbClient(base, "test", null, 0, Runnable::run, Runnable::run);
+        // No storage either: posters stay as OMDb URLs.
+        PosterStore posters = new PosterStore(null, Runnable::run, Runnable::run);
+        return new CatalogImporter(omdb, db, posters, parallelism, requestsPerSecond, batchSize, Runnable::run);
+    }
+
+    @Test
+    public void parseEntries_dropsBlanksCommentsAndRepeats() {
+        assertEquals(Arrays.asList("Heat", "tt0111161", "The  Thing"),
+                CatalogImporter.parseEntries("Heat\n\n# seeds\n  heat \nTT0111161\r\ntt0111161\nThe  Thing\nthe thing\n"));
+    }
+
+    @Test
+    public void import_skipsCatalogTitlesAndReportsFailures() throws Exception {
+        CatalogImporterTest.<String>await(cb -> backend.addMovie(new Movie("Alien", "Horror", "117 min", null), cb));
+        List<String> entries = Arrays.asList("Alien", "Heat", "missing one", "tt0000007", "Film 7", "Ran");
+
+        CatalogImporter.Progress result = run(importer(3, 1000, 2), entries);
+
+        assertEquals(6, result.getProcessed());
+        assertEquals(3, result.getAdded());
+        // Alien is in the catalog; "Film 7" is the film tt0000007 already brought in (or vice versa).
+        assertEquals(2, result.getSkipped());
+        assertEquals(1, result.getFailures().size());
+        assertEquals("missing one", result.getFailures().get(0).getEntry());
+        // Alien never reaches OMDb. "Film 7" does, since the index can't have tt0000007 yet.
+        assertEquals(5, requests.get());
+
+        List<String> titles = new ArrayList<>();
+        for (Movie m : await(db::getAllMovies)) titles.add(m.getTitle());
+        assertEquals(4, titles.size());
+        assertTrue(titles.containsAll(Arrays.asList("Alien", "Heat", "Film 7", "Ran")));
+    }
+
+    @Test
+    public void import_boundsConcurrencyAndRate() throws Exception {
+        List<String> entries = new ArrayList<>();
+        for (int i = 0; i < 60; i++) entries.add("Title " + i);
+        long batchesBefore = Diagnostics.histogram("import.batch").getCount();
+
+        CatalogImporter.Progress result = run(importer(4, 100, 25), entries);
+
+        assertEquals(60, result.getAdded());
+        assertTrue("max in flight " + maxInFlight.get(), maxInFlight.get() <= 4);
+        // 60 request starts 10ms apart take at least 590ms.
+        assertTrue(result.getElapsedMillis() >= 590);
+        assertEquals(3, Diagnostics.histogram("import.batch").getCount() - batchesBefore);
+        BenchmarkReport.print(
+                "import entries=%d server=%dms elapsed=%dms throughput=%.1f/s maxInFlight=%d",
+                entries.size(), LATENCY_MS, result.getElapsedMillis(), result.getEntriesPerSecond(), maxInFlight.get());
+    }
+
+    private static CatalogImporter.Progress run(CatalogImporter importer, List<String> entries) throws Exception {
+        CountDownLatch done = new CountDownLatch(1);
+        AtomicReference<CatalogImporter.Progress> result = new AtomicReference<>();
+        importer.start(entries, new CatalogImporter.Listener() {
+            @Override
+            public void onProgress(CatalogImporter.Progress progress) {
+            }
+
+            @Override
+            public void onFinished(CatalogImporter.Progress progress) {
+                result.set(progress);
+                done.countDown();
+            }
+        });
+        assertTrue(done.await(30, TimeUnit.SECONDS));
+        return result.get();
+    }
+
+    private interface Call<T> {
+        void run(DatabaseHelper.DatabaseCallback<T> callback);
+    }
+
+    private static <T> T await(Call<T> call) throws Exception {
+        CountDownLatch done = new CountDownLatch(1);
+        AtomicReference<T> result = new AtomicReference<>();
+        call.run(new DatabaseHelper.DatabaseCallback<T>() {
+            @Override
+            public void onSuccess(T value) {
+                result.set(value);
+                done.countDown();
+            }
+
+            @Override
+            public void onFailure(Exception e) {
+                done.countDown();
+            }
+        });
+        assertTrue(done.await(5, TimeUnit.SECONDS));
+        return result.get();
+    }
+}
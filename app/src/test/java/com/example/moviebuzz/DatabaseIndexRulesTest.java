@@ -0,0 +1,131 @@
+package com.example.moviebuzz;
+
+import org.junit.Assume;
+import org.junit.Before;
+import org.junit.Test;
+
+import java.io.ByteArrayOutputStream;
+import java.io.File;
+import java.io.InputStream;
+import java.io.OutputStream;
+import java.net.HttpURLConnection;
+import java.net.URL;
+import java.net.URLEncoder;
+import java.nio.file.Files;
+
+import static org.junit.Assert.*;
+
+// Loads database.rules.json into the Realtime Database emulator and issues every orderByChild
+// query FirebaseBackend makes over REST, which (unlike the SDK) rejects queries without an
+// .indexOn rule. Also checks the validation rules FirebaseBackend relies on for atomic writes.
+// Skipped unless FIREBASE_DATABASE_EMULATOR_HOST is set, e.g.
+//   firebase emulators:exec --only database "./gradlew :app:testDebugUnitTest"
+public class DatabaseIndexRulesTest {
+    private static final String NAMESPACE = "moviebuzz-c7022-default-rtdb";
+
+    // Keep in sync with the queries in FirebaseBackend.
+    private static final String[][] QUERIES = {
+            {"shows", "movieTitle", "Dune"},
+            {"shows", "movieTitle_status", "Dune_Active"},
+            {"bookings", "username", "alice"},
+            {"bookings", "showId", "show1"},
+    };
+
+    private String host;
+
+    @Before
+    public void setUp() throws Exception {
+        host = System.getenv("FIREBASE_DATABASE_EMULATOR_HOST");
+        Assume.assumeTrue("database emulator not running", host != null && !host.isEmpty());
+
+        File rules = new File("../database.rules.json");
+        if (!rules.exists()) rules = new File("database.rules.json");
+        int code = request("PUT", "/.settings/rules.json", new String(Files.readAllBytes(rules.toPath()), "UTF-8"));
+        assertEquals("rules upload", 200, code);
+    }
+
+    @Test
+    public void everyBackendQuery_isIndexed() throws Exception {
+        for (String[] q : QUERIES) {
+            int code = request("GET", query(q[0], q[1], q[2]), null);
+            assertEquals("orderBy " + q[1] + " on /" + q[0], 200, code);
+        }
+    }
+
+    @Test
+    public void unindexedQuery_isRejected() throws Exception {
+        // Guards the test itself: if the emulator stopped enforcing indexes, the check above would be meaningless.
+        assertEquals(400, request("GET", query("shows", "price", "300"), null));
+    }
+
+    @Test
+    public void claimedTitle_cannotBeClaimedAgain() throws Exception {
+        request("DELETE", "/movieTitleIndex/dune.json", null);
+        assertEquals(200, request("PUT", "/movieTitleIndex/dune.json", "\"movie1\""));
+        // What a second admin's addMovie does; the multi-path write fails as a whole.
+        assertEquals(401, request("PATCH", "/.json", "{\"movieTitleIndex/dune\": \"movie2\", \"movies/movie2\": {\"title\": \"Dune\"}}"));
+        assertEquals(200, request("DELETE", "/movieTitleIndex/dune.json", null));
+        // What an empty title key would write: the whole index replaced by one string.
+        assertEquals(401, request("PATCH", "/.json", "{\"movieTitleIndex/\": \"movie3\"}"));
+    }
+
+    @Test
+    public void ticketsSold_cannotCreateShow() throws Exception {
+        request("DELETE", "/shows/show1.json", null);
+        // What bookTickets' increment does for a showId that doesn't exist.
+        assertEquals(401, request("PATCH", "/.json", "{\"shows/show1/ticketsSold\": 2}"));
+        assertEquals(200, request("PUT", "/shows/show1.json", "{\"movieTitle\": \"Dune\", \"ticketsSold\": 0}"));
+        assertEquals(200, request("PATCH", "/.json", "{\"shows/show1/ticketsSold\": 2}"));
+        assertEquals(200, request("DELETE", "/shows/show1.json", null));
+    }
+
+    @Test
+    public void bookingForCancelledShow_isRejected() throws Exception {
+        assertEquals(200, request("PUT", "/shows/show2.json", "{\"movieTitle\": \"Dune\", \"status\": \"Active\"}"));
+        assertEquals(200, request("PUT", "/bookings/booking1.json", "{\"showId\": \"show2\", \"status\": \"Confirmed\"}"));
+        assertEquals(200, request("PUT", "/shows/show2/status.json", "\"Cancelled\""));
+        // What a bookTickets that lost the race with cancelShowWithRefunds sends.
+        assertEquals(401, request("PATCH", "/.json", "{\"bookings/booking2\": {\"showId\": \"show2\", \"status\": \"Confirmed\"}}"));
+        // Refunding the booking that got in first is still allowed.
+        assertEquals(200, request("PUT", "/bookings/booking1/status.json", "\"Refunded\""));
+        request("DELETE", "/bookings/booking1.json", null);
+        request("DELETE", "/shows/show2.json", null);
+    }
+
+    private static String query(String path, String child, String value) throws Exception {
+        return "/" + path + ".json?orderBy=" + URLEncoder.encode("\"" + child + "\"", "UTF-8")
+                + "&equalTo=" + URLEncoder.encode("\"" + value + "\"", "UTF-8");
+    }
+
+    private int request(String method, String path, String body) throws Exception {
+        String sep = path.contains("?") ? "&" : "?";
+        HttpURLConnection conn = (HttpURLConnection) new URL("http://" + host + path + sep + "ns=" + NAMESPACE).openConnection();
+        if ("PATCH".equals(method)) {
+            // HttpURLConnection has no PATCH; the REST API accepts it as an override.
+            conn.setRequestMethod("POST");
+            conn.setRequestProperty("X-HTTP-Method-Override", "PATCH");
+        } else {
+            conn.setRequestMethod(method);
+        }
+        conn.setRequestProperty("Authorization", "Bearer owner");
+        if (body != null) {
+            conn.setDoOutput(true);
+            try (OutputStream out = conn.getOutputStream()) {
+                out.write(body.getBytes("UTF-8"));
+            }
+        }
+        int code = conn.getResponseCode();
+        InputStream in = code < 400 ? conn.getInputStream() : conn.getErrorStream();
+        if (in != null) {
+            // Drain so the connection can be reused.
+            try (InputStream stream = in) {
+                ByteArrayOutputStream sink = new ByteArrayOutputStream();
+                byte[] buf = new byte[4096];
+                int n;
+                while ((n = stream.read(buf)) > 0) sink.write(buf, 0, n);
+            }
+        }
+        conn.disconnect();
+        return code;
+    }
+}
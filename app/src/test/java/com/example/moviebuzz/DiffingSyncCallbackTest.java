@@ -0,0 +1,65 @@
+package com.example.moviebuzz;
+
+import androidx.recyclerview.widget.ListUpdateCallback;
+
+import org.junit.Test;
+
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.List;
+
+import static org.junit.Assert.*;
+
+public class DiffingSyncCallbackTest {
+
+    private static class Recorder implements DatabaseHelper.SyncCallback<String> {
+        final List<ChangeSet<String>> changes = new ArrayList<>();
+
+        @Override public void onChanged(ChangeSet<String> changes) { this.changes.add(changes); }
+        @Override public void onFailure(Exception e) { }
+
+        ChangeSet<String> last() {
+            return changes.get(changes.size() - 1);
+        }
+    }
+
+    @Test
+    public void ordered_resortsEveryChangeIgnoringCase() {
+        Recorder screen = new Recorder();
+        DiffingSyncCallback<String> callback = new DiffingSyncCallback<>(s -> s, String.CASE_INSENSITIVE_ORDER, Runnable::run, screen);
+
+        // The query's order: capitals first.
+        callback.onChanged(ChangeSet.reset(Arrays.asList("Alien", "Heat", "dune")));
+        assertEquals(Arrays.asList("Alien", "dune", "Heat"), screen.last().getResetItems());
+
+        callback.onChanged(ChangeSet.of(new ChangeSet.Op<>(ChangeSet.INSERT, 3, 3, "brazil")));
+        assertTrue(screen.last().isReset());
+        assertEquals(Arrays.asList("Alien", "brazil", "dune", "Heat"), screen.last().getResetItems());
+
+        callback.onChanged(ChangeSet.of(new ChangeSet.Op<String>(ChangeSet.REMOVE, 1, 1, "Heat")));
+        assertEquals(Arrays.asList("Alien", "brazil", "dune"), screen.last().getResetItems());
+    }
+
+    @Test
+    public void unordered_passesEditsThroughAndKeepsCacheFlag() {
+        Recorder screen = new Recorder();
+        DiffingSyncCallback<String> callback = new DiffingSyncCallback<>(s -> s, null, Runnable::run, screen);
+
+        callback.onChanged(ChangeSet.cachedReset(Arrays.asList("b", "a")));
+        assertTrue(screen.last().isFromCache());
+        assertEquals(Arrays.asList("b", "a"), screen.last().getResetItems());
+
+        ChangeSet<String> insert = ChangeSet.of(new ChangeSet.Op<>(ChangeSet.INSERT, 0, 0, "c"));
+        callback.onChanged(insert);
+        assertSame(insert, screen.last());
+
+        List<String> target = new ArrayList<>();
+        for (ChangeSet<String> c : screen.changes) c.applyTo(target, new ListUpdateCallback() {
+            @Override public void onInserted(int position, int count) {}
+            @Override public void onRemoved(int position, int count) {}
+            @Override public void onMoved(int fromPosition, int toPosition) {}
+            @Override public void onChanged(int position, int count, Object payload) {}
+        });
+        assertEquals(Arrays.asList("c", "b", "a"), target);
+    }
+}
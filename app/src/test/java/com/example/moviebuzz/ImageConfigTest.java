@@ -0,0 +1,34 @@
+package com.example.moviebuzz;
+
+import org.junit.Test;
+
+import static org.junit.Assert.*;
+
+public class ImageConfigTest {
+    private static final long MB = 1024 * 1024;
+
+    @Test
+    public void memoryBudget_scalesWithMemoryClassAndIsCapped() {
+        long[] typical = ImageConfig.memoryBudget(192, false);
+        assertEquals(48 * MB, typical[0] + typical[1]);
+        assertEquals(32 * MB, typical[0]);
+
+        // Low-RAM devices spend a smaller share of a smaller heap.
+        long[] lowRam = ImageConfig.memoryBudget(96, true);
+        assertTrue(lowRam[0] + lowRam[1] < 15 * MB);
+        assertTrue(lowRam[0] > lowRam[1]);
+
+        long[] large = ImageConfig.memoryBudget(512, false);
+        assertEquals(64 * MB, large[0] + large[1]);
+    }
+
+    @Test
+    public void posterUrl_rewritesOmdbWidthAndLeavesOtherUrlsAlone() {
+        String omdb = "https://m.media-amazon.com/images/M/MV5BMTM@._V1_SX300.jpg";
+        assertEquals("https://m.media-amazon.com/images/M/MV5BMTM@._V1_SX150.jpg", ImageConfig.posterUrl(omdb, 150));
+        assertEquals("https://m.media-amazon.com/images/M/MV5BMTM@._V1_SX600.jpg",
+                ImageConfig.posterUrl("https://m.media-amazon.com/images/M/MV5BMTM@._V1_.jpg", 600));
+        assertEquals("https://example.com/poster.jpg", ImageConfig.posterUrl("https://example.com/poster.jpg", 150));
+        assertNull(ImageConfig.posterUrl(null, 150));
+    }
+}
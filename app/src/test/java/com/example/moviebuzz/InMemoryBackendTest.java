@@ -0,0 +1,325 @@
+package com.example.moviebuzz;
+
+import org.junit.After;
+import org.junit.Before;
+import org.junit.Test;
+
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.HashSet;
+import java.util.List;
+import java.util.Set;
+import java.util.concurrent.CopyOnWriteArrayList;
+import java.util.concurrent.CountDownLatch;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicInteger;
+import java.util.concurrent.atomic.AtomicReference;
+
+import static org.junit.Assert.*;
+
+public class InMemoryBackendTest {
+    private InMemoryBackend backend;
+    private DatabaseHelper databaseHelper;
+
+    @Before
+    public void setUp() {
+        backend = new InMemoryBackend(8);
+        databaseHelper = new DatabaseHelper(backend);
+    }
+
+    @After
+    public void tearDown() {
+        backend.shutdown();
+    }
+
+    @Test
+    public void concurrentBookings_areAllStored() throws Exception {
+        int writers = 200;
+        CountDownLatch done = new CountDownLatch(writers);
+        for (int i = 0; i < writers; i++) {
+            Booking b = new Booking("alice", "show1", "Dune", "2026-01-01", "7:00 PM", 300, 1, "Confirmed");
+            databaseHelper.addBooking(b, new Latched<>(done));
+        }
+        assertTrue(done.await(5, TimeUnit.SECONDS));
+
+        List<Booking> bookings = await(cb -> databaseHelper.getBookingsByShow("show1", cb));
+        assertEquals(writers, bookings.size());
+    }
+
+    @Test
+    public void getShowsByMovie_returnsOnlyActiveShows() throws Exception {
+        CountDownLatch added = new CountDownLatch(2);
+        databaseHelper.addShow(new Show("Dune", "2026-01-01", "7:00 PM", 300, "Active"), new Latched<>(added));
+        databaseHelper.addShow(new Show("Dune", "2026-01-02", "7:00 PM", 300, "Cancelled"), new Latched<>(added));
+        assertTrue(added.await(5, TimeUnit.SECONDS));
+
+        List<Show> shows = await(cb -> databaseHelper.getShowsByMovie("Dune", cb));
+        assertEquals(1, shows.size());
+        assertEquals("Active", shows.get(0).getStatus());
+    }
+
+    @Test
+    public void concurrentImportsOfOneTitle_storeItOnce() throws Exception {
+        int admins = 20;
+        CountDownLatch done = new CountDownLatch(admins);
+        AtomicInteger added = new AtomicInteger();
+        AtomicInteger duplicates = new AtomicInteger();
+        for (int i = 0; i < admins; i++) {
+            // Same title as far as the index is concerned.
+            String title = i % 2 == 0 ? "Dune" : "  dune ";
+            databaseHelper.addMovie(new Movie(title, "Sci-Fi", "155 min", null), new DatabaseHelper.DatabaseCallback<String>() {
+                @Override
+                public void onSuccess(String id) {
+                    added.incrementAndGet();
+                    done.countDown();
+                }
+
+                @Override
+                public void onFailure(Exception e) {
+                    if (e instanceof DatabaseHelper.DuplicateMovieException) duplicates.incrementAndGet();
+                    done.countDown();
+                }
+            });
+        }
+        assertTrue(done.await(5, TimeUnit.SECONDS));
+        assertEquals(1, added.get());
+        assertEquals(admins - 1, duplicates.get());
+        assertEquals(1, await((DatabaseHelper.DatabaseCallback<List<Movie>> cb) -> databaseHelper.getAllMovies(cb)).size());
+
+        String movieId = await((DatabaseHelper.DatabaseCallback<String> cb) -> databaseHelper.getMovieIdByTitle("DUNE", cb));
+        assertNotNull(movieId);
+        await((DatabaseHelper.DatabaseCallback<Void> cb) -> databaseHelper.deleteMovie(movieId, cb));
+        assertNull(await((DatabaseHelper.DatabaseCallback<String> cb) -> databaseHelper.getMovieIdByTitle("Dune", cb)));
+    }
+
+    @Test
+    public void addMovies_skipsClaimedTitlesAndIndexesNoUntitledMovie() throws Exception {
+        await((DatabaseHelper.DatabaseCallback<String> cb) -> databaseHelper.addMovie(new Movie("Dune", "Sci-Fi", "155 min", null), cb));
+        List<Movie> batch = Arrays.asList(new Movie(" DUNE", "Sci-Fi", "155 min", null),
+                new Movie(null, null, null, null), new Movie(null, null, null, null), new Movie("Heat", "Crime", "170 min", null));
+        List<String> ids = await((DatabaseHelper.DatabaseCallback<List<String>> cb) -> databaseHelper.addMovies(batch, cb));
+
+        assertNull(ids.get(0));
+        // Untitled movies claim nothing, so neither blocks the other.
+        assertNotNull(ids.get(1));
+        assertNotNull(ids.get(2));
+        assertNotNull(ids.get(3));
+        assertNull(await((DatabaseHelper.DatabaseCallback<String> cb) -> databaseHelper.getMovieIdByTitle(null, cb)));
+        await((DatabaseHelper.DatabaseCallback<Void> cb) -> databaseHelper.deleteMovie(ids.get(1), cb));
+        assertEquals(ids.get(3), await((DatabaseHelper.DatabaseCallback<String> cb) -> databaseHelper.getMovieIdByTitle("heat", cb)));
+    }
+
+    @Test
+    public void blankTitles_areNeverIndexed() throws Exception {
+        assertNull(Movie.titleKey(" \t "));
+        String blank = await((DatabaseHelper.DatabaseCallback<String> cb) -> databaseHelper.addMovie(new Movie("  ", null, null, null), cb));
+        List<String> ids = await((DatabaseHelper.DatabaseCallback<List<String>> cb) -> databaseHelper.addMovies(
+                Arrays.asList(new Movie("", null, null, null), new Movie("Heat", "Crime", "170 min", null)), cb));
+
+        assertNotNull(blank);
+        assertNotNull(ids.get(0));
+        assertNull(await((DatabaseHelper.DatabaseCallback<String> cb) -> databaseHelper.getMovieIdByTitle(" ", cb)));
+        // The index still holds real titles, so duplicates are still caught.
+        assertEquals(ids.get(1), await((DatabaseHelper.DatabaseCallback<String> cb) -> databaseHelper.getMovieIdByTitle("heat", cb)));
+        assertNull(await((DatabaseHelper.DatabaseCallback<List<String>> cb) -> databaseHelper.addMovies(
+                Arrays.asList(new Movie("HEAT", "Crime", "170 min", null)), cb)).get(0));
+    }
+
+    @Test
+    public void bookingSummaries_followBookingsAndRefunds() throws Exception {
+        await((DatabaseHelper.DatabaseCallback<Void> cb) -> databaseHelper.addUser(new User("alice", "pw", "customer", 1000), cb));
+        String showId = addShow("Dune");
+        for (int i = 0; i < 2; i++) {
+            Booking b = new Booking("alice", showId, "Dune", "2026-01-01", "7:00 PM", 300, 2, "Confirmed");
+            b.setMovieId("movie1");
+            await((DatabaseHelper.DatabaseCallback<String> cb) -> databaseHelper.bookTickets(b, cb));
+        }
+
+        List<BookingSummary> summaries = await(cb -> databaseHelper.getBookingSummaries("alice", "movie1", cb));
+        assertEquals(1, summaries.size());
+        assertEquals(showId, summaries.get(0).getShowId());
+        assertEquals(4, summaries.get(0).getTickets());
+        assertEquals(600, summaries.get(0).getSpent(), 0.001);
+
+        await((DatabaseHelper.DatabaseCallback<RefundResult> cb) -> databaseHelper.cancelShowWithRefunds(showId, cb));
+        assertTrue(await((DatabaseHelper.DatabaseCallback<List<BookingSummary>> cb) ->
+                databaseHelper.getBookingSummaries("alice", "movie1", cb)).isEmpty());
+    }
+
+    @Test
+    public void oldBookings_areBackfilledAndStatusChangesMoveSummaries() throws Exception {
+        String movieId = await((DatabaseHelper.DatabaseCallback<String> cb) ->
+                databaseHelper.addMovie(new Movie("Dune", "Sci-Fi", "155 min", null), cb));
+        String showId = addShow("Dune");
+        // Written the way bookings were before they carried a movieId.
+        String bookingId = await((DatabaseHelper.DatabaseCallback<String> cb) -> databaseHelper.addBooking(
+                new Booking("alice", showId, "Dune", "2026-01-01", "7:00 PM", 300, 2, "Confirmed"), cb));
+        assertTrue(await((DatabaseHelper.DatabaseCallback<List<BookingSummary>> cb) ->
+                databaseHelper.getBookingSummaries("alice", movieId, cb)).isEmpty());
+
+        assertEquals(1, (int) await((DatabaseHelper.DatabaseCallback<Integer> cb) -> backend.backfillBookingSummaries(cb)));
+        assertEquals(0, (int) await((DatabaseHelper.DatabaseCallback<Integer> cb) -> backend.backfillBookingSummaries(cb)));
+        List<BookingSummary> summaries = await(cb -> databaseHelper.getBookingSummaries("alice", movieId, cb));
+        assertEquals(1, summaries.size());
+        assertEquals(2, summaries.get(0).getTickets());
+        assertEquals(300, summaries.get(0).getSpent(), 0.001);
+
+        await((DatabaseHelper.DatabaseCallback<Void> cb) -> databaseHelper.updateBookingStatus(bookingId, "Refunded", cb));
+        summaries = await(cb -> databaseHelper.getBookingSummaries("alice", movieId, cb));
+        assertEquals(0, summaries.get(0).getTickets());
+        assertEquals(0, summaries.get(0).getSpent(), 0.001);
+    }
+
+    @Test
+    public void cancelDuringBooking_refundsEveryBookingThatLanded() throws Exception {
+        double initial = 100_000;
+        await((DatabaseHelper.DatabaseCallback<Void> cb) -> databaseHelper.addUser(new User("alice", "pw", "customer", initial), cb));
+        String showId = addShow("Dune");
+
+        int attempts = 200;
+        CountDownLatch done = new CountDownLatch(attempts);
+        AtomicInteger booked = new AtomicInteger();
+        AtomicInteger unavailable = new AtomicInteger();
+        AtomicReference<RefundResult> refund = new AtomicReference<>();
+        CountDownLatch cancelled = new CountDownLatch(1);
+        for (int i = 0; i < attempts; i++) {
+            if (i == attempts / 2) {
+                databaseHelper.cancelShowWithRefunds(showId, new DatabaseHelper.DatabaseCallback<RefundResult>() {
+                    @Override public void onSuccess(RefundResult result) { refund.set(result); cancelled.countDown(); }
+                    @Override public void onFailure(Exception e) { cancelled.countDown(); }
+                });
+            }
+            Booking b = new Booking("alice", showId, "Dune", "2026-01-01", "7:00 PM", 300, 1, "Confirmed");
+            databaseHelper.bookTickets(b, new DatabaseHelper.DatabaseCallback<String>() {
+                @Override
+                public void onSuccess(String id) {
+                    booked.incrementAndGet();
+                    done.countDown();
+                }
+
+                @Override
+                public void onFailure(Exception e) {
+                    if (e instanceof DatabaseHelper.ShowUnavailableException) unavailable.incrementAndGet();
+                    done.countDown();
+                }
+            });
+        }
+        assertTrue(done.await(5, TimeUnit.SECONDS));
+        assertTrue(cancelled.await(5, TimeUnit.SECONDS));
+        assertEquals(attempts, booked.get() + unavailable.get());
+
+        // Every booking that got in before the cancel was refunded, and none got in after it.
+        List<Booking> bookings = await(cb -> databaseHelper.getBookingsByShow(showId, cb));
+        assertEquals(booked.get(), bookings.size());
+        for (Booking b : bookings) assertEquals("Refunded", b.getStatus());
+        assertEquals(booked.get(), refund.get().getRefundedBookings());
+        assertEquals(initial, await((DatabaseHelper.DatabaseCallback<User> cb) -> databaseHelper.getUser("alice", cb)).getBalance(), 1e-6);
+
+        Show show = await(cb -> databaseHelper.getShow(showId, cb));
+        assertEquals("Cancelled", show.getStatus());
+        assertEquals(0, show.getTicketsSold());
+        assertTrue(await((DatabaseHelper.DatabaseCallback<List<Show>> cb) -> databaseHelper.getShowsByMovie("Dune", cb)).isEmpty());
+    }
+
+    @Test
+    public void bookingsByShowPage_walksEveryBookingOnce() throws Exception {
+        int total = 120;
+        CountDownLatch done = new CountDownLatch(total + 1);
+        for (int i = 0; i < total; i++) {
+            databaseHelper.addBooking(new Booking("u" + i, "show1", "Dune", "2026-01-01", "7:00 PM", 300, 1, "Confirmed"), new Latched<>(done));
+        }
+        databaseHelper.addBooking(new Booking("x", "show2", "Dune", "2026-01-01", "7:00 PM", 300, 1, "Confirmed"), new Latched<>(done));
+        assertTrue(done.await(5, TimeUnit.SECONDS));
+
+        Set<String> seen = new HashSet<>();
+        PageCursor cursor = null;
+        int pages = 0;
+        do {
+            PageCursor after = cursor;
+            Page<Booking> page = await(cb -> databaseHelper.getBookingsByShowPage("show1", after, 50, cb));
+            for (Booking b : page.getItems()) {
+                assertEquals("show1", b.getShowId());
+                assertTrue(seen.add(b.getBookingId()));
+            }
+            cursor = page.getNext();
+            pages++;
+        } while (cursor != null);
+        assertEquals(total, seen.size());
+        assertEquals(3, pages);
+    }
+
+    @Test
+    public void balanceObserver_seesCreditsAndBookings() throws Exception {
+        await((DatabaseHelper.DatabaseCallback<Void> cb) -> databaseHelper.addUser(new User("alice", "pw", "customer", 1000), cb));
+        List<Double> seen = new CopyOnWriteArrayList<>();
+        CountDownLatch initial = new CountDownLatch(1);
+        ListenerRegistration registration = databaseHelper.observeBalance("alice", new ValueObserver<Double>() {
+            @Override
+            public void onValue(Double value) {
+                seen.add(value);
+                initial.countDown();
+            }
+            @Override public void onFailure(Exception e) { }
+        });
+        // The first value is read asynchronously; a credit racing it would be folded into it.
+        assertTrue(initial.await(5, TimeUnit.SECONDS));
+
+        await((DatabaseHelper.DatabaseCallback<Void> cb) -> databaseHelper.creditBalance("alice", 500, cb));
+        String showId = addShow("Dune");
+        Booking b = new Booking("alice", showId, "Dune", "2026-01-01", "7:00 PM", 300, 1, "Confirmed");
+        await((DatabaseHelper.DatabaseCallback<String> cb) -> databaseHelper.bookTickets(b, cb));
+        registration.remove();
+        await((DatabaseHelper.DatabaseCallback<Void> cb) -> databaseHelper.creditBalance("alice", 1, cb));
+
+        assertEquals(Arrays.asList(1000.0, 1500.0, 1200.0), seen);
+    }
+
+    @Test
+    public void latencyInjection_delaysCompletion() throws Exception {
+        backend.setLatency(50, 50);
+        long start = System.nanoTime();
+        await((DatabaseHelper.DatabaseCallback<User> cb) -> databaseHelper.getUser("nobody", cb));
+        long elapsedMs = TimeUnit.NANOSECONDS.toMillis(System.nanoTime() - start);
+        assertTrue("elapsed " + elapsedMs, elapsedMs >= 50);
+    }
+
+    private String addShow(String movieTitle) throws Exception {
+        return await((DatabaseHelper.DatabaseCallback<String> cb) ->
+                databaseHelper.addShow(new Show(movieTitle, "2026-01-01", "7:00 PM", 300, "Active"), cb));
+    }
+
+    private interface Call<T> {
+        void invoke(DatabaseHelper.DatabaseCallback<T> callback);
+    }
+
+    private static <T> T await(Call<T> call) throws Exception {
+        CountDownLatch latch = new CountDownLatch(1);
+        AtomicReference<T> result = new AtomicReference<>();
+        List<Exception> errors = new ArrayList<>();
+        call.invoke(new DatabaseHelper.DatabaseCallback<T>() {
+            @Override
+            public void onSuccess(T value) {
+                result.set(value);
+                latch.countDown();
+            }
+
+            @Override
+            public void onFailure(Exception e) {
+                errors.add(e);
+                latch.countDown();
+            }
+        });
+        assertTrue(latch.await(5, TimeUnit.SECONDS));
+        if (!errors.isEmpty()) throw errors.get(0);
+        return result.get();
+    }
+
+    private static class Latched<T> implements DatabaseHelper.DatabaseCallback<T> {
+        private final CountDownLatch latch;
+
+        Latched(CountDownLatch latch) { this.latch = latch; }
+
+        @Override public void onSuccess(T result) { latch.countDown(); }
+        @Override public void onFailure(Exception e) { }
+    }
+}
@@ -0,0 +1,62 @@
+package com.example.moviebuzz;
+
+import org.junit.Test;
+
+import java.util.HashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.concurrent.CountDownLatch;
+import java.util.concurrent.TimeUnit;
+
+import static org.junit.Assert.*;
+
+public class LatencyHistogramTest {
+
+    @Test
+    public void percentiles_landInTheRightBuckets() {
+        LatencyHistogram h = new LatencyHistogram();
+        for (int i = 0; i < 90; i++) h.record(TimeUnit.MILLISECONDS.toNanos(3), 1, 100, false);
+        for (int i = 0; i < 9; i++) h.record(TimeUnit.MILLISECONDS.toNanos(80), 1, 100, false);
+        h.record(TimeUnit.SECONDS.toNanos(40), -1, -1, true);
+
+        assertEquals(5_000, h.percentileMicros(50));
+        assertEquals(100_000, h.percentileMicros(95));
+        assertEquals(100_000, h.percentileMicros(99));
+        // Past the last bound the slowest observed value is reported.
+        assertEquals(40_000_000, h.percentileMicros(100));
+
+        Map<String, Object> map = h.toMap();
+        assertEquals(100L, map.get("count"));
+        assertEquals(0.01, (Double) map.get("errorRate"), 1e-9);
+        assertEquals(99L, map.get("items"));
+        assertEquals(9_900L, map.get("bytes"));
+    }
+
+    @Test
+    public void reset_clearsEverything() {
+        LatencyHistogram h = new LatencyHistogram();
+        h.record(TimeUnit.MILLISECONDS.toNanos(3), 1, 1, true);
+        h.reset();
+        assertEquals(0, h.getCount());
+        assertEquals(0, h.percentileMicros(99));
+    }
+
+    @Test
+    public void databaseHelperCalls_areRecordedPerOperation() throws Exception {
+        InMemoryBackend backend = new InMemoryBackend(1);
+        try {
+            DatabaseHelper helper = new DatabaseHelper(backend);
+            long before = Diagnostics.histogram("getAllShows").getCount();
+            CountDownLatch done = new CountDownLatch(1);
+            helper.getAllShows(new DatabaseHelper.DatabaseCallback<List<Show>>() {
+                @Override public void onSuccess(List<Show> result) { done.countDown(); }
+                @Override public void onFailure(Exception e) { }
+            });
+            assertTrue(done.await(5, TimeUnit.SECONDS));
+            assertEquals(before + 1, Diagnostics.histogram("getAllShows").getCount());
+            assertTrue(Diagnostics.toJson(new HashMap<String, Object>()).contains("\"getAllShows\""));
+        } finally {
+            backend.shutdown();
+        }
+    }
+}
@@ -0,0 +1,68 @@
+package com.example.moviebuzz;
+
+import org.junit.Test;
+
+import java.util.ArrayList;
+import java.util.List;
+
+import static org.junit.Assert.*;
+
+public class LiveQueryHubTest {
+
+    // Stands in for a backend query: counts listeners and lets the test push child events.
+    private static class FakeSource implements LiveQueryHub.Source<String> {
+        int attached;
+        int detached;
+        ChildEventCallback<String> sink;
+
+        @Override
+        public ListenerRegistration attach(ChildEventCallback<String> sink) {
+            attached++;
+            this.sink = sink;
+            return () -> detached++;
+        }
+    }
+
+    private static class Recorder implements DatabaseHelper.SyncCallback<String> {
+        final List<ChangeSet<String>> changes = new ArrayList<>();
+
+        @Override public void onChanged(ChangeSet<String> changes) { this.changes.add(changes); }
+        @Override public void onFailure(Exception e) { }
+    }
+
+    @Test
+    public void sharedQuery_attachesOnceAndDetachesAtZeroSubscribers() {
+        LiveQueryHub hub = new LiveQueryHub();
+        FakeSource source = new FakeSource();
+        Recorder first = new Recorder();
+        Recorder second = new Recorder();
+
+        ListenerRegistration a = hub.subscribe("movies", source, first);
+        source.sink.onChildAdded("m1", "Dune", null);
+        source.sink.onSynced();
+        ListenerRegistration b = hub.subscribe("movies", source, second);
+        assertEquals(1, source.attached);
+        assertEquals(1, hub.getAttachedQueryCount());
+        assertEquals(2, (int) hub.getListenerCounts().get("movies"));
+        // The late subscriber starts from the current contents.
+        assertTrue(second.changes.get(0).isReset());
+        assertEquals(1, second.changes.get(0).getResetItems().size());
+
+        a.remove();
+        assertEquals(0, source.detached);
+        assertEquals(1, hub.getAttachedQueryCount());
+
+        b.remove();
+        assertEquals(1, source.detached);
+        assertEquals(0, hub.getAttachedQueryCount());
+
+        // Events still in flight from the detached listener go nowhere.
+        int seen = second.changes.size();
+        source.sink.onChildAdded("m2", "Heat", "m1");
+        assertEquals(seen, second.changes.size());
+
+        hub.subscribe("movies", source, new Recorder());
+        assertEquals(2, source.attached);
+        assertEquals(1, hub.getAttachedQueryCount());
+    }
+}
@@ -0,0 +1,156 @@
+package com.example.moviebuzz;
+
+import org.junit.Test;
+
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.Collections;
+import java.util.List;
+import java.util.Random;
+
+import static org.junit.Assert.*;
+
+// Builds a MovieIndex over a synthetic catalog and times searches against a linear scan of the
+// same movies (what filtering the grid's list would cost), checking both return the same movies.
+// Titles draw from a Zipf-like vocabulary, so some words are in thousands of titles and most in a
+// handful, as in a real catalog. The 200k run is skipped unless -Dmoviebuzz.benchmark.large=true.
+public class MovieIndexBenchmarkTest {
+    private static final String[] GENRES = {"Action", "Adventure", "Animation", "Biography", "Comedy", "Crime",
+            "Documentary", "Drama", "Family", "Fantasy", "History", "Horror", "Music", "Mystery", "Romance",
+            "Sci-Fi", "Sport", "Thriller", "War", "Western"};
+    private static final int VOCABULARY = 20_000;
+
+    @Test
+    public void searchLatency() {
+        List<Integer> sizes = new ArrayList<>(Arrays.asList(10_000, 50_000));
+        if (Boolean.getBoolean("moviebuzz.benchmark.large")) sizes.add(200_000);
+        for (int size : sizes) run(size);
+    }
+
+    private static void run(int size) {
+        Random random = new Random(size);
+        List<Movie> movies = catalog(size, random);
+
+        long start = System.nanoTime();
+        MovieIndex index = new MovieIndex();
+        for (Movie m : movies) index.put(m);
+        double buildMs = (System.nanoTime() - start) / 1e6;
+
+        List<String[]> queries = queries(movies, random);
+        // Warm up, and check the index against the scan while at it.
+        for (String[] q : queries) {
+            List<String> genres = genres(q);
+            assertEquals(q[0] + " " + genres, scan(movies, q[0], genres), index.search(q[0], genres));
+        }
+
+        long[] indexed = time(queries, q -> index.search(q[0], genres(q)).size());
+        long[] scanned = time(queries, q -> scan(movies, q[0], genres(q)).size());
+        BenchmarkReport.print(
+                "index movies=%d build=%.0fms words=%d postings=%d | search p50=%.1fus p99=%.1fus"
+                        + " | scan p50=%.1fus p99=%.1fus",
+                size, buildMs, index.getWordCount(), index.getPostingCount(),
+                percentile(indexed, 50), percentile(indexed, 99), percentile(scanned, 50), percentile(scanned, 99));
+    }
+
+    private interface Query {
+        int run(String[] query);
+    }
+
+    // Nanoseconds per query, sorted.
+    private static long[] time(List<String[]> queries, Query query) {
+        long[] nanos = new long[queries.size()];
+        int sink = 0;
+        for (int i = 0; i < nanos.length; i++) {
+            long start = System.nanoTime();
+            sink += query.run(queries.get(i));
+            nanos[i] = System.nanoTime() - start;
+        }
+        assertTrue(sink >= 0);
+        Arrays.sort(nanos);
+        return nanos;
+    }
+
+    private static double percentile(long[] sortedNanos, int p) {
+        return sortedNanos[Math.min(sortedNanos.length - 1, sortedNanos.length * p / 100)] / 1e3;
+    }
+
+    private static List<Movie> catalog(int size, Random random) {
+        List<Movie> movies = new ArrayList<>(size);
+        for (int i = 0; i < size; i++) {
+            int words = 1 + random.nextInt(4);
+            StringBuilder title = new StringBuilder();
+            for (int w = 0; w < words; w++) {
+                if (w > 0) title.append(' ');
+                title.append(word(zipf(random)));
+            }
+            StringBuilder genre = new StringBuilder(GENRES[random.nextInt(GENRES.length)]);
+            if (random.nextBoolean()) genre.append(", ").append(GENRES[random.nextInt(GENRES.length)]);
+            Movie m = new Movie(title.toString(), genre.toString(), "100 min", null);
+            m.setId("m" + i);
+            movies.add(m);
+        }
+        return movies;
+    }
+
+    // Typing a title a keystroke at a time, mixed with genre chips.
+    private static List<String[]> queries(List<Movie> movies, Random random) {
+        List<String[]> queries = new ArrayList<>();
+        for (int i = 0; i < 200; i++) {
+            String title = movies.get(random.nextInt(movies.size())).getTitle();
+            String genre = random.nextInt(3) == 0 ? GENRES[random.nextInt(GENRES.length)] : null;
+            for (int end = 1; end <= title.length(); end++) {
+                queries.add(new String[]{title.substring(0, end), genre});
+            }
+        }
+        for (String g : GENRES) queries.add(new String[]{"", g});
+        return queries;
+    }
+
+    private static List<String> genres(String[] query) {
+        return query[1] == null ? Collections.<String>emptyList() : Collections.singletonList(query[1]);
+    }
+
+    // What the index promises, computed the slow way.
+    private static List<Movie> scan(List<Movie> movies, String query, List<String> genres) {
+        List<String> terms = MovieIndex.tokenize(query);
+        List<Movie> results = new ArrayList<>();
+        for (Movie m : movies) {
+            List<String> words = MovieIndex.tokenize(m.getTitle());
+            boolean match = true;
+            for (int i = 0; i < terms.size() && match; i++) {
+                String term = terms.get(i);
+                if (i < terms.size() - 1) {
+                    match = words.contains(term);
+                } else {
+                    match = false;
+                    for (String w : words) match |= w.startsWith(term);
+                }
+            }
+            if (match && !genres.isEmpty()) {
+                match = false;
+                for (String g : m.getGenre().split(",")) match |= genres.contains(g.trim());
+            }
+            if (match) results.add(m);
+        }
+        return results;
+    }
+
+    private static int zipf(Random random) {
+        return (int) Math.min(VOCABULARY - 1, Math.floor(Math.pow(VOCABULARY, random.nextDouble())) - 1);
+    }
+
+    // Deterministic pronounceable word for a vocabulary rank.
+    private static String word(int rank) {
+        String consonants = "bcdfghklmnprstvz";
+        String vowels = "aeiou";
+        StringBuilder w = new StringBuilder();
+        int n = rank + 1;
+        do {
+            w.append(consonants.charAt(n % consonants.length()));
+            n /= consonants.length();
+            w.append(vowels.charAt(n % vowels.length()));
+            n /= vowels.length();
+        } while (n > 0);
+        return w.toString();
+    }
+}
@@ -0,0 +1,91 @@
+package com.example.moviebuzz;
+
+import org.junit.Test;
+
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.Collections;
+import java.util.List;
+
+import static org.junit.Assert.*;
+
+public class MovieIndexTest {
+    private static final List<String> NONE = Collections.emptyList();
+
+    private static Movie movie(String id, String title, String genre) {
+        Movie m = new Movie(title, genre, "100 min", null);
+        m.setId(id);
+        return m;
+    }
+
+    private static MovieIndex catalog() {
+        MovieIndex index = new MovieIndex();
+        index.put(movie("1", "Star Wars", "Action, Adventure, Fantasy"));
+        index.put(movie("2", "Star Trek", "Action, Sci-Fi"));
+        index.put(movie("3", "A Star Is Born", "Drama, Music, Romance"));
+        index.put(movie("4", "Amélie", "Comedy, Romance"));
+        index.put(movie("5", "Spider-Man: No Way Home", "Action, Adventure, Sci-Fi"));
+        return index;
+    }
+
+    private static List<String> ids(List<Movie> movies) {
+        List<String> ids = new ArrayList<>();
+        for (Movie m : movies) ids.add(m.getId());
+        return ids;
+    }
+
+    @Test
+    public void tokenize_splitsOnPunctuationAndFoldsCaseAndAccents() {
+        assertEquals(Arrays.asList("spider", "man", "no", "way", "home"), MovieIndex.tokenize("Spider-Man: No Way Home"));
+        assertEquals(Arrays.asList("amelie", "2001"), MovieIndex.tokenize(" Amélie (2001) "));
+        assertTrue(MovieIndex.tokenize(null).isEmpty());
+    }
+
+    @Test
+    public void search_matchesWordsWithLastAsPrefix() {
+        MovieIndex index = catalog();
+        assertEquals(Arrays.asList("1", "2", "3"), ids(index.search("star", NONE)));
+        assertEquals(Arrays.asList("1", "2", "3"), ids(index.search("st", NONE)));
+        assertEquals(Arrays.asList("1"), ids(index.search("STAR w", NONE)));
+        assertEquals(Arrays.asList("3"), ids(index.search("born star", NONE)));
+        assertEquals(Arrays.asList("4"), ids(index.search("amel", NONE)));
+        assertEquals(Arrays.asList("5"), ids(index.search("spider man", NONE)));
+        assertTrue(index.search("stars", NONE).isEmpty());
+        assertTrue(index.search("wars x", NONE).isEmpty());
+        assertEquals(5, index.search("  ", NONE).size());
+    }
+
+    @Test
+    public void search_filtersByAnySelectedGenre() {
+        MovieIndex index = catalog();
+        assertEquals(Arrays.asList("2", "5"), ids(index.search("", Arrays.asList("sci-fi"))));
+        assertEquals(Arrays.asList("2", "3"), ids(index.search("star", Arrays.asList("Sci-Fi", "music"))));
+        assertEquals(Arrays.asList("3"), ids(index.search("a star", Arrays.asList("romance"))));
+        assertTrue(index.search("", Arrays.asList("western")).isEmpty());
+
+        List<MovieIndex.Genre> genres = index.getGenres();
+        assertEquals("Action", genres.get(0).getName());
+        assertEquals(3, genres.get(0).getCount());
+        assertEquals("action", genres.get(0).getKey());
+    }
+
+    @Test
+    public void changes_updateIndexInPlace() {
+        MovieIndex index = catalog();
+        index.put(movie("2", "Star Trek Beyond", "Action"));
+        assertEquals(Arrays.asList("2"), ids(index.search("beyond", NONE)));
+        assertEquals(Arrays.asList("5"), ids(index.search("", Arrays.asList("sci-fi"))));
+        // Still in its original position.
+        assertEquals(Arrays.asList("1", "2", "3"), ids(index.search("star", NONE)));
+
+        index.remove("1");
+        assertEquals(Arrays.asList("2", "3"), ids(index.search("star", NONE)));
+        assertEquals(4, index.size());
+        for (MovieIndex.Genre g : index.getGenres()) assertNotEquals("Fantasy", g.getName());
+
+        index.apply(ChangeSet.reset(Arrays.asList(movie("9", "Heat", "Crime"))));
+        assertEquals(1, index.size());
+        assertEquals(Arrays.asList("9"), ids(index.search("he", NONE)));
+        assertTrue(index.search("star", NONE).isEmpty());
+    }
+}
@@ -0,0 +1,218 @@
+package com.example.moviebuzz;
+
+import com.sun.net.httpserver.HttpServer;
+
+import org.junit.After;
+import org.junit.Before;
+import org.junit.Test;
+
+import java.io.File;
+import java.io.OutputStream;
+import java.net.InetSocketAddress;
+import java.nio.charset.StandardCharsets;
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.Collections;
+import java.util.HashSet;
+import java.util.List;
+import java.util.Set;
+import java.util.concurrent.CountDownLatch;
+import java.util.concurrent.Executors;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicInteger;
+import java.util.concurrent.atomic.AtomicReference;
+
+import static org.junit.Assert.*;
+
+// Runs OmdbClient against a local server that answers like OMDb after a fixed delay, and reports
+// per-lookup latency for cold (network) and repeated (cached) lookups.
+public class OmdbClientTest {
+    private static final long LATENCY_MS = 30;
+
+    private HttpServer server;
+    private File cacheDir;
+    private final AtomicInteger requests = new AtomicInteger();
+    private final Set<Integer> clientPorts = Collections.synchronizedSet(new HashSet<Integer>());
+
+    @Before
+    public void setUp() throws Exception {
+        server = HttpServer.create(new InetSocketAddress("127.0.0.1", 0), 0);
+        server.createContext("/", exchange -> {
+            requests.incrementAndGet();
+            clientPorts.add(exchange.getRemoteAddress().getPort());
+            String query = exchange.getRequestURI().getQuery();
+            String body = query.startsWith("s=")
+                    ? searchBody(query.replaceAll("^s=([^&]*).*", "$1"))
+                    : movieBody(query.replaceAll("^t=([^&]*).*", "$1"));
+            byte[] bytes = body.getBytes(StandardCharsets.UTF_8);
+            try {
+                Thread.sleep(LATENCY_MS);
+            } catch (InterruptedException ignored) {
+            }
+            exchange.getResponseHeaders().set("Content-Type", "application/json");
+            exchange.sendResponseHeaders(200, bytes.length);
+            try (OutputStream out = exchange.getResponseBody()) {
+                out.write(bytes);
+            }
+        });
+        server.start();
+        cacheDir = new File(System.getProperty("java.io.tmpdir"), "omdb-test-" + System.nanoTime());
+    }
+
+    @After
+    public void tearDown() {
+        server.stop(0);
+        File[] files = cacheDir.listFiles();
+        if (files != null) for (File f : files) f.delete();
+        cacheDir.delete();
+    }
+
+    private static String movieBody(String title) {
+        if (title.startsWith("missing")) return "{\"Response\":\"False\",\"Error\":\"Movie not found!\"}";
+        return "{\"Title\":\"" + title + "\",\"Genre\":\"Drama\",\"Runtime\":\"120 min\","
+                + "\"Poster\":\"https://example.com/" + title + ".jpg\",\"Response\":\"True\"}";
+    }
+
+    // "the" is too broad to list; anything else matches three titles, all on one page.
+    private static String searchBody(String query) {
+        if (query.equals("the")) return "{\"Response\":\"False\",\"Error\":\"Too many results.\"}";
+        String word = Character.toUpperCase(query.charAt(0)) + query.substring(1);
+        return "{\"Search\":[" + result(word + " Wars", 1) + "," + result(word + " Trek", 2) + ","
+                + result("A " + word + " Is Born", 3) + "],\"totalResults\":\"3\",\"Response\":\"True\"}";
+    }
+
+    private static String result(String title, int id) {
+        return "{\"Title\":\"" + title + "\",\"Year\":\"1999\",\"imdbID\":\"tt000000" + id
+                + "\",\"Type\":\"movie\"}";
+    }
+
+    private OmdbClient client() {
+        String base = "http://127.0.0.1:" + server.getAddress().getPort() + "/";
+        return new OmdbClient(base, "test", cacheDir, 64 * 1024, AppExecutors.network(), Runnable::run);
+    }
+
+    @Test
+    public void lookup_parsesMovieAndMapsNotFoundToNull() throws Exception {
+        OmdbClient client = client();
+        Movie movie = find(client, "Arrival");
+        assertEquals("Arrival", movie.getTitle());
+        assertEquals("Drama", movie.getGenre());
+        assertEquals("120 min", movie.getDuration());
+        assertEquals("https://example.com/Arrival.jpg", movie.getPosterPath());
+        assertNull(find(client, "missing title"));
+    }
+
+    @Test
+    public void repeatedLookups_areServedFromCache() throws Exception {
+        OmdbClient client = client();
+        client.fetch("Heat");
+        client.fetch("missing one");
+        int afterFirst = requests.get();
+        assertEquals("Heat", client.fetch("  heat ").getTitle());
+        assertNull(client.fetch("Missing One"));
+        assertEquals(afterFirst, requests.get());
+
+        // A fresh client over the same directory still has them.
+        assertEquals("Heat", client().fetch("HEAT").getTitle());
+        assertEquals(afterFirst, requests.get());
+    }
+
+    @Test
+    public void sequentialLookups_reuseConnection() throws Exception {
+        OmdbClient client = client();
+        for (int i = 0; i < 10; i++) client.fetch("Movie " + i);
+        assertEquals(10, requests.get());
+        assertEquals(1, clientPorts.size());
+    }
+
+    @Test
+    public void latency_coldVersusCached() throws Exception {
+        OmdbClient client = client();
+        int n = 40;
+        long start = System.nanoTime();
+        for (int i = 0; i < n; i++) client.fetch("Title " + i);
+        double coldMs = (System.nanoTime() - start) / 1e6 / n;
+        start = System.nanoTime();
+        for (int i = 0; i < n; i++) client.fetch("Title " + i);
+        double cachedMs = (System.nanoTime() - start) / 1e6 / n;
+        BenchmarkReport.print(
+                "omdb lookups=%d server=%dms cold=%.2fms/lookup cached=%.3fms/lookup connections=%d",
+                n, LATENCY_MS, coldMs, cachedMs, clientPorts.size());
+        assertEquals(n, requests.get());
+        assertTrue(cachedMs < coldMs);
+    }
+
+    @Test
+    public void search_answersRepeatedAndNarrowingQueriesLocally() throws Exception {
+        OmdbClient client = client();
+        assertNull(client.cachedSuggestions("star"));
+        assertEquals(3, client.search("star", null).size());
+        assertEquals(1, requests.get());
+
+        assertEquals(3, client.cachedSuggestions(" Star ").size());
+        List<OmdbClient.Suggestion> narrowed = client.cachedSuggestions("star wa");
+        assertEquals(1, narrowed.size());
+        assertEquals("Star Wars", narrowed.get(0).getTitle());
+        assertEquals("tt0000001", narrowed.get(0).getImdbId());
+        assertEquals(1, client.search("star wa", null).size());
+        // Not a narrowing of "star": it changes the word instead of adding one.
+        assertNull(client.cachedSuggestions("stars"));
+        assertEquals(1, requests.get());
+
+        // "Too many results" says nothing about longer queries.
+        assertTrue(client.search("the", null).isEmpty());
+        assertNull(client.cachedSuggestions("the star"));
+
+        // A new client starts with no memory, but the disk cache still has the response.
+        assertEquals(3, client().search("star", null).size());
+        assertEquals(2, requests.get());
+    }
+
+    @Test
+    public void suggester_debouncesAndDeliversOnlyTheLatestQuery() throws Exception {
+        OmdbClient client = client();
+        List<String> delivered = Collections.synchronizedList(new ArrayList<String>());
+        CountDownLatch heat = new CountDownLatch(1);
+        TitleSuggester suggester = new TitleSuggester(client, Executors.newSingleThreadScheduledExecutor(),
+                AppExecutors.network(), Runnable::run, 50, (query, suggestions) -> {
+                    delivered.add(query + "=" + suggestions.size());
+                    if (query.equals("heat")) heat.countDown();
+                });
+
+        // Typing quickly sends only the last query.
+        for (String q : new String[]{"m", "ma", "mat", "matr", "matri", "matrix"}) suggester.setQuery(q);
+        long deadline = System.currentTimeMillis() + 5000;
+        while (requests.get() == 0 && System.currentTimeMillis() < deadline) Thread.sleep(5);
+        // "matrix" is in flight; superseding it means its response is never parsed or delivered.
+        suggester.setQuery("heat");
+        assertTrue(heat.await(5, TimeUnit.SECONDS));
+        assertEquals(2, requests.get());
+        assertEquals(Arrays.asList("m=0", "ma=0", "heat=3"), delivered);
+
+        // The dropped response was still cached, so coming back to it costs no request.
+        assertEquals(3, client.search("matrix", null).size());
+        assertEquals(2, requests.get());
+    }
+
+    private static Movie find(OmdbClient client, String title) throws Exception {
+        CountDownLatch done = new CountDownLatch(1);
+        AtomicReference<Movie> result = new AtomicReference<>();
+        AtomicReference<Exception> error = new AtomicReference<>();
+        client.findByTitle(title, new DatabaseHelper.DatabaseCallback<Movie>() {
+            @Override
+            public void onSuccess(Movie movie) {
+                result.set(movie);
+                done.countDown();
+            }
+
+            @Override
+            public void onFailure(Exception e) {
+                error.set(e);
+                done.countDown();
+            }
+        });
+        assertTrue(done.await(5, TimeUnit.SECONDS));
+        if (error.get() != null) throw error.get();
+        return result.get();
+    }
+}
@@ -0,0 +1,47 @@
+package com.example.moviebuzz;
+
+import org.junit.Test;
+
+import java.nio.charset.StandardCharsets;
+
+import static org.junit.Assert.*;
+
+public class PosterStoreTest {
+    @Test
+    public void crop_keepsCenteredRegionWithTargetAspect() {
+        // OMDb's 300x444 posters are slightly wider than 2:3: trim the sides.
+        assertArrayEquals(new int[]{2, 0, 298, 444}, PosterStore.crop(300, 444, 300, 450));
+        // Taller: trim top and bottom.
+        assertArrayEquals(new int[]{0, 3, 300, 453}, PosterStore.crop(300, 456, 300, 450));
+        assertArrayEquals(new int[]{0, 0, 600, 900}, PosterStore.crop(600, 900, 300, 450));
+    }
+
+    @Test
+    public void sampleSize_neverDecodesBelowTarget() {
+        assertEquals(2, PosterStore.sampleSize(600, 900, 300, 450));
+        // Halving 888 would leave fewer rows than the thumbnail needs.
+        assertEquals(1, PosterStore.sampleSize(600, 888, 300, 450));
+        assertEquals(4, PosterStore.sampleSize(1400, 2000, 300, 450));
+    }
+
+    @Test
+    public void keysAreContentHashesAndUrlsAreStable() {
+        String key = PosterStore.sha256("poster".getBytes(StandardCharsets.UTF_8));
+        assertEquals(64, key.length());
+        assertEquals(key, PosterStore.sha256("poster".getBytes(StandardCharsets.UTF_8)));
+        assertNotEquals(key, PosterStore.sha256("poster2".getBytes(StandardCharsets.UTF_8)));
+        assertEquals("https://firebasestorage.googleapis.com/v0/b/demo.appspot.com/o/posters%2F" + key + ".jpg?alt=media",
+                PosterStore.publicUrl("demo.appspot.com", key));
+    }
+
+    @Test
+    public void codec_roundTripsDerivativeKeys() {
+        Movie movie = new Movie("Heat", "Crime", "170 min", "https://example.com/heat.jpg");
+        movie.setPosterThumbKey("aa");
+        movie.setPosterHeroKey("bb");
+        Movie decoded = ModelCodec.decodeMovie(ModelCodec.encodeMovie(movie));
+        assertEquals("aa", decoded.getPosterThumbKey());
+        assertEquals("bb", decoded.getPosterHeroKey());
+        assertNull(ModelCodec.decodeMovie(ModelCodec.encodeMovie(new Movie("Ran", null, null, null))).getPosterThumbKey());
+    }
+}
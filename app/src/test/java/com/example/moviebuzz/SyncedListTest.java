@@ -0,0 +1,36 @@
+package com.example.moviebuzz;
+
+import org.junit.Test;
+
+import java.util.Arrays;
+
+import static org.junit.Assert.*;
+
+public class SyncedListTest {
+
+    @Test
+    public void edits_reportPositionsAfterEarlierShifts() {
+        SyncedList<String> list = new SyncedList<>();
+        list.add("a", "A", null);
+        list.add("c", "C", "a");
+        assertEquals(1, list.add("b", "B", "a").position);
+        assertEquals(Arrays.asList("A", "B", "C"), list.snapshot());
+
+        // "c" shifted when "b" went in ahead of it.
+        ChangeSet.Op<String> changed = list.change("c", "C2", "b");
+        assertEquals(ChangeSet.CHANGE, changed.type);
+        assertEquals(2, changed.position);
+
+        ChangeSet.Op<String> moved = list.move("a", "A", "c");
+        assertEquals(0, moved.position);
+        assertEquals(2, moved.toPosition);
+        assertEquals(Arrays.asList("B", "C2", "A"), list.snapshot());
+
+        assertEquals(0, list.remove("b").position);
+        assertNull(list.remove("b"));
+        assertEquals(1, list.remove("a").position);
+        // A second add of a known key is a change in place.
+        assertEquals(ChangeSet.CHANGE, list.add("c", "C3", null).type);
+        assertEquals(Arrays.asList("C3"), list.snapshot());
+    }
+}
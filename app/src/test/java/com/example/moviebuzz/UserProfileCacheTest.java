@@ -0,0 +1,62 @@
+package com.example.moviebuzz;
+
+import org.junit.Test;
+
+import java.util.ArrayList;
+import java.util.List;
+import java.util.concurrent.atomic.AtomicInteger;
+
+import static org.junit.Assert.*;
+
+public class UserProfileCacheTest {
+    private final List<DatabaseHelper.DatabaseCallback<User>> pending = new ArrayList<>();
+    private final UserProfileCache.Fetcher fetcher = (username, callback) -> pending.add(callback);
+
+    @Test
+    public void concurrentReads_shareOneFetch() {
+        UserProfileCache cache = new UserProfileCache(60_000);
+        AtomicInteger answered = new AtomicInteger();
+        for (int i = 0; i < 3; i++) cache.get("alice", fetcher, new Counting(answered));
+        assertEquals(1, pending.size());
+
+        pending.get(0).onSuccess(new User("alice", "pw", "customer", 100));
+        assertEquals(3, answered.get());
+        assertEquals(Long.valueOf(1), cache.getStats().get("misses"));
+        assertEquals(Long.valueOf(2), cache.getStats().get("coalesced"));
+
+        cache.get("alice", fetcher, new Counting(answered));
+        assertEquals(1, pending.size());
+        assertEquals(Long.valueOf(1), cache.getStats().get("hits"));
+    }
+
+    @Test
+    public void invalidationDuringFetch_isNotOverwrittenByStaleResult() {
+        UserProfileCache cache = new UserProfileCache(60_000);
+        AtomicInteger answered = new AtomicInteger();
+        cache.get("alice", fetcher, new Counting(answered));
+        cache.invalidate("alice");
+        pending.get(0).onSuccess(new User("alice", "pw", "customer", 100));
+
+        cache.get("alice", fetcher, new Counting(answered));
+        assertEquals(2, pending.size());
+    }
+
+    @Test
+    public void expiredEntry_isFetchedAgain() {
+        UserProfileCache cache = new UserProfileCache(-1);
+        AtomicInteger answered = new AtomicInteger();
+        cache.get("alice", fetcher, new Counting(answered));
+        pending.get(0).onSuccess(new User("alice", "pw", "customer", 100));
+        cache.get("alice", fetcher, new Counting(answered));
+        assertEquals(2, pending.size());
+    }
+
+    private static class Counting implements DatabaseHelper.DatabaseCallback<User> {
+        private final AtomicInteger count;
+
+        Counting(AtomicInteger count) { this.count = count; }
+
+        @Override public void onSuccess(User result) { count.incrementAndGet(); }
+        @Override public void onFailure(Exception e) { }
+    }
+}
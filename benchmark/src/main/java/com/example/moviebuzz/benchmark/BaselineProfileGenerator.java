@@ -0,0 +1,45 @@
+package com.example.moviebuzz.benchmark;
+
+import androidx.benchmark.macro.junit4.BaselineProfileRule;
+import androidx.test.ext.junit.runners.AndroidJUnit4;
+import androidx.test.uiautomator.Direction;
+import androidx.test.uiautomator.UiDevice;
+import androidx.test.uiautomator.UiObject2;
+
+import org.junit.Rule;
+import org.junit.Test;
+import org.junit.runner.RunWith;
+
+import kotlin.Unit;
+
+// Records the code run by login, home grid scrolling, movie details and booking. Needs a rooted
+// device or an emulator image without Google Play (API 28+):
+//   ./gradlew :benchmark:connectedBenchmarkAndroidTest \
+//       -Pandroid.testInstrumentationRunnerArguments.class=com.example.moviebuzz.benchmark.BaselineProfileGenerator
+// then copy the pulled *-baseline-prof.txt over app/src/main/baseline-prof.txt.
+@RunWith(AndroidJUnit4.class)
+public class BaselineProfileGenerator {
+
+    @Rule
+    public BaselineProfileRule rule = new BaselineProfileRule();
+
+    @Test
+    public void generate() {
+        rule.collect(MovieBuzzFlows.PACKAGE, scope -> {
+            // Starting logged out covers the login form and the first trip to the home screen.
+            MovieBuzzFlows.ensureLoggedOut(scope);
+            MovieBuzzFlows.ensureLoggedIn(scope);
+
+            UiDevice device = scope.getDevice();
+            UiObject2 grid = device.findObject(MovieBuzzFlows.res("movieRecyclerView"));
+            grid.setGestureMargin(device.getDisplayWidth() / 5);
+            grid.fling(Direction.DOWN);
+            device.waitForIdle();
+            grid.fling(Direction.UP);
+            device.waitForIdle();
+
+            MovieBuzzFlows.bookFirstShow(device);
+            return Unit.INSTANCE;
+        });
+    }
+}
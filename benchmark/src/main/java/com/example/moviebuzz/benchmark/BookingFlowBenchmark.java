@@ -0,0 +1,39 @@
+package com.example.moviebuzz.benchmark;
+
+import androidx.benchmark.macro.CompilationMode;
+import androidx.benchmark.macro.FrameTimingMetric;
+import androidx.benchmark.macro.junit4.MacrobenchmarkRule;
+import androidx.test.ext.junit.runners.AndroidJUnit4;
+
+import org.junit.Rule;
+import org.junit.Test;
+import org.junit.runner.RunWith;
+
+import java.util.Collections;
+
+import kotlin.Unit;
+
+// Home grid -> MovieDetailsActivity -> pick a show -> confirm -> owned-ticket badge updates ->
+// back. Frame timing covers the whole flow, including the details screen's cached-then-network
+// binds. The in-app "bookTickets" histogram (admin diagnostics) has the database side of it.
+@RunWith(AndroidJUnit4.class)
+public class BookingFlowBenchmark {
+    private static final int ITERATIONS = 10;
+
+    @Rule
+    public MacrobenchmarkRule rule = new MacrobenchmarkRule();
+
+    @Test
+    public void bookTickets() {
+        rule.measureRepeated(MovieBuzzFlows.PACKAGE, Collections.singletonList(new FrameTimingMetric()),
+                CompilationMode.DEFAULT, null, ITERATIONS,
+                scope -> {
+                    MovieBuzzFlows.ensureLoggedIn(scope);
+                    return Unit.INSTANCE;
+                },
+                scope -> {
+                    MovieBuzzFlows.bookFirstShow(scope.getDevice());
+                    return Unit.INSTANCE;
+                });
+    }
+}
@@ -0,0 +1,81 @@
+package com.example.moviebuzz.benchmark;
+
+import androidx.benchmark.macro.BaselineProfileMode;
+import androidx.benchmark.macro.CompilationMode;
+import androidx.benchmark.macro.FrameTimingMetric;
+import androidx.benchmark.macro.StartupMode;
+import androidx.benchmark.macro.StartupTimingMetric;
+import androidx.benchmark.macro.junit4.MacrobenchmarkRule;
+import androidx.test.uiautomator.Direction;
+import androidx.test.uiautomator.UiDevice;
+import androidx.test.uiautomator.UiObject2;
+
+import org.junit.Rule;
+import org.junit.Test;
+import org.junit.runner.RunWith;
+import org.junit.runners.Parameterized;
+
+import java.util.Arrays;
+import java.util.Collections;
+import java.util.List;
+
+import kotlin.Unit;
+
+// The same cold start and grid fling with no ahead-of-time compilation (what a fresh install
+// without a profile gets) and with the baseline profile, to show what the profile is worth.
+@RunWith(Parameterized.class)
+public class CompilationModeBenchmark {
+    private static final int ITERATIONS = 10;
+
+    @Rule
+    public MacrobenchmarkRule rule = new MacrobenchmarkRule();
+
+    private final CompilationMode compilationMode;
+
+    public CompilationModeBenchmark(String name, CompilationMode compilationMode) {
+        this.compilationMode = compilationMode;
+    }
+
+    @Parameterized.Parameters(name = "{0}")
+    public static List<Object[]> parameters() {
+        return Arrays.asList(
+                new Object[]{"none", new CompilationMode.None()},
+                new Object[]{"baselineProfile", new CompilationMode.Partial(BaselineProfileMode.Require)});
+    }
+
+    @Test
+    public void coldStartLoggedIn() {
+        rule.measureRepeated(MovieBuzzFlows.PACKAGE, Collections.singletonList(new StartupTimingMetric()),
+                compilationMode, StartupMode.COLD, ITERATIONS,
+                scope -> {
+                    MovieBuzzFlows.ensureLoggedIn(scope);
+                    scope.pressHome();
+                    return Unit.INSTANCE;
+                },
+                scope -> {
+                    scope.startActivityAndWait();
+                    MovieBuzzFlows.waitForGrid(scope.getDevice());
+                    return Unit.INSTANCE;
+                });
+    }
+
+    @Test
+    public void flingMovieGrid() {
+        rule.measureRepeated(MovieBuzzFlows.PACKAGE, Collections.singletonList(new FrameTimingMetric()),
+                compilationMode, StartupMode.WARM, ITERATIONS,
+                scope -> {
+                    MovieBuzzFlows.ensureLoggedIn(scope);
+                    return Unit.INSTANCE;
+                },
+                scope -> {
+                    UiDevice device = scope.getDevice();
+                    UiObject2 grid = device.findObject(MovieBuzzFlows.res("movieRecyclerView"));
+                    grid.setGestureMargin(device.getDisplayWidth() / 5);
+                    grid.fling(Direction.DOWN);
+                    device.waitForIdle();
+                    grid.fling(Direction.UP);
+                    device.waitForIdle();
+                    return Unit.INSTANCE;
+                });
+    }
+}
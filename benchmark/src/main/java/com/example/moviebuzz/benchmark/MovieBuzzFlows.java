@@ -0,0 +1,87 @@
+package com.example.moviebuzz.benchmark;
+
+import androidx.benchmark.macro.MacrobenchmarkScope;
+import androidx.test.uiautomator.By;
+import androidx.test.uiautomator.BySelector;
+import androidx.test.uiautomator.UiDevice;
+import androidx.test.uiautomator.UiObject2;
+import androidx.test.uiautomator.Until;
+
+import java.util.regex.Pattern;
+
+// UI steps shared by the benchmarks. They drive the app's "benchmark" build type, whose data
+// comes from SampleData; the credentials below are the account seeded there.
+final class MovieBuzzFlows {
+    static final String PACKAGE = "com.example.moviebuzz";
+    private static final String USERNAME = "bench";
+    private static final String PASSWORD = "bench";
+    private static final long TIMEOUT_MS = 10_000;
+
+    private MovieBuzzFlows() {}
+
+    static BySelector res(String id) {
+        return By.res(PACKAGE, id);
+    }
+
+    // Leaves the app on the customer home screen with the grid populated.
+    static void ensureLoggedIn(MacrobenchmarkScope scope) {
+        UiDevice device = scope.getDevice();
+        scope.startActivityAndWait();
+        if (waitForLoginOrHome(device) == Screen.LOGIN) {
+            device.findObject(res("usernameField")).setText(USERNAME);
+            device.findObject(res("passwordField")).setText(PASSWORD);
+            device.findObject(res("loginButton")).click();
+        }
+        waitForGrid(device);
+    }
+
+    // Leaves the app on the login form.
+    static void ensureLoggedOut(MacrobenchmarkScope scope) {
+        UiDevice device = scope.getDevice();
+        scope.startActivityAndWait();
+        if (waitForLoginOrHome(device) == Screen.HOME) {
+            device.findObject(res("logoutButton")).click();
+        }
+        waitForLoginForm(device);
+    }
+
+    static void waitForGrid(UiDevice device) {
+        check(device.wait(Until.hasObject(res("movieTitle")), TIMEOUT_MS), "movie grid");
+    }
+
+    static void waitForLoginForm(UiDevice device) {
+        check(device.wait(Until.hasObject(res("usernameField")), TIMEOUT_MS), "login form");
+    }
+
+    // Opens the first movie, books one ticket for its first show and waits until the screen shows
+    // the new owned-ticket count, then goes back to the grid.
+    static void bookFirstShow(UiDevice device) {
+        device.findObject(res("movieTitle")).click();
+        check(device.wait(Until.hasObject(res("showDate")), TIMEOUT_MS), "show list");
+        device.findObject(res("showDate")).click();
+
+        UiObject2 owned = device.findObject(res("txtTicketsOwned"));
+        String before = owned != null ? owned.getText() : null;
+        device.findObject(res("btnConfirm")).click();
+        BySelector updated = before == null
+                ? res("txtTicketsOwned")
+                : res("txtTicketsOwned").text(Pattern.compile("(?!" + Pattern.quote(before) + "$).*"));
+        check(device.wait(Until.hasObject(updated), TIMEOUT_MS), "booking confirmation");
+
+        device.pressBack();
+        waitForGrid(device);
+    }
+
+    private enum Screen { LOGIN, HOME }
+
+    // LoginActivity forwards a logged-in user to the home screen, so either can come up.
+    private static Screen waitForLoginOrHome(UiDevice device) {
+        BySelector either = By.res(Pattern.compile(Pattern.quote(PACKAGE) + ":id/(usernameField|movieRecyclerView)"));
+        check(device.wait(Until.hasObject(either), TIMEOUT_MS), "login or home screen");
+        return device.hasObject(res("usernameField")) ? Screen.LOGIN : Screen.HOME;
+    }
+
+    private static void check(Boolean found, String what) {
+        if (found == null || !found) throw new IllegalStateException("Timed out waiting for " + what);
+    }
+}
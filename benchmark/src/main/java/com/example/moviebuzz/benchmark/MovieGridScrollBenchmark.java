@@ -0,0 +1,53 @@
+package com.example.moviebuzz.benchmark;
+
+import androidx.benchmark.macro.CompilationMode;
+import androidx.benchmark.macro.FrameTimingMetric;
+import androidx.benchmark.macro.StartupMode;
+import androidx.benchmark.macro.junit4.MacrobenchmarkRule;
+import androidx.test.ext.junit.runners.AndroidJUnit4;
+import androidx.test.uiautomator.Direction;
+import androidx.test.uiautomator.UiDevice;
+import androidx.test.uiautomator.UiObject2;
+
+import org.junit.Rule;
+import org.junit.Test;
+import org.junit.runner.RunWith;
+
+import java.util.Collections;
+
+import kotlin.Unit;
+
+// Frame timing while flinging the customer home grid through the whole seeded catalog and back.
+@RunWith(AndroidJUnit4.class)
+public class MovieGridScrollBenchmark {
+    private static final int ITERATIONS = 10;
+    private static final int FLINGS = 3;
+
+    @Rule
+    public MacrobenchmarkRule rule = new MacrobenchmarkRule();
+
+    @Test
+    public void flingMovieGrid() {
+        rule.measureRepeated(MovieBuzzFlows.PACKAGE, Collections.singletonList(new FrameTimingMetric()),
+                CompilationMode.DEFAULT, StartupMode.WARM, ITERATIONS,
+                scope -> {
+                    MovieBuzzFlows.ensureLoggedIn(scope);
+                    return Unit.INSTANCE;
+                },
+                scope -> {
+                    UiDevice device = scope.getDevice();
+                    UiObject2 grid = device.findObject(MovieBuzzFlows.res("movieRecyclerView"));
+                    // Keeps the gesture off the system navigation areas.
+                    grid.setGestureMargin(device.getDisplayWidth() / 5);
+                    for (int i = 0; i < FLINGS; i++) {
+                        grid.fling(Direction.DOWN);
+                        device.waitForIdle();
+                    }
+                    for (int i = 0; i < FLINGS; i++) {
+                        grid.fling(Direction.UP);
+                        device.waitForIdle();
+                    }
+                    return Unit.INSTANCE;
+                });
+    }
+}
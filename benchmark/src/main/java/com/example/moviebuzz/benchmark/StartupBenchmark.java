@@ -0,0 +1,64 @@
+package com.example.moviebuzz.benchmark;
+
+import androidx.benchmark.macro.CompilationMode;
+import androidx.benchmark.macro.StartupMode;
+import androidx.benchmark.macro.StartupTimingMetric;
+import androidx.benchmark.macro.junit4.MacrobenchmarkRule;
+
+import org.junit.Rule;
+import org.junit.Test;
+import org.junit.runner.RunWith;
+import org.junit.runners.Parameterized;
+
+import java.util.ArrayList;
+import java.util.Collections;
+import java.util.List;
+
+import kotlin.Unit;
+
+// Cold, warm and hot launches from the launcher icon. Logged out, that lands on LoginActivity;
+// logged in, LoginActivity forwards to CustomerMainActivity, which counts as fully drawn once the
+// grid has movies. StartupTimingMetric reports both TTID and TTFD (reportFullyDrawn).
+@RunWith(Parameterized.class)
+public class StartupBenchmark {
+    private static final int ITERATIONS = 10;
+
+    @Rule
+    public MacrobenchmarkRule rule = new MacrobenchmarkRule();
+
+    private final StartupMode mode;
+    private final boolean loggedIn;
+
+    public StartupBenchmark(StartupMode mode, boolean loggedIn) {
+        this.mode = mode;
+        this.loggedIn = loggedIn;
+    }
+
+    @Parameterized.Parameters(name = "{0}-loggedIn={1}")
+    public static List<Object[]> parameters() {
+        List<Object[]> params = new ArrayList<>();
+        for (StartupMode mode : new StartupMode[]{StartupMode.COLD, StartupMode.WARM, StartupMode.HOT}) {
+            params.add(new Object[]{mode, false});
+            params.add(new Object[]{mode, true});
+        }
+        return params;
+    }
+
+    @Test
+    public void startup() {
+        rule.measureRepeated(MovieBuzzFlows.PACKAGE, Collections.singletonList(new StartupTimingMetric()),
+                CompilationMode.DEFAULT, mode, ITERATIONS,
+                scope -> {
+                    if (loggedIn) MovieBuzzFlows.ensureLoggedIn(scope);
+                    else MovieBuzzFlows.ensureLoggedOut(scope);
+                    scope.pressHome();
+                    return Unit.INSTANCE;
+                },
+                scope -> {
+                    scope.startActivityAndWait();
+                    if (loggedIn) MovieBuzzFlows.waitForGrid(scope.getDevice());
+                    else MovieBuzzFlows.waitForLoginForm(scope.getDevice());
+                    return Unit.INSTANCE;
+                });
+    }
+}
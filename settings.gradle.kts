@@ -21,3 +21,4 @@ dependencyResolutionManagement {
 
 rootProject.name = "MovieBuzz"
 include(":app")
+include(":benchmark")